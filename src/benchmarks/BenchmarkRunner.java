@@ -0,0 +1,451 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal JMH-style Benchmark Harness (JDK only)
+ *
+ * The demos in this repo time things with a single System.currentTimeMillis() pair
+ * and no warmup, which mostly measures the interpreter and the JIT. This harness
+ * follows the JMH methodology closely enough for reproducible numbers without
+ * needing the JMH dependency or a build tool:
+ *
+ * - Parameterized sizes:   -p size=1000,1000000          (like @Param)
+ * - Warmup iterations:     -wi 5                         (like @Warmup)
+ * - Measured iterations:   -i 10                         (like @Measurement)
+ * - Iteration time:        -r 1000  (milliseconds)
+ * - Score unit:            -tu us   (ns, us, ms or s; default ms)
+ * - Forks:                 -f 2     (fresh JVM per benchmark and size, like @Fork; 0 = in-process)
+ * - Profilers:             -prof gc -prof alloc          (GC count/time, bytes allocated per op)
+ * - Filter:                any other argument is a regex on benchmark names
+ *
+ * Mode is average time per operation. Each fork reports one score per measured
+ * iteration; the table shows the mean over all forks and iterations with the
+ * 99.9% confidence half-width (Student t), like JMH's "Score ± Error".
+ *
+ * Setup that must not be timed goes into the factory (per size and fork) or into
+ * Benchmark.setupInvocation() (before every call, like Level.Invocation). Return the
+ * result from invoke() so the harness can consume it and the JIT cannot drop the work.
+ *
+ * Usage (from a benchmark class):
+ *   public static void main(String[] args) {
+ *       new BenchmarkRunner(SortBenchmarks.class, args, 10_000, 1_000_000)
+ *           .add("Arrays.sort", size -> ...)
+ *           .run();
+ *   }
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * One benchmarked operation, created per size by a BenchmarkFactory
+     */
+    public interface Benchmark {
+        /** Untimed work before every invoke(), e.g. restoring an array that invoke() sorts */
+        default void setupInvocation() {
+        }
+
+        Object invoke();
+    }
+
+    @FunctionalInterface
+    public interface BenchmarkFactory {
+        Benchmark create(int size);
+    }
+
+    private static final String CHILD_FLAG = "--child";
+    private static final String RESULT_PREFIX = "##";
+
+    /** Results go here so the JIT cannot eliminate the benchmarked work */
+    private static volatile Object sink;
+
+    private final Class<?> mainClass;
+    private final String[] args;
+    private final Options options;
+    private final Map<String, BenchmarkFactory> benchmarks = new LinkedHashMap<>();
+
+    public BenchmarkRunner(Class<?> mainClass, String[] args, int... defaultSizes) {
+        this.mainClass = mainClass;
+        this.args = args;
+        this.options = Options.parse(args, defaultSizes);
+    }
+
+    public BenchmarkRunner add(String name, BenchmarkFactory factory) {
+        benchmarks.put(name, factory);
+        return this;
+    }
+
+    public void run() {
+        if (options.childBenchmark != null) {
+            runChild();
+            return;
+        }
+
+        System.out.printf("# %s: warmup %d x %d ms, measurement %d x %d ms, forks %d, sizes %s%n",
+            mainClass.getSimpleName(), options.warmupIterations, options.iterationMillis,
+            options.measurementIterations, options.iterationMillis, options.forks,
+            Arrays.toString(options.sizes));
+        System.out.println("# JVM: " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+            + ", " + Runtime.getRuntime().availableProcessors() + " CPUs");
+
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, BenchmarkFactory> entry : benchmarks.entrySet()) {
+            if (options.filter != null && !options.filter.matcher(entry.getKey()).find()) {
+                continue;
+            }
+            for (int size : options.sizes) {
+                System.out.printf("# Running %s (size = %d)%n", entry.getKey(), size);
+                Result result = new Result(entry.getKey(), size);
+                if (options.forks == 0) {
+                    measure(entry.getValue().create(size), result);
+                } else {
+                    for (int fork = 0; fork < options.forks; fork++) {
+                        fork(entry.getKey(), size, result);
+                    }
+                }
+                results.add(result);
+            }
+        }
+        print(results);
+    }
+
+    // ---------------------------------------------------------------- measuring
+
+    private void measure(Benchmark benchmark, Result result) {
+        for (int i = 0; i < options.warmupIterations; i++) {
+            runIteration(benchmark);
+        }
+
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+        long allocatedBefore = allocatedBytes();
+        long ops = 0;
+        for (int i = 0; i < options.measurementIterations; i++) {
+            double[] iteration = runIteration(benchmark);
+            result.scores.add(iteration[0]);
+            ops += (long) iteration[1];
+        }
+        result.ops += ops;
+        result.gcCount += gcCount() - gcCountBefore;
+        result.gcTimeMillis += gcTimeMillis() - gcTimeBefore;
+        long allocatedAfter = allocatedBytes();
+        if (allocatedBefore >= 0 && allocatedAfter >= allocatedBefore) {
+            result.allocatedBytes += allocatedAfter - allocatedBefore;
+        } else {
+            result.allocationKnown = false;
+        }
+    }
+
+    /**
+     * Runs invoke() repeatedly for one iteration time; returns {nanos per op, ops}
+     */
+    private double[] runIteration(Benchmark benchmark) {
+        long deadline = System.nanoTime() + options.iterationMillis * 1_000_000L;
+        long timed = 0;
+        long ops = 0;
+        do {
+            benchmark.setupInvocation();
+            long start = System.nanoTime();
+            Object value = benchmark.invoke();
+            timed += System.nanoTime() - start;
+            sink = value;
+            ops++;
+        } while (System.nanoTime() < deadline);
+        return new double[] {(double) timed / ops, ops};
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Bytes allocated by all live threads (so parallel-stream workers count too), or -1
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean sunThreads) || !sunThreads.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : sunThreads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    // ---------------------------------------------------------------- forking
+
+    private void fork(String name, int size, Result result) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(Arrays.asList(args));
+        command.add(CHILD_FLAG);
+        command.add(name);
+        command.add(Integer.toString(size));
+
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(RESULT_PREFIX)) {
+                        result.merge(line.substring(RESULT_PREFIX.length()));
+                    } else {
+                        System.out.println("  | " + line);
+                    }
+                }
+            }
+            int exit = process.waitFor();
+            if (exit != 0) {
+                throw new IllegalStateException("Fork for " + name + " (size " + size + ") exited with " + exit);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not fork benchmark JVM", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for benchmark fork", e);
+        }
+    }
+
+    private void runChild() {
+        BenchmarkFactory factory = benchmarks.get(options.childBenchmark);
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown benchmark: " + options.childBenchmark);
+        }
+        Result result = new Result(options.childBenchmark, options.childSize);
+        measure(factory.create(options.childSize), result);
+        System.out.println(RESULT_PREFIX + result.serialize());
+    }
+
+    // ---------------------------------------------------------------- reporting
+
+    private void print(List<Result> results) {
+        int nameWidth = "Benchmark".length();
+        for (Result r : results) {
+            nameWidth = Math.max(nameWidth, r.name.length());
+        }
+        String format = "%-" + nameWidth + "s %12s %5s %5s %14s %3s %12s %6s";
+        System.out.println();
+        StringBuilder header = new StringBuilder(String.format(format, "Benchmark", "(size)", "Mode", "Cnt", "Score", "", "Error", "Units"));
+        if (options.gcProfiler) {
+            header.append(String.format(" %10s %10s", "gc.count", "gc.ms"));
+        }
+        if (options.allocProfiler) {
+            header.append(String.format(" %16s", "alloc.B/op"));
+        }
+        System.out.println(header);
+
+        double nanosPerUnit = options.timeUnit.toNanos(1);
+        String units = unitSymbol(options.timeUnit) + "/op";
+        for (Result r : results) {
+            double mean = r.mean() / nanosPerUnit;
+            double error = r.error() / nanosPerUnit;
+            StringBuilder line = new StringBuilder(String.format(format, r.name, r.size, "avgt", r.scores.size(),
+                String.format("%.3f", mean), "±", Double.isNaN(error) ? "NaN" : String.format("%.3f", error), units));
+            if (options.gcProfiler) {
+                line.append(String.format(" %10d %10d", r.gcCount, r.gcTimeMillis));
+            }
+            if (options.allocProfiler) {
+                line.append(String.format(" %16s", r.allocationKnown && r.ops > 0 ? String.format("%.0f", (double) r.allocatedBytes / r.ops) : "n/a"));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static String unitSymbol(TimeUnit unit) {
+        switch (unit) {
+            case NANOSECONDS:
+                return "ns";
+            case MICROSECONDS:
+                return "us";
+            case MILLISECONDS:
+                return "ms";
+            default:
+                return "s";
+        }
+    }
+
+    /**
+     * Scores and profiler counters of one benchmark at one size, merged over forks
+     */
+    static final class Result {
+        final String name;
+        final int size;
+        final List<Double> scores = new ArrayList<>();
+        long ops;
+        long gcCount;
+        long gcTimeMillis;
+        long allocatedBytes;
+        boolean allocationKnown = true;
+
+        Result(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        double mean() {
+            double sum = 0;
+            for (double s : scores) {
+                sum += s;
+            }
+            return sum / scores.size();
+        }
+
+        /**
+         * Half-width of the 99.9% confidence interval of the mean
+         */
+        double error() {
+            int n = scores.size();
+            if (n < 2) {
+                return Double.NaN;
+            }
+            double mean = mean();
+            double squares = 0;
+            for (double s : scores) {
+                squares += (s - mean) * (s - mean);
+            }
+            double stdDev = Math.sqrt(squares / (n - 1));
+            return studentT999(n - 1) * stdDev / Math.sqrt(n);
+        }
+
+        String serialize() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(ops).append(';').append(gcCount).append(';').append(gcTimeMillis).append(';')
+                .append(allocationKnown ? allocatedBytes : -1).append(';');
+            for (int i = 0; i < scores.size(); i++) {
+                sb.append(i == 0 ? "" : ",").append(scores.get(i));
+            }
+            return sb.toString();
+        }
+
+        void merge(String serialized) {
+            String[] parts = serialized.split(";", -1);
+            ops += Long.parseLong(parts[0]);
+            gcCount += Long.parseLong(parts[1]);
+            gcTimeMillis += Long.parseLong(parts[2]);
+            long allocated = Long.parseLong(parts[3]);
+            if (allocated < 0) {
+                allocationKnown = false;
+            } else {
+                allocatedBytes += allocated;
+            }
+            for (String score : parts[4].split(",")) {
+                scores.add(Double.parseDouble(score));
+            }
+        }
+    }
+
+    /**
+     * Two-sided 99.9% Student t quantile (t at p = 0.9995), table for small degrees of
+     * freedom and the normal quantile beyond
+     */
+    static double studentT999(int degreesOfFreedom) {
+        double[] table = {636.62, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+            4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+            3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646};
+        if (degreesOfFreedom <= table.length) {
+            return table[degreesOfFreedom - 1];
+        }
+        return degreesOfFreedom <= 60 ? 3.551 : degreesOfFreedom <= 120 ? 3.373 : 3.291;
+    }
+
+    /**
+     * Command-line options, JMH flag names where there is an equivalent
+     */
+    static final class Options {
+        int warmupIterations = 5;
+        int measurementIterations = 10;
+        long iterationMillis = 1000;
+        TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+        int forks = 2;
+        int[] sizes;
+        boolean gcProfiler;
+        boolean allocProfiler;
+        Pattern filter;
+        String childBenchmark;
+        int childSize;
+
+        static Options parse(String[] args, int[] defaultSizes) {
+            Options o = new Options();
+            o.sizes = defaultSizes.length > 0 ? defaultSizes.clone() : new int[] {1_000};
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-wi" -> o.warmupIterations = Integer.parseInt(args[++i]);
+                    case "-i" -> o.measurementIterations = Integer.parseInt(args[++i]);
+                    case "-r" -> o.iterationMillis = Long.parseLong(args[++i]);
+                    case "-tu" -> o.timeUnit = parseTimeUnit(args[++i]);
+                    case "-f" -> o.forks = Integer.parseInt(args[++i]);
+                    case "-p" -> o.sizes = parseSizes(args[++i]);
+                    case "-prof" -> {
+                        String profiler = args[++i];
+                        if (profiler.equals("gc")) {
+                            o.gcProfiler = true;
+                        } else if (profiler.equals("alloc")) {
+                            o.allocProfiler = true;
+                        } else {
+                            throw new IllegalArgumentException("Unknown profiler: " + profiler + " (use gc or alloc)");
+                        }
+                    }
+                    case CHILD_FLAG -> {
+                        o.childBenchmark = args[++i];
+                        o.childSize = Integer.parseInt(args[++i]);
+                    }
+                    default -> o.filter = Pattern.compile(args[i]);
+                }
+            }
+            if (o.measurementIterations < 1 || o.iterationMillis < 1 || o.forks < 0 || o.warmupIterations < 0) {
+                throw new IllegalArgumentException("Need -i >= 1, -r >= 1, -f >= 0 and -wi >= 0");
+            }
+            return o;
+        }
+
+        private static TimeUnit parseTimeUnit(String unit) {
+            switch (unit) {
+                case "ns":
+                    return TimeUnit.NANOSECONDS;
+                case "us":
+                    return TimeUnit.MICROSECONDS;
+                case "ms":
+                    return TimeUnit.MILLISECONDS;
+                case "s":
+                    return TimeUnit.SECONDS;
+                default:
+                    throw new IllegalArgumentException("Unknown time unit: " + unit + " (use ns, us, ms or s)");
+            }
+        }
+
+        private static int[] parseSizes(String spec) {
+            String values = spec.startsWith("size=") ? spec.substring("size=".length()) : spec;
+            return Arrays.stream(values.split(",")).mapToInt(s -> Integer.parseInt(s.trim().replace("_", ""))).toArray();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import java8.programs.CharHistogram;
+
+/**
+ * Character counting: the boxed groupingBy collector of java8.programs.CountingCharacters
+ * vs CharHistogram
+ *
+ * The input is log-like text (mostly ASCII with about 1% accented and CJK
+ * characters) of size chars, also encoded as UTF-8 bytes:
+ * - groupingBy.sequential/parallel: chars().mapToObj(c -> (char) c) + groupingBy(counting())
+ * - histogram.string/chars: CharHistogram.of / parallelOf over the String and a char[]
+ * - histogram.utf8*: decoding UTF-8 bytes, sequential, parallel and through an InputStream
+ *
+ * Before measuring, checks that every variant produces the collector's map.
+ *
+ * Run: java benchmarks.CharHistogramBenchmarks [-p size=1000000,10000000] [-prof alloc]
+ */
+public class CharHistogramBenchmarks {
+
+    public static void main(String[] args) {
+        verify(text(100_000));
+
+        new BenchmarkRunner(CharHistogramBenchmarks.class, args, 100_000, 10_000_000)
+            .add("groupingBy.sequential", size -> {
+                String text = text(size);
+                return () -> text.chars().mapToObj(c -> (char) c)
+                    .collect(Collectors.groupingBy(x -> x, Collectors.counting()));
+            })
+            .add("groupingBy.parallel", size -> {
+                String text = text(size);
+                return () -> text.chars().parallel().mapToObj(c -> (char) c)
+                    .collect(Collectors.groupingByConcurrent(x -> x, Collectors.counting()));
+            })
+            .add("histogram.string", size -> {
+                String text = text(size);
+                return () -> CharHistogram.of(text);
+            })
+            .add("histogram.chars.parallel", size -> {
+                char[] chars = text(size).toCharArray();
+                return () -> CharHistogram.parallelOf(chars);
+            })
+            .add("histogram.utf8", size -> {
+                byte[] bytes = text(size).getBytes(StandardCharsets.UTF_8);
+                return () -> CharHistogram.ofUtf8(bytes);
+            })
+            .add("histogram.utf8.parallel", size -> {
+                byte[] bytes = text(size).getBytes(StandardCharsets.UTF_8);
+                return () -> CharHistogram.parallelOfUtf8(bytes);
+            })
+            .add("histogram.utf8.stream", size -> {
+                byte[] bytes = text(size).getBytes(StandardCharsets.UTF_8);
+                return () -> {
+                    try {
+                        return CharHistogram.ofUtf8(new ByteArrayInputStream(bytes));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+            })
+            .run();
+    }
+
+    /**
+     * Pseudo log lines: words of ASCII letters and digits separated by spaces and
+     * newlines, with an occasional accented or CJK character
+     */
+    static String text(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            int roll = random.nextInt(100);
+            if (roll == 0) {
+                sb.append((char) random.nextInt(0xC0, 0x180));
+            } else if (roll == 1) {
+                sb.append((char) random.nextInt(0x4E00, 0x9FA0));
+            } else if (roll < 16) {
+                sb.append(roll < 14 ? ' ' : '\n');
+            } else {
+                sb.append((char) (roll < 90 ? 'a' + random.nextInt(26) : '0' + random.nextInt(10)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void verify(String text) {
+        Map<Character, Long> expected = text.chars().mapToObj(c -> (char) c)
+            .collect(Collectors.groupingBy(x -> x, Collectors.counting()));
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            check(expected, CharHistogram.of(text), "of(String)");
+            check(expected, CharHistogram.parallelOf(text.toCharArray()), "parallelOf(char[])");
+            check(expected, CharHistogram.ofUtf8(bytes), "ofUtf8(byte[])");
+            check(expected, CharHistogram.parallelOfUtf8(bytes), "parallelOfUtf8(byte[])");
+            check(expected, CharHistogram.ofUtf8(new ByteArrayInputStream(bytes)), "ofUtf8(InputStream)");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println("# All CharHistogram variants match groupingBy(counting())");
+    }
+
+    private static void check(Map<Character, Long> expected, CharHistogram actual, String variant) {
+        if (!expected.equals(actual.toMap())) {
+            throw new IllegalStateException(variant + " differs from groupingBy(counting())");
+        }
+    }
+}
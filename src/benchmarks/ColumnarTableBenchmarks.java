@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import java14.programs.ColumnarTable;
+import java14.programs.RecordsExamples.Person;
+
+/**
+ * Filtering records: List<Person> with filter(Person::isAdult)
+ * (java14.programs.RecordsExamples) vs the struct-of-arrays ColumnarTable
+ *
+ * - list.countAdults / table.countAdults: number of rows with age >= 18
+ * - list.adultNames / table.adultNames:   names of those rows, as a List<String>
+ * - list.adultsNamed / table.adultsNamed: adults with one given name, materialized
+ *                                         as Person (a String predicate on the
+ *                                         table runs once per distinct name)
+ *
+ * Ages are uniform in [0, 90), names come from 10,000 distinct values, each
+ * record holding its own String as if it had been parsed from input.
+ *
+ * Before measuring, checks that both sides agree and prints the retained heap
+ * of both representations after a GC (the table shares one String per
+ * distinct name and stores ages as an int[]).
+ *
+ * Run: java benchmarks.ColumnarTableBenchmarks [-p size=100000,1000000] [-prof alloc]
+ */
+public class ColumnarTableBenchmarks {
+
+    public static void main(String[] args) {
+        verify(people(1_000_000));
+
+        new BenchmarkRunner(ColumnarTableBenchmarks.class, args, 100_000, 1_000_000)
+            .add("list.countAdults", size -> {
+                List<Person> people = people(size);
+                return () -> people.stream().filter(Person::isAdult).count();
+            })
+            .add("table.countAdults", size -> {
+                ColumnarTable<Person> table = ColumnarTable.of(Person.class, people(size));
+                return () -> table.intColumn("age").atLeast(18).cardinality();
+            })
+            .add("list.adultNames", size -> {
+                List<Person> people = people(size);
+                return () -> people.stream().filter(Person::isAdult).map(Person::name).collect(Collectors.toList());
+            })
+            .add("table.adultNames", size -> {
+                ColumnarTable<Person> table = ColumnarTable.of(Person.class, people(size));
+                return () -> table.stringColumn("name").values(table.intColumn("age").atLeast(18)).collect(Collectors.toList());
+            })
+            .add("list.adultsNamed", size -> {
+                List<Person> people = people(size);
+                return () -> people.stream().filter(p -> p.isAdult() && p.name().equals("name-42")).collect(Collectors.toList());
+            })
+            .add("table.adultsNamed", size -> {
+                ColumnarTable<Person> table = ColumnarTable.of(Person.class, people(size));
+                return () -> {
+                    BitSet selection = table.stringColumn("name").where(name -> name.equals("name-42"));
+                    selection.and(table.intColumn("age").atLeast(18));
+                    return table.rows(selection).collect(Collectors.toList());
+                };
+            })
+            .run();
+    }
+
+    private static List<Person> people(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Person> people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            people.add(new Person("name-" + random.nextInt(10_000), random.nextInt(90)));
+        }
+        return people;
+    }
+
+    private static void verify(List<Person> people) {
+        long listBytes = retained(() -> people(people.size()));
+        long tableBytes = retained(() -> ColumnarTable.of(Person.class, people));
+
+        ColumnarTable<Person> table = ColumnarTable.of(Person.class, people);
+        BitSet adults = table.intColumn("age").atLeast(18);
+        BitSet named = table.stringColumn("name").equalTo("name-42");
+        named.and(adults);
+        if (!table.stringColumn("name").values(adults).collect(Collectors.toList())
+                .equals(people.stream().filter(Person::isAdult).map(Person::name).collect(Collectors.toList()))
+                || !table.rows(named).collect(Collectors.toList())
+                .equals(people.stream().filter(p -> p.isAdult() && p.name().equals("name-42")).collect(Collectors.toList()))
+                || !table.rows(table.all()).collect(Collectors.toList()).equals(people)) {
+            throw new IllegalStateException("ColumnarTable differs from List<Person>");
+        }
+        System.out.printf("# ColumnarTable agrees with List<Person>; retained heap for %,d people: List %,d KB, table %,d KB%n",
+            people.size(), listBytes >> 10, tableBytes >> 10);
+    }
+
+    /**
+     * Heap still used by the built value after a GC; approximate, but stable
+     * for structures of this size
+     */
+    private static long retained(Supplier<Object> build) {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        Object value = build.get();
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        Reference.reachabilityFence(value);
+        return after - before;
+    }
+}
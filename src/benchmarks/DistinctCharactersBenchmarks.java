@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.util.stream.Collectors;
+
+import java8.programs.DistinctCharacters;
+
+/**
+ * First-occurrence deduplication of characters: the stream pipelines of
+ * java8.programs._04_RemoveDuplicateCharacter vs DistinctCharacters
+ *
+ * - stream.boxedStrings: chars().distinct() -> one String per char -> distinct() -> joining()
+ * - stream.ints:         chars().distinct() -> one String per char -> joining()
+ * - bitset / bitset.parallel: DistinctCharacters.of / parallelOf
+ *
+ * The input is the log-like text of CharHistogramBenchmarks, whose few thousand
+ * distinct characters keep appearing until the end, so no variant can stop early.
+ *
+ * Before measuring, checks that all variants return the same string.
+ *
+ * Run: java benchmarks.DistinctCharactersBenchmarks [-p size=100000,10000000] [-prof alloc]
+ */
+public class DistinctCharactersBenchmarks {
+
+    public static void main(String[] args) {
+        verify(CharHistogramBenchmarks.text(1_000_000));
+
+        new BenchmarkRunner(DistinctCharactersBenchmarks.class, args, 100_000, 10_000_000)
+            .add("stream.boxedStrings", size -> {
+                String text = CharHistogramBenchmarks.text(size);
+                return () -> boxedStrings(text);
+            })
+            .add("stream.ints", size -> {
+                String text = CharHistogramBenchmarks.text(size);
+                return () -> ints(text);
+            })
+            .add("bitset", size -> {
+                String text = CharHistogramBenchmarks.text(size);
+                return () -> DistinctCharacters.of(text).toString();
+            })
+            .add("bitset.parallel", size -> {
+                String text = CharHistogramBenchmarks.text(size);
+                return () -> DistinctCharacters.parallelOf(text).toString();
+            })
+            .run();
+    }
+
+    private static String boxedStrings(String text) {
+        return text.chars()
+            .distinct()
+            .mapToObj(ch -> String.valueOf((char) ch))
+            .distinct()
+            .collect(Collectors.joining());
+    }
+
+    private static String ints(String text) {
+        return text.chars()
+            .distinct()
+            .mapToObj(ch -> String.valueOf((char) ch))
+            .collect(Collectors.joining());
+    }
+
+    private static void verify(String text) {
+        String expected = ints(text);
+        if (!expected.equals(boxedStrings(text))
+                || !expected.equals(DistinctCharacters.of(text).toString())
+                || !expected.equals(DistinctCharacters.parallelOf(text).toString())) {
+            throw new IllegalStateException("Variants disagree on the distinct characters");
+        }
+        System.out.println("# All variants agree: " + expected.length() + " distinct characters");
+    }
+}
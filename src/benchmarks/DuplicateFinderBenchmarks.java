@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import java8.programs.DuplicateFinder;
+
+/**
+ * Duplicate detection: groupingBy(counting()) + filter as in
+ * java8.programs._02_FindingDuplicates vs the two-pass DuplicateFinder
+ *
+ * size tokens are generated on the fly from their index (so the input itself
+ * never sits in memory): 95% occur once, 5% are drawn from a pool of 1,000 repeated tokens.
+ * The groupingBy map retains every distinct token; DuplicateFinder retains two
+ * Bloom filters plus the candidates but generates the input twice, so its
+ * allocation rate is higher while its live heap (and old-gen GC work) is not.
+ *
+ * Before measuring, checks that both DuplicateFinder modes return the
+ * groupingBy result.
+ *
+ * Run: java benchmarks.DuplicateFinderBenchmarks [-p size=1000000] [-prof gc]
+ */
+public class DuplicateFinderBenchmarks {
+
+    public static void main(String[] args) throws IOException {
+        Path spillDirectory = Files.createTempDirectory("duplicate-benchmarks");
+        spillDirectory.toFile().deleteOnExit();
+        verify(tokens(200_000), spillDirectory);
+
+        new BenchmarkRunner(DuplicateFinderBenchmarks.class, args, 100_000, 1_000_000)
+            .add("groupingBy.filter", size -> () -> groupingBy(tokens(size)))
+            .add("DuplicateFinder.find", size -> {
+                DuplicateFinder finder = new DuplicateFinder(size, 0.01);
+                Supplier<Stream<String>> tokens = tokens(size);
+                return () -> finder.find(tokens);
+            })
+            .add("DuplicateFinder.findPartitioned", size -> {
+                DuplicateFinder finder = new DuplicateFinder(size, 0.01);
+                Supplier<Stream<String>> tokens = tokens(size);
+                return () -> {
+                    try {
+                        return finder.findPartitioned(tokens, 16, 1 << 20, spillDirectory);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+            })
+            .run();
+    }
+
+    /**
+     * Stateless, so every pass (sequential or parallel) sees the same tokens
+     */
+    static Supplier<Stream<String>> tokens(int size) {
+        return () -> IntStream.range(0, size).mapToObj(DuplicateFinderBenchmarks::token);
+    }
+
+    private static String token(int index) {
+        long mix = new SplittableRandom(index).nextLong();
+        return Math.floorMod(mix, 100) < 5 ? "repeated-" + Math.floorMod(mix >>> 8, 1_000) : "unique-" + index;
+    }
+
+    private static List<Map.Entry<String, Long>> groupingBy(Supplier<Stream<String>> tokens) {
+        return tokens.get()
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+            .entrySet().stream()
+            .filter(entry -> entry.getValue() > 1)
+            .collect(Collectors.toList());
+    }
+
+    private static void verify(Supplier<Stream<String>> tokens, Path spillDirectory) throws IOException {
+        Map<String, Long> expected = toMap(groupingBy(tokens));
+        DuplicateFinder finder = new DuplicateFinder(200_000, 0.01);
+        if (!expected.equals(toMap(finder.find(tokens)))) {
+            throw new IllegalStateException("DuplicateFinder.find differs from groupingBy");
+        }
+        if (!expected.equals(toMap(finder.findPartitioned(tokens, 16, 1 << 16, spillDirectory)))) {
+            throw new IllegalStateException("DuplicateFinder.findPartitioned differs from groupingBy");
+        }
+        System.out.println("# DuplicateFinder (both modes) matches groupingBy: " + expected.size() + " duplicate tokens");
+    }
+
+    private static Map<String, Long> toMap(List<Map.Entry<String, Long>> entries) {
+        Map<String, Long> map = new HashMap<>();
+        entries.forEach(entry -> map.put(entry.getKey(), entry.getValue()));
+        return map;
+    }
+}
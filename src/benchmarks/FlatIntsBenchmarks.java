@@ -0,0 +1,123 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import java8.programs.FlatInts;
+
+/**
+ * Flattening nested primitive data: the flatMap pipelines of
+ * java8.programs._08_StreamFlatMapExamples vs FlatInts, summing every value
+ *
+ * - matrix.flatMapToInt / matrix.flat (.parallel): int[][] via flatMapToInt(Arrays::stream) vs FlatInts.of
+ * - lists.flatMap / lists.flat: List<List<Integer>> via flatMap(List::stream) vs List<int[]> via FlatInts.of
+ * - words.flatMapBoxed / words.flatMapToInt / words.flat: chars of List<String> via
+ *   flatMap(chars().mapToObj), flatMapToInt(String::chars) vs FlatInts.chars
+ *
+ * Rows hold 0 to 31 values (16 on average), so the per-row Stream of flatMap is
+ * paid often. size is the total number of values. Run with -prof alloc to see
+ * the bytes allocated per op: the flatMap variants allocate a pipeline per row
+ * (and a box per value), FlatInts one long of row offsets per row.
+ *
+ * Before measuring, checks that all variants compute the same sums.
+ *
+ * Run: java benchmarks.FlatIntsBenchmarks [-p size=100000,10000000] [-prof alloc]
+ */
+public class FlatIntsBenchmarks {
+
+    public static void main(String[] args) {
+        verify(100_000);
+
+        new BenchmarkRunner(FlatIntsBenchmarks.class, args, 100_000, 10_000_000)
+            .add("matrix.flatMapToInt", size -> {
+                int[][] matrix = matrix(size);
+                return () -> Arrays.stream(matrix).flatMapToInt(Arrays::stream).sum();
+            })
+            .add("matrix.flat", size -> {
+                int[][] matrix = matrix(size);
+                return () -> FlatInts.of(matrix).sum();
+            })
+            .add("matrix.flatMapToInt.parallel", size -> {
+                int[][] matrix = matrix(size);
+                return () -> Arrays.stream(matrix).parallel().flatMapToInt(Arrays::stream).sum();
+            })
+            .add("matrix.flat.parallel", size -> {
+                int[][] matrix = matrix(size);
+                return () -> FlatInts.of(matrix).parallel().sum();
+            })
+            .add("lists.flatMap", size -> {
+                List<List<Integer>> lists = lists(matrix(size));
+                return () -> lists.stream().flatMap(List::stream).mapToInt(Integer::intValue).sum();
+            })
+            .add("lists.flat", size -> {
+                List<int[]> rows = Arrays.asList(matrix(size));
+                return () -> FlatInts.of(rows).sum();
+            })
+            .add("words.flatMapBoxed", size -> {
+                List<String> words = words(size);
+                return () -> words.stream().flatMap(w -> w.chars().mapToObj(c -> (char) c)).mapToInt(c -> c).sum();
+            })
+            .add("words.flatMapToInt", size -> {
+                List<String> words = words(size);
+                return () -> words.stream().flatMapToInt(String::chars).sum();
+            })
+            .add("words.flat", size -> {
+                List<String> words = words(size);
+                return () -> FlatInts.chars(words).sum();
+            })
+            .run();
+    }
+
+    /**
+     * Rows of 0 to 31 small values adding up to size values in total
+     */
+    static int[][] matrix(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<int[]> rows = new ArrayList<>();
+        int remaining = size;
+        while (remaining > 0) {
+            int length = Math.min(remaining, random.nextInt(32));
+            rows.add(random.ints(length, 0, 1000).toArray());
+            remaining -= length;
+        }
+        return rows.toArray(new int[rows.size()][]);
+    }
+
+    private static List<List<Integer>> lists(int[][] matrix) {
+        return Arrays.stream(matrix)
+            .map(row -> Arrays.stream(row).boxed().collect(Collectors.toList()))
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> words(int size) {
+        return Arrays.stream(matrix(size))
+            .map(row -> {
+                StringBuilder word = new StringBuilder(row.length);
+                for (int value : row) {
+                    word.append((char) ('a' + value % 26));
+                }
+                return word.toString();
+            })
+            .collect(Collectors.toList());
+    }
+
+    private static void verify(int size) {
+        int[][] matrix = matrix(size);
+        int expected = Arrays.stream(matrix).flatMapToInt(Arrays::stream).sum();
+        List<String> words = words(size);
+        int expectedChars = words.stream().flatMapToInt(String::chars).sum();
+        if (FlatInts.of(matrix).sum() != expected
+                || FlatInts.of(matrix).parallel().sum() != expected
+                || FlatInts.of(Arrays.asList(matrix)).sum() != expected
+                || lists(matrix).stream().flatMap(List::stream).mapToInt(Integer::intValue).sum() != expected
+                || FlatInts.chars(words).sum() != expectedChars
+                || FlatInts.chars(words).parallel().sum() != expectedChars
+                || words.stream().flatMap(w -> w.chars().mapToObj(c -> (char) c)).mapToInt(c -> c).sum() != expectedChars) {
+            throw new IllegalStateException("Variants disagree on the sums");
+        }
+        System.out.println("# All variants agree: sum " + expected + ", char sum " + expectedChars);
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGeneratorFactory;
+
+import java17.random.MonteCarlo;
+
+/**
+ * Monte Carlo engine (java17.random.MonteCarlo) scaling across worker counts
+ *
+ * Estimates pi with a fixed number of samples (size) on dedicated pools of
+ * 1, 2, 4, ... availableProcessors workers (benchmark name suffix /pN). A plain
+ * sequential loop over one generator is the baseline for the engine's overhead.
+ *
+ * Before measuring, checks that a fixed seed yields the identical estimate on every pool size.
+ *
+ * Run: java benchmarks.MonteCarloBenchmarks [-p size=1000000,10000000] [-prof alloc]
+ */
+public class MonteCarloBenchmarks {
+
+    private static final MonteCarlo.Kernel PI = r -> {
+        double x = r.nextDouble();
+        double y = r.nextDouble();
+        return x * x + y * y <= 1 ? 4 : 0;
+    };
+
+    public static void main(String[] args) {
+        verifyReproducible();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        BenchmarkRunner runner = new BenchmarkRunner(MonteCarloBenchmarks.class, args, 1_000_000, 10_000_000);
+        runner.add("loop(sequential)", size -> {
+            var factory = RandomGeneratorFactory.of("L64X128MixRandom");
+            return () -> {
+                var random = factory.create(42);
+                double sum = 0;
+                for (int i = 0; i < size; i++) {
+                    sum += PI.sample(random);
+                }
+                return sum / size;
+            };
+        });
+        for (int workers = 1; workers <= cores; workers = workers == cores ? cores + 1 : Math.min(workers * 2, cores)) {
+            int parallelism = workers;
+            runner.add("MonteCarlo/p" + parallelism, size -> {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                var factory = RandomGeneratorFactory.of("L64X128MixRandom");
+                MonteCarlo engine = MonteCarlo.of(PI).maxSamples(size).pool(pool);
+                return () -> engine.run(factory.create(42));
+            });
+        }
+        runner.run();
+    }
+
+    private static void verifyReproducible() {
+        MonteCarlo.Estimate expected = null;
+        for (int workers : new int[] {1, 2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            MonteCarlo.Estimate estimate = MonteCarlo.of(PI).maxSamples(3_000_001).pool(pool)
+                .run(RandomGeneratorFactory.of("L64X128MixRandom").create(42));
+            pool.shutdown();
+            if (expected == null) {
+                expected = estimate;
+            } else if (!expected.equals(estimate)) {
+                throw new IllegalStateException("Estimate differs between pool sizes: " + expected + " vs " + estimate);
+            }
+        }
+        System.out.println("# Same seed -> same estimate on 1, 2, 3 and 8 workers: " + expected);
+    }
+}
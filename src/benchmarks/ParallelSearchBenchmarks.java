@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import java8.programs.ParallelSearch;
+
+/**
+ * Latency of a parallel search with an expensive predicate: parallel streams vs
+ * ParallelSearch, for a single match near the start, middle and end of the list
+ *
+ * - stream.findFirst / stream.anyMatch: parallelStream().filter().findFirst(), anyMatch()
+ * - search.findFirst / search.anyMatch: ParallelSearch.findFirst, anyMatch
+ *
+ * The predicate mixes the element 64 times before comparing it, roughly the cost
+ * of parsing a small record. The match sits at 1%, 50% and 99% of the list.
+ *
+ * Before measuring, checks that all variants find the match.
+ *
+ * Run: java benchmarks.ParallelSearchBenchmarks [-p size=100000,1000000]
+ */
+public class ParallelSearchBenchmarks {
+
+    private static final double[] POSITIONS = { 0.01, 0.5, 0.99 };
+    private static final String[] NAMES = { "start", "middle", "end" };
+
+    public static void main(String[] args) {
+        verify(100_000);
+
+        BenchmarkRunner runner = new BenchmarkRunner(ParallelSearchBenchmarks.class, args, 100_000, 1_000_000);
+        for (int p = 0; p < POSITIONS.length; p++) {
+            double position = POSITIONS[p];
+            runner
+                .add(NAMES[p] + ".stream.findFirst", size -> {
+                    List<Integer> list = list(size);
+                    Predicate<Integer> matcher = matcher(size, position);
+                    return () -> list.parallelStream().filter(matcher).findFirst();
+                })
+                .add(NAMES[p] + ".stream.anyMatch", size -> {
+                    List<Integer> list = list(size);
+                    Predicate<Integer> matcher = matcher(size, position);
+                    return () -> list.parallelStream().anyMatch(matcher);
+                })
+                .add(NAMES[p] + ".search.findFirst", size -> {
+                    List<Integer> list = list(size);
+                    Predicate<Integer> matcher = matcher(size, position);
+                    return () -> ParallelSearch.findFirst(list, matcher);
+                })
+                .add(NAMES[p] + ".search.anyMatch", size -> {
+                    List<Integer> list = list(size);
+                    Predicate<Integer> matcher = matcher(size, position);
+                    return () -> ParallelSearch.anyMatch(list, matcher);
+                });
+        }
+        runner.run();
+    }
+
+    private static List<Integer> list(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Matches only the element at position * size, after mixing every element
+     */
+    private static Predicate<Integer> matcher(int size, double position) {
+        int target = (int) (position * (size - 1));
+        long expected = mix(target);
+        return n -> mix(n) == expected;
+    }
+
+    private static long mix(int n) {
+        long h = n;
+        for (int i = 0; i < 64; i++) {
+            h = (h ^ (h >>> 29)) * 0xbf58476d1ce4e5b9L + i;
+        }
+        return h;
+    }
+
+    private static void verify(int size) {
+        List<Integer> list = list(size);
+        for (double position : POSITIONS) {
+            Predicate<Integer> matcher = matcher(size, position);
+            Optional<Integer> expected = list.stream().filter(matcher).findFirst();
+            if (!expected.isPresent()
+                    || !expected.equals(list.parallelStream().filter(matcher).findFirst())
+                    || !expected.equals(ParallelSearch.findFirst(list, matcher))
+                    || !ParallelSearch.anyMatch(list, matcher)
+                    || !list.parallelStream().anyMatch(matcher)) {
+                throw new IllegalStateException("Variants disagree on the match at " + position);
+            }
+        }
+        System.out.println("# All variants find the match at 1%, 50% and 99%");
+    }
+}
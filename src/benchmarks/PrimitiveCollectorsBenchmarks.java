@@ -0,0 +1,108 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import java8.streams.collectors.PrimitiveCollectors;
+import java8.streams.collectors.PrimitiveCollectors.IntGroups;
+import java8.streams.collectors.PrimitiveCollectors.IntPartition;
+
+/**
+ * Collecting an IntStream: boxed() + Collectors (java8.streams.advanced.PrimitiveStreams,
+ * java8.streams.collectors.CollectorsDemo) vs PrimitiveCollectors
+ *
+ * - toList.boxed / toIntArray:                 boxed().collect(toList()) vs toIntArray()
+ * - groupingBy.boxed / groupingByInt:          groupingBy(n % 1000) vs groupingByInt
+ * - partitioningBy.boxed / partitioningByInt:  partitioningBy(n even) vs partitioningByInt
+ * - toLongList.boxed / toLongArray:            the same for a LongStream
+ *
+ * Each pair runs sequentially and in parallel (.par) over size random ints in
+ * [0, 1,000,000). Run with -prof alloc to compare the bytes allocated per op.
+ *
+ * Before measuring, checks that both sides of every pair hold the same elements.
+ *
+ * Run: java benchmarks.PrimitiveCollectorsBenchmarks [-p size=10000,1000000] [-prof alloc]
+ */
+public class PrimitiveCollectorsBenchmarks {
+
+    public static void main(String[] args) {
+        verify(data(100_000));
+
+        BenchmarkRunner runner = new BenchmarkRunner(PrimitiveCollectorsBenchmarks.class, args, 10_000, 1_000_000);
+        for (boolean parallel : new boolean[] {false, true}) {
+            String suffix = parallel ? ".par" : "";
+            runner
+                .add("toList.boxed" + suffix, size -> {
+                    int[] data = data(size);
+                    return () -> stream(data, parallel).boxed().collect(Collectors.toList());
+                })
+                .add("toIntArray" + suffix, size -> {
+                    int[] data = data(size);
+                    return () -> PrimitiveCollectors.toIntArray().collect(stream(data, parallel));
+                })
+                .add("groupingBy.boxed" + suffix, size -> {
+                    int[] data = data(size);
+                    return () -> stream(data, parallel).boxed().collect(Collectors.groupingBy(n -> n % 1000));
+                })
+                .add("groupingByInt" + suffix, size -> {
+                    int[] data = data(size);
+                    return () -> PrimitiveCollectors.groupingByInt(n -> n % 1000).collect(stream(data, parallel));
+                })
+                .add("partitioningBy.boxed" + suffix, size -> {
+                    int[] data = data(size);
+                    return () -> stream(data, parallel).boxed().collect(Collectors.partitioningBy(n -> n % 2 == 0));
+                })
+                .add("partitioningByInt" + suffix, size -> {
+                    int[] data = data(size);
+                    return () -> PrimitiveCollectors.partitioningByInt(n -> n % 2 == 0).collect(stream(data, parallel));
+                })
+                .add("toLongList.boxed" + suffix, size -> {
+                    long[] data = Arrays.stream(data(size)).asLongStream().toArray();
+                    return () -> (parallel ? Arrays.stream(data).parallel() : Arrays.stream(data)).boxed().collect(Collectors.toList());
+                })
+                .add("toLongArray" + suffix, size -> {
+                    long[] data = Arrays.stream(data(size)).asLongStream().toArray();
+                    return () -> PrimitiveCollectors.toLongArray().collect(parallel ? Arrays.stream(data).parallel() : Arrays.stream(data));
+                });
+        }
+        runner.run();
+    }
+
+    private static int[] data(int size) {
+        return new SplittableRandom(42).ints(size, 0, 1_000_000).toArray();
+    }
+
+    private static IntStream stream(int[] data, boolean parallel) {
+        return parallel ? Arrays.stream(data).parallel() : Arrays.stream(data);
+    }
+
+    private static int[] unboxed(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void verify(int[] data) {
+        for (boolean parallel : new boolean[] {false, true}) {
+            if (!Arrays.equals(unboxed(stream(data, parallel).boxed().collect(Collectors.toList())),
+                    PrimitiveCollectors.toIntArray().collect(stream(data, parallel)))) {
+                throw new IllegalStateException("toIntArray differs from toList");
+            }
+            Map<Integer, List<Integer>> groups = stream(data, parallel).boxed().collect(Collectors.groupingBy(n -> n % 1000));
+            IntGroups intGroups = PrimitiveCollectors.groupingByInt(n -> n % 1000).collect(stream(data, parallel));
+            if (groups.size() != intGroups.size() || !groups.entrySet().stream()
+                    .allMatch(e -> Arrays.equals(unboxed(e.getValue()), intGroups.get(e.getKey()).toArray()))) {
+                throw new IllegalStateException("groupingByInt differs from groupingBy");
+            }
+            Map<Boolean, List<Integer>> partition = stream(data, parallel).boxed().collect(Collectors.partitioningBy(n -> n % 2 == 0));
+            IntPartition intPartition = PrimitiveCollectors.partitioningByInt(n -> n % 2 == 0).collect(stream(data, parallel));
+            if (!Arrays.equals(unboxed(partition.get(true)), intPartition.get(true))
+                    || !Arrays.equals(unboxed(partition.get(false)), intPartition.get(false))) {
+                throw new IllegalStateException("partitioningByInt differs from partitioningBy");
+            }
+        }
+        System.out.println("# All pairs agree on " + data.length + " elements, sequential and parallel");
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Legacy java.util.Random vs Java 17 RandomGenerator algorithms (replaces
+ * comparePerformance() in java17.random.RandomGeneratorDemo)
+ *
+ * Each invocation fills an int[] of the given size from one generator, so the score
+ * is the cost of size nextInt() calls. Generators are created once per fork.
+ *
+ * Run: java benchmarks.RandomBenchmarks [-p size=1000,1000000] [-f 2] [-prof alloc]
+ */
+public class RandomBenchmarks {
+
+    private static final String[] ALGORITHMS = {
+        "L32X64MixRandom", "L64X128MixRandom", "Xoshiro256PlusPlus", "Xoroshiro128PlusPlus", "SplittableRandom"
+    };
+
+    public static void main(String[] args) {
+        BenchmarkRunner runner = new BenchmarkRunner(RandomBenchmarks.class, args, 1_000, 1_000_000);
+        runner.add("Random(legacy)", size -> fill(new Random(42), size));
+        for (String algorithm : ALGORITHMS) {
+            runner.add(algorithm, size -> fill(RandomGeneratorFactory.of(algorithm).create(42), size));
+        }
+        runner.run();
+    }
+
+    private static BenchmarkRunner.Benchmark fill(RandomGenerator generator, int size) {
+        int[] values = new int[size];
+        return () -> {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = generator.nextInt();
+            }
+            return values;
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGeneratorFactory;
+
+import java17.random.ParallelRandomFill;
+
+/**
+ * Parallel bulk random generation (java17.random.ParallelRandomFill) across
+ * algorithms and worker counts
+ *
+ * Each algorithm is run on dedicated pools of 1, 2, 4, ... availableProcessors
+ * workers (benchmark name suffix /pN), so near-linear scaling shows up as the score
+ * halving with each doubling. Legacy Random filled sequentially is the baseline.
+ *
+ * Before measuring, checks that a fixed seed yields the same array on every pool size.
+ *
+ * Run: java benchmarks.RandomFillBenchmarks [-p size=1000000,10000000] [-f 2] [L64X128]
+ */
+public class RandomFillBenchmarks {
+
+    private static final String[] ALGORITHMS = {
+        "L64X128MixRandom", "L32X64MixRandom", "L128X256MixRandom", "SplittableRandom",
+        "Xoshiro256PlusPlus", "Xoroshiro128PlusPlus"
+    };
+
+    public static void main(String[] args) {
+        verifyReproducible();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        BenchmarkRunner runner = new BenchmarkRunner(RandomFillBenchmarks.class, args, 1_000_000, 10_000_000);
+        runner.add("Random(legacy, sequential)", size -> {
+            Random random = new Random(42);
+            int[] values = new int[size];
+            return () -> {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = random.nextInt();
+                }
+                return values;
+            };
+        });
+        for (String algorithm : ALGORITHMS) {
+            for (int workers = 1; workers <= cores; workers = workers == cores ? cores + 1 : Math.min(workers * 2, cores)) {
+                int parallelism = workers;
+                runner.add(algorithm + "/p" + parallelism, size -> {
+                    ForkJoinPool pool = new ForkJoinPool(parallelism);
+                    int[] values = new int[size];
+                    var factory = RandomGeneratorFactory.of(algorithm);
+                    return () -> {
+                        ParallelRandomFill.fill(values, factory.create(42), pool);
+                        return values;
+                    };
+                });
+            }
+        }
+        runner.run();
+    }
+
+    private static void verifyReproducible() {
+        int size = 1_000_003;
+        for (String algorithm : ALGORITHMS) {
+            int[] expected = null;
+            for (int workers : new int[] {1, 2, 3, 8}) {
+                ForkJoinPool pool = new ForkJoinPool(workers);
+                int[] values = new int[size];
+                ParallelRandomFill.fill(values, RandomGeneratorFactory.of(algorithm).create(42), pool);
+                pool.shutdown();
+                if (expected == null) {
+                    expected = values;
+                } else if (!Arrays.equals(expected, values)) {
+                    throw new IllegalStateException(algorithm + " differs between pool sizes");
+                }
+            }
+        }
+        System.out.println("# Same seed -> same array on 1, 2, 3 and 8 workers for all algorithms");
+    }
+}
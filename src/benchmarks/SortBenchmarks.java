@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import java8.arrays.ParallelRadixSort;
+
+/**
+ * Arrays.sort() vs Arrays.parallelSort() (replaces the timing in java8.arrays.ParallelSortDemo)
+ *
+ * Every invocation sorts a fresh copy of the same random int[]; the copy is made in
+ * setupInvocation() and is not part of the score. ParallelRadixSort is included as
+ * the non-comparison baseline.
+ *
+ * Run: java benchmarks.SortBenchmarks [-p size=10000,1000000] [-f 2] [-prof gc] [-prof alloc]
+ */
+public class SortBenchmarks {
+
+    public static void main(String[] args) {
+        new BenchmarkRunner(SortBenchmarks.class, args, 10_000, 1_000_000, 10_000_000)
+            .add("Arrays.sort", size -> new SortInvocation(size) {
+                @Override
+                void sort(int[] a) {
+                    Arrays.sort(a);
+                }
+            })
+            .add("Arrays.parallelSort", size -> new SortInvocation(size) {
+                @Override
+                void sort(int[] a) {
+                    Arrays.parallelSort(a);
+                }
+            })
+            .add("ParallelRadixSort", size -> new SortInvocation(size) {
+                @Override
+                void sort(int[] a) {
+                    ParallelRadixSort.parallelSort(a);
+                }
+            })
+            .run();
+    }
+
+    /**
+     * Restores the unsorted data before every timed sort
+     */
+    abstract static class SortInvocation implements BenchmarkRunner.Benchmark {
+        private final int[] source;
+        private final int[] work;
+
+        SortInvocation(int size) {
+            this.source = new SplittableRandom(42).ints(size, 0, 1_000_000).toArray();
+            this.work = new int[size];
+        }
+
+        abstract void sort(int[] a);
+
+        @Override
+        public void setupInvocation() {
+            System.arraycopy(source, 0, work, 0, source.length);
+        }
+
+        @Override
+        public Object invoke() {
+            sort(work);
+            return work;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import java9.programs.SortedSlices;
+
+/**
+ * Slicing a sorted series: takeWhile() / dropWhile() / filter()
+ * (java9.programs.TakeWhileDropWhileExamples) vs the searching SortedSlices
+ *
+ * - stream.takeWhile / slices.takeWhile: sum of the values below the 1% quantile
+ * - stream.dropWhile / slices.dropWhile: sum of the values from the 99% quantile on
+ * - stream.filter / slices.range:        sum of a window of 1% in the middle
+ * - list.dropWhile / listSlices.dropWhile: the dropWhile case on a List<Integer>
+ *
+ * The values are sorted random ints. The streams test every element up to the
+ * cut (filter() tests all of them); SortedSlices tests O(log n) of them and only
+ * the selected slice is summed, so the gap grows with size.
+ *
+ * Before measuring, checks that both sides select the same values.
+ *
+ * Run: java benchmarks.SortedSlicesBenchmarks [-p size=100000,10000000]
+ */
+public class SortedSlicesBenchmarks {
+
+    public static void main(String[] args) {
+        verify(values(100_000));
+
+        new BenchmarkRunner(SortedSlicesBenchmarks.class, args, 100_000, 10_000_000)
+            .add("stream.takeWhile", size -> {
+                int[] values = values(size);
+                int low = quantile(values, 0.01);
+                return () -> Arrays.stream(values).takeWhile(v -> v < low).asLongStream().sum();
+            })
+            .add("slices.takeWhile", size -> {
+                int[] values = values(size);
+                int low = quantile(values, 0.01);
+                SortedSlices.OfInt slices = SortedSlices.of(values);
+                return () -> slices.takeWhile(v -> v < low).asLongStream().sum();
+            })
+            .add("stream.dropWhile", size -> {
+                int[] values = values(size);
+                int high = quantile(values, 0.99);
+                return () -> Arrays.stream(values).dropWhile(v -> v < high).asLongStream().sum();
+            })
+            .add("slices.dropWhile", size -> {
+                int[] values = values(size);
+                int high = quantile(values, 0.99);
+                SortedSlices.OfInt slices = SortedSlices.of(values);
+                return () -> slices.dropWhile(v -> v < high).asLongStream().sum();
+            })
+            .add("stream.filter", size -> {
+                int[] values = values(size);
+                int from = quantile(values, 0.50);
+                int to = quantile(values, 0.51);
+                return () -> Arrays.stream(values).filter(v -> v >= from && v < to).asLongStream().sum();
+            })
+            .add("slices.range", size -> {
+                int[] values = values(size);
+                int from = quantile(values, 0.50);
+                int to = quantile(values, 0.51);
+                SortedSlices.OfInt slices = SortedSlices.of(values);
+                return () -> slices.range(from, to).asLongStream().sum();
+            })
+            .add("list.dropWhile", size -> {
+                int[] values = values(size);
+                int high = quantile(values, 0.99);
+                List<Integer> list = boxed(values);
+                return () -> list.stream().dropWhile(v -> v < high).mapToLong(Integer::longValue).sum();
+            })
+            .add("listSlices.dropWhile", size -> {
+                int[] values = values(size);
+                int high = quantile(values, 0.99);
+                SortedSlices.OfList<Integer> slices = SortedSlices.of(boxed(values));
+                return () -> slices.dropWhile(v -> v < high).mapToLong(Integer::longValue).sum();
+            })
+            .run();
+    }
+
+    private static int[] values(int size) {
+        return new SplittableRandom(42).ints(size).sorted().toArray();
+    }
+
+    private static int quantile(int[] sorted, double q) {
+        return sorted[(int) (q * (sorted.length - 1))];
+    }
+
+    private static List<Integer> boxed(int[] values) {
+        return Arrays.stream(values).boxed().collect(Collectors.toList());
+    }
+
+    private static void verify(int[] values) {
+        SortedSlices.OfInt slices = SortedSlices.of(values);
+        List<Integer> list = boxed(values);
+        for (double q : new double[] {0, 0.01, 0.5, 0.99, 1}) {
+            int threshold = quantile(values, q);
+            int to = quantile(values, Math.min(1, q + 0.01));
+            if (!Arrays.equals(slices.takeWhile(v -> v < threshold).toArray(), Arrays.stream(values).takeWhile(v -> v < threshold).toArray())
+                    || !Arrays.equals(slices.dropWhile(v -> v < threshold).parallel().toArray(), Arrays.stream(values).dropWhile(v -> v < threshold).toArray())
+                    || !Arrays.equals(slices.range(threshold, to).toArray(), Arrays.stream(values).filter(v -> v >= threshold && v < to).toArray())
+                    || !SortedSlices.of(list).dropWhile(v -> v < threshold).collect(Collectors.toList())
+                        .equals(list.stream().dropWhile(v -> v < threshold).collect(Collectors.toList()))) {
+                throw new IllegalStateException("SortedSlices differ from the streams at quantile " + q);
+            }
+        }
+        // SORTED would let sorted() skip the sort; descending slices must not report it
+        int[] descending = {50, 40, 35, 30, 20, 10};
+        if (!Arrays.equals(SortedSlices.of(descending).takeWhile(v -> v >= 30).sorted().toArray(), new int[] {30, 35, 40, 50})
+                || !Arrays.equals(SortedSlices.of(new long[] {5, 3, 1}).dropWhile(v -> v > 4).sorted().toArray(), new long[] {1, 3})) {
+            throw new IllegalStateException("sorted() after a descending SortedSlices slice kept descending order");
+        }
+        System.out.println("# SortedSlices agree with takeWhile/dropWhile/filter: " + values.length + " values");
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import java8.streams.basics.SpillingSorter;
+
+/**
+ * Sorting and deduplicating a stream of strings: in-memory sorted() / distinct()
+ * (java8.streams.basics.StreamDemo) vs SpillingSorter
+ *
+ * - stream.sorted / stream.distinctSorted: sorted(), distinct().sorted()
+ * - spill.fits:                            SpillingSorter with a budget the data fits in (no files)
+ * - spill.sorted / spill.distinctSorted:   SpillingSorter with a 4 MB budget, so the data goes
+ *                                          through run files and the k-way merge
+ *
+ * The keys are drawn from size / 2 values, so about 40% of them are duplicates.
+ * The spilling variants show the price of disk I/O and decoding against the
+ * heap that the in-memory stages need; on a heap too small for the data only
+ * the spilling variants complete.
+ *
+ * Before measuring, checks that the spilling stages return what sorted() and
+ * distinct().sorted() return.
+ *
+ * Run: java benchmarks.SpillingSorterBenchmarks [-p size=100000,1000000] [-prof gc]
+ */
+public class SpillingSorterBenchmarks {
+
+    private static final long SPILL_BUDGET = 4 << 20;
+
+    public static void main(String[] args) {
+        Path directory = spillDirectory();
+        verify(keys(200_000), directory);
+
+        new BenchmarkRunner(SpillingSorterBenchmarks.class, args, 100_000, 1_000_000)
+            .add("stream.sorted", size -> {
+                List<String> keys = keys(size);
+                return () -> last(keys.stream().sorted());
+            })
+            .add("stream.distinctSorted", size -> {
+                List<String> keys = keys(size);
+                return () -> last(keys.stream().distinct().sorted());
+            })
+            .add("spill.fits", size -> {
+                List<String> keys = keys(size);
+                SpillingSorter<String> sorter = new SpillingSorter<>(SpillingSorter.Codec.strings(), Long.MAX_VALUE, directory);
+                return () -> last(sorter.sorted(keys.stream(), Comparator.naturalOrder()));
+            })
+            .add("spill.sorted", size -> {
+                List<String> keys = keys(size);
+                SpillingSorter<String> sorter = new SpillingSorter<>(SpillingSorter.Codec.strings(), SPILL_BUDGET, directory);
+                return () -> last(sorter.sorted(keys.stream(), Comparator.naturalOrder()));
+            })
+            .add("spill.distinctSorted", size -> {
+                List<String> keys = keys(size);
+                SpillingSorter<String> sorter = new SpillingSorter<>(SpillingSorter.Codec.strings(), SPILL_BUDGET, directory);
+                return () -> last(sorter.distinctSorted(keys.stream(), Comparator.naturalOrder()));
+            })
+            .run();
+    }
+
+    private static List<String> keys(int size) {
+        return new SplittableRandom(42).ints(size, 0, Math.max(1, size / 2))
+            .mapToObj(i -> "customer-" + i)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Consumes and closes the stream, so the run files are deleted; count() could
+     * skip a SIZED sorted() stage on newer JDKs
+     */
+    private static String last(Stream<String> sorted) {
+        try (Stream<String> stream = sorted) {
+            return stream.reduce((first, second) -> second).orElse(null);
+        }
+    }
+
+    private static Path spillDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("spill");
+            directory.toFile().deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void verify(List<String> keys, Path directory) {
+        SpillingSorter<String> sorter = new SpillingSorter<>(SpillingSorter.Codec.strings(), 1 << 20, directory);
+        List<String> sorted;
+        List<String> distinct;
+        try (Stream<String> stream = sorter.sorted(keys.stream(), Comparator.naturalOrder())) {
+            sorted = stream.collect(Collectors.toList());
+        }
+        try (Stream<String> stream = sorter.distinctSorted(keys.stream(), Comparator.naturalOrder())) {
+            distinct = stream.collect(Collectors.toList());
+        }
+        if (!sorted.equals(keys.stream().sorted().collect(Collectors.toList()))
+                || !distinct.equals(keys.stream().distinct().sorted().collect(Collectors.toList()))) {
+            throw new IllegalStateException("Spilling stages differ from sorted() / distinct().sorted()");
+        }
+        System.out.println("# Spilling stages agree: " + sorted.size() + " sorted, " + distinct.size() + " distinct");
+    }
+}
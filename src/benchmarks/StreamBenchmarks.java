@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Sequential vs parallel streams (replaces the timing in
+ * java8.streams.advanced._02_ParallelStreamPerformance)
+ *
+ * Three shapes, each sequential and parallel:
+ * - boxedList: List<Integer>.stream().map(compute), as in the demo
+ * - intRange:  IntStream.range().map(compute), no boxing
+ * - cheapSum:  IntStream.range().sum(), where splitting overhead dominates at small sizes
+ *
+ * compute() is a fixed amount of CPU work per element instead of the demo's
+ * Thread.sleep(1), which measures the scheduler rather than the stream.
+ *
+ * Run: java benchmarks.StreamBenchmarks [-p size=1000,100000] [-f 2] [-prof gc]
+ */
+public class StreamBenchmarks {
+
+    public static void main(String[] args) {
+        new BenchmarkRunner(StreamBenchmarks.class, args, 1_000, 100_000, 1_000_000)
+            .add("boxedList.sequential", size -> {
+                List<Integer> numbers = boxedList(size);
+                return () -> numbers.stream().mapToLong(StreamBenchmarks::compute).sum();
+            })
+            .add("boxedList.parallel", size -> {
+                List<Integer> numbers = boxedList(size);
+                return () -> numbers.parallelStream().mapToLong(StreamBenchmarks::compute).sum();
+            })
+            .add("intRange.sequential", size -> () -> IntStream.range(0, size).mapToLong(StreamBenchmarks::compute).sum())
+            .add("intRange.parallel", size -> () -> IntStream.range(0, size).parallel().mapToLong(StreamBenchmarks::compute).sum())
+            .add("cheapSum.sequential", size -> () -> IntStream.range(0, size).asLongStream().sum())
+            .add("cheapSum.parallel", size -> () -> IntStream.range(0, size).parallel().asLongStream().sum())
+            .run();
+    }
+
+    private static List<Integer> boxedList(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * About 100 dependent multiply-adds: enough work per element to amortize splitting
+     */
+    static long compute(int n) {
+        long x = n;
+        for (int i = 0; i < 100; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+}
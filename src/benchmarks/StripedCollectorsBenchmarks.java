@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import java8.streams.collectors.StripedCollectors;
+
+/**
+ * Parallel word frequencies: groupingBy / groupingByConcurrent with counting()
+ * (java8.streams.collectors.CollectorsDemo, java8.programs._05_GroupByAndPartition)
+ * vs StripedCollectors.counting
+ *
+ * size words are drawn with a skewed distribution (a few words are very hot, as
+ * in natural text) from two vocabularies:
+ * - few:  100 distinct words, all of them in the open-addressing table
+ * - many: 100,000 distinct words, most of them in the overflow map
+ *
+ * stripedSized passes a capacity for the whole vocabulary, so no key overflows.
+ *
+ * A ConcurrentHashMap<String, LongAdder> with computeIfAbsent is included as the
+ * usual hand-written alternative. Contention only shows with many cores: run on
+ * a large machine and compare the parallel variants.
+ *
+ * Run: java benchmarks.StripedCollectorsBenchmarks [-p size=1000000] [-prof gc]
+ */
+public class StripedCollectorsBenchmarks {
+
+    public static void main(String[] args) {
+        BenchmarkRunner runner = new BenchmarkRunner(StripedCollectorsBenchmarks.class, args, 1_000_000);
+        for (int vocabulary : new int[] {100, 100_000}) {
+            String name = vocabulary == 100 ? "few" : "many";
+            runner
+                .add(name + ".groupingBy.sequential", size -> {
+                    String[] words = words(size, vocabulary);
+                    return () -> Arrays.stream(words).collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+                })
+                .add(name + ".groupingBy.parallel", size -> {
+                    String[] words = words(size, vocabulary);
+                    return () -> Arrays.stream(words).parallel()
+                        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+                })
+                .add(name + ".groupingByConcurrent.parallel", size -> {
+                    String[] words = words(size, vocabulary);
+                    return () -> Arrays.stream(words).parallel()
+                        .collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
+                })
+                .add(name + ".concurrentHashMapLongAdder.parallel", size -> {
+                    String[] words = words(size, vocabulary);
+                    return () -> {
+                        Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+                        Arrays.stream(words).parallel().forEach(w -> counts.computeIfAbsent(w, k -> new LongAdder()).increment());
+                        return counts;
+                    };
+                })
+                .add(name + ".striped.parallel", size -> {
+                    String[] words = words(size, vocabulary);
+                    verify(words);
+                    return () -> Arrays.stream(words).parallel().collect(StripedCollectors.counting(Function.identity()));
+                })
+                .add(name + ".stripedSized.parallel", size -> {
+                    String[] words = words(size, vocabulary);
+                    int capacity = vocabulary * 4 / 3 + 1;
+                    return () -> Arrays.stream(words).parallel().collect(StripedCollectors.counting(Function.identity(), capacity));
+                });
+        }
+        runner.run();
+    }
+
+    /**
+     * Word i of the vocabulary is drawn with probability falling off like a cube,
+     * so word0 .. word9 make up about half of the text
+     */
+    static String[] words(int size, int vocabulary) {
+        String[] dictionary = new String[vocabulary];
+        Arrays.setAll(dictionary, i -> "word" + i);
+        SplittableRandom random = new SplittableRandom(42);
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            double u = random.nextDouble();
+            words[i] = dictionary[(int) (vocabulary * u * u * u)];
+        }
+        return words;
+    }
+
+    private static void verify(String[] words) {
+        Map<String, Long> expected = Arrays.stream(words).collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        if (!expected.equals(Arrays.stream(words).parallel().collect(StripedCollectors.counting(Function.identity())))) {
+            throw new IllegalStateException("StripedCollectors.counting differs from groupingBy(counting())");
+        }
+    }
+}
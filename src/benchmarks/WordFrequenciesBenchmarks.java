@@ -0,0 +1,123 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import java8.streams.collectors.WordFrequencies;
+
+/**
+ * Word frequencies of a text file: the split + groupingBy(counting()) of
+ * java8.streams.collectors.CollectorsDemo vs the memory-mapped WordFrequencies
+ *
+ * - readString.split:    read the file into one String, split("\\s+"), groupingBy(counting())
+ * - lines.parallel:      Files.lines().parallel(), splitAsStream per line, groupingByConcurrent(counting())
+ * - mapped / mapped.top10: WordFrequencies.of(file), then toMap() or top(10)
+ *
+ * The file holds size words from the skewed 100,000-word vocabulary of
+ * StripedCollectorsBenchmarks, 12 per line (about 10 bytes per word). It is
+ * read from the page cache, so the scores are CPU cost; divide the file size
+ * printed by verify by the score for the throughput.
+ *
+ * Before measuring, checks that all variants count the same words.
+ *
+ * Run: java benchmarks.WordFrequenciesBenchmarks [-p size=1000000,10000000] [-prof alloc]
+ */
+public class WordFrequenciesBenchmarks {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static void main(String[] args) {
+        verify(file(1_000_000));
+
+        new BenchmarkRunner(WordFrequenciesBenchmarks.class, args, 1_000_000, 10_000_000)
+            .add("readString.split", size -> {
+                Path file = file(size);
+                return () -> readAndSplit(file);
+            })
+            .add("lines.parallel", size -> {
+                Path file = file(size);
+                return () -> lines(file);
+            })
+            .add("mapped", size -> {
+                Path file = file(size);
+                return () -> mapped(file).toMap();
+            })
+            .add("mapped.top10", size -> {
+                Path file = file(size);
+                return () -> mapped(file).top(10);
+            })
+            .run();
+    }
+
+    /**
+     * Temporary file of size words, deleted on exit
+     */
+    private static Path file(int size) {
+        String[] words = StripedCollectorsBenchmarks.words(size, 100_000);
+        StringBuilder text = new StringBuilder(size * 10);
+        for (int i = 0; i < words.length; i++) {
+            text.append(words[i]).append(i % 12 == 11 ? '\n' : ' ');
+        }
+        try {
+            Path file = Files.createTempFile("words", ".txt");
+            file.toFile().deleteOnExit();
+            Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Long> readAndSplit(Path file) {
+        try {
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            return Arrays.stream(WHITESPACE.split(text))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Long> lines(Path file) {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.parallel()
+                .flatMap(WHITESPACE::splitAsStream)
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static WordFrequencies mapped(Path file) {
+        try {
+            return WordFrequencies.of(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void verify(Path file) {
+        try {
+            Map<String, Long> expected = readAndSplit(file);
+            WordFrequencies frequencies = WordFrequencies.of(file);
+            if (!expected.equals(lines(file)) || !expected.equals(frequencies.toMap())) {
+                throw new IllegalStateException("Variants disagree on the word counts");
+            }
+            System.out.println("# All variants agree: " + frequencies.distinct() + " distinct words in "
+                + Files.size(file) / 1_000_000 + " MB, top 3 " + frequencies.top(3));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
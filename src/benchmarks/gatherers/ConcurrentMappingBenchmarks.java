@@ -0,0 +1,90 @@
+package benchmarks.gatherers;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import benchmarks.BenchmarkRunner;
+import java25.streamgatherers.ConcurrentMapping;
+
+/**
+ * Mapping with a blocking function (a 2 ms sleep standing in for a remote call):
+ * parallelStream() vs the virtual-thread ConcurrentMapping gatherer
+ * (java25.streamgatherers.StreamGatherersDemo); size is the element count
+ *
+ * Throughput, all results collected in order:
+ * - parallelStream.all:   map on the common pool, about availableProcessors calls at a time
+ * - mapOrdered16.all:     ConcurrentMapping.mapOrdered(16, ...)
+ * - mapOrdered256.all:    ConcurrentMapping.mapOrdered(256, ...)
+ * - mapConcurrent256.all: Gatherers.mapConcurrent(256, ...), the JDK's version
+ *
+ * Latency, time to the first result:
+ * - parallelStream.first / mapOrdered256.first: findFirst(); the gatherer
+ *   cancels the calls still in flight
+ *
+ * The parallel stream is bound by the core count, the gatherers by
+ * maxConcurrency: with 256 in flight, 1,000 calls take about 4 sleeps.
+ *
+ * Before measuring, checks that all variants return the same list in order.
+ *
+ * Needs JDK 24 or later (finalized Gatherer API).
+ *
+ * Run: java benchmarks.gatherers.ConcurrentMappingBenchmarks [-p size=100,1000] [-wi 2 -i 5]
+ */
+public class ConcurrentMappingBenchmarks {
+
+    private static final long CALL_MILLIS = 2;
+
+    public static void main(String[] args) {
+        verify(300);
+
+        new BenchmarkRunner(ConcurrentMappingBenchmarks.class, args, 100, 1_000)
+            .add("parallelStream.all", size -> () -> ids(size).parallel()
+                .map(ConcurrentMappingBenchmarks::call)
+                .collect(Collectors.toList()))
+            .add("mapOrdered16.all", size -> () -> ids(size)
+                .gather(ConcurrentMapping.<Integer, Integer>mapOrdered(16, ConcurrentMappingBenchmarks::call))
+                .collect(Collectors.toList()))
+            .add("mapOrdered256.all", size -> () -> ids(size)
+                .gather(ConcurrentMapping.<Integer, Integer>mapOrdered(256, ConcurrentMappingBenchmarks::call))
+                .collect(Collectors.toList()))
+            .add("mapConcurrent256.all", size -> () -> ids(size)
+                .gather(Gatherers.<Integer, Integer>mapConcurrent(256, ConcurrentMappingBenchmarks::call))
+                .collect(Collectors.toList()))
+            .add("parallelStream.first", size -> () -> ids(size).parallel()
+                .map(ConcurrentMappingBenchmarks::call)
+                .findFirst())
+            .add("mapOrdered256.first", size -> () -> ids(size)
+                .gather(ConcurrentMapping.<Integer, Integer>mapOrdered(256, ConcurrentMappingBenchmarks::call))
+                .findFirst())
+            .run();
+    }
+
+    private static Stream<Integer> ids(int size) {
+        return IntStream.range(0, size).boxed();
+    }
+
+    private static Integer call(Integer id) {
+        try {
+            Thread.sleep(CALL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Call " + id + " cancelled", e);
+        }
+        return id * 31;
+    }
+
+    private static void verify(int size) {
+        List<Integer> expected = ids(size).map(id -> id * 31).collect(Collectors.toList());
+        List<Integer> parallel = ids(size).parallel().map(ConcurrentMappingBenchmarks::call).collect(Collectors.toList());
+        List<Integer> gathered = ids(size)
+            .gather(ConcurrentMapping.<Integer, Integer>mapOrdered(64, ConcurrentMappingBenchmarks::call))
+            .collect(Collectors.toList());
+        if (!parallel.equals(expected) || !gathered.equals(expected)) {
+            throw new IllegalStateException("ConcurrentMapping differs from parallelStream");
+        }
+        System.out.println("# ConcurrentMapping agrees with parallelStream: " + size + " calls in order");
+    }
+}
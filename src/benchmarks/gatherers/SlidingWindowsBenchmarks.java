@@ -0,0 +1,82 @@
+package benchmarks.gatherers;
+
+import java.util.List;
+import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import benchmarks.BenchmarkRunner;
+import java24.streamgatherers.SlidingWindows;
+
+/**
+ * Sliding windows over a stream of 200,000 elements: Gatherers.windowSliding
+ * (java24.streamgatherers.StreamGatherersDemo) vs the ring-buffer SlidingWindows;
+ * size is the window length
+ *
+ * - windowSliding.span / views.span: last - first of each window, O(1) per
+ *                                    window on a view, O(w) copy per window
+ *                                    with windowSliding
+ * - windowSliding.sum / mapping.sum: sum of each window, O(w) for both; the
+ *                                    difference is the List copied per window
+ *
+ * Run with -prof alloc: windowSliding allocates about 4 * size bytes per
+ * element (compressed references), SlidingWindows only its buffer per stream.
+ *
+ * Before measuring, checks that both produce the same windows.
+ *
+ * Needs JDK 24 or later (finalized Gatherer API).
+ *
+ * Run: java benchmarks.gatherers.SlidingWindowsBenchmarks [-p size=10,1000,10000] [-prof alloc]
+ */
+public class SlidingWindowsBenchmarks {
+
+    private static final int LENGTH = 200_000;
+
+    public static void main(String[] args) {
+        verify();
+
+        new BenchmarkRunner(SlidingWindowsBenchmarks.class, args, 10, 1_000, 10_000)
+            .add("windowSliding.span", size -> () -> elements()
+                .gather(Gatherers.windowSliding(size))
+                .mapToLong(window -> window.get(window.size() - 1) - window.get(0))
+                .sum())
+            .add("views.span", size -> () -> elements()
+                .gather(SlidingWindows.<Integer>views(size))
+                .mapToLong(window -> window.get(window.size() - 1) - window.get(0))
+                .sum())
+            .add("windowSliding.sum", size -> () -> elements()
+                .gather(Gatherers.windowSliding(size))
+                .mapToLong(SlidingWindowsBenchmarks::sum)
+                .sum())
+            .add("mapping.sum", size -> () -> elements()
+                .gather(SlidingWindows.<Integer, Long>mapping(size, SlidingWindowsBenchmarks::sum))
+                .mapToLong(Long::longValue)
+                .sum())
+            .run();
+    }
+
+    private static Stream<Integer> elements() {
+        return IntStream.range(0, LENGTH).map(i -> i * 7 % 1_000).boxed();
+    }
+
+    private static long sum(List<Integer> window) {
+        long sum = 0;
+        for (int i = 0; i < window.size(); i++) {
+            sum += window.get(i);
+        }
+        return sum;
+    }
+
+    private static void verify() {
+        for (int size : new int[] {1, 3, 1_000}) {
+            List<List<Integer>> expected = elements().limit(5_000).gather(Gatherers.windowSliding(size)).toList();
+            List<List<Integer>> actual = elements().limit(5_000).gather(SlidingWindows.<Integer>views(size))
+                .map(SlidingWindows.Window::copy)
+                .toList();
+            if (!actual.equals(expected)) {
+                throw new IllegalStateException("SlidingWindows differ from windowSliding for size " + size);
+            }
+        }
+        System.out.println("# SlidingWindows agree with windowSliding");
+    }
+}
@@ -0,0 +1,118 @@
+package benchmarks.gatherers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.DoubleBinaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
+
+import benchmarks.BenchmarkRunner;
+import java24.streamgatherers.WindowAggregates;
+
+/**
+ * Moving aggregates over 200,000 ints: windowSliding + reduce
+ * (java24.streamgatherers.StreamGatherersDemo) vs the incremental WindowAggregates;
+ * size is the window length
+ *
+ * - naive.sum / naive.max:       boxed(), windowSliding(size), then a fold of each window
+ * - gatherer.sum / gatherer.max: boxed(), WindowAggregates gatherer, O(1) per element
+ * - primitive.sum / primitive.max / primitive.variance:
+ *                                WindowAggregates over the IntStream, no boxing
+ *
+ * The naive variants cost O(size) per element plus a List per window; the
+ * incremental ones are flat in size.
+ *
+ * Before measuring, checks that both approaches give the same windows, also for
+ * min and max over doubles with NaN in them.
+ *
+ * Needs JDK 24 or later (finalized Gatherer API).
+ *
+ * Run: java benchmarks.gatherers.WindowAggregatesBenchmarks [-p size=10,100,10000] [-prof alloc]
+ */
+public class WindowAggregatesBenchmarks {
+
+    private static final int LENGTH = 200_000;
+
+    public static void main(String[] args) {
+        int[] values = values();
+        verify(values);
+
+        new BenchmarkRunner(WindowAggregatesBenchmarks.class, args, 10, 100, 10_000)
+            .add("naive.sum", size -> () -> IntStream.of(values).boxed()
+                .gather(Gatherers.windowSliding(size))
+                .mapToDouble(WindowAggregatesBenchmarks::sum)
+                .sum())
+            .add("gatherer.sum", size -> () -> IntStream.of(values).boxed()
+                .gather(WindowAggregates.sum(size).gatherer())
+                .mapToDouble(Double::doubleValue)
+                .sum())
+            .add("primitive.sum", size -> () -> WindowAggregates.sum(size).over(IntStream.of(values)).sum())
+            .add("naive.max", size -> () -> IntStream.of(values).boxed()
+                .gather(Gatherers.windowSliding(size))
+                .mapToDouble(WindowAggregatesBenchmarks::max)
+                .sum())
+            .add("gatherer.max", size -> () -> IntStream.of(values).boxed()
+                .gather(WindowAggregates.max(size).gatherer())
+                .mapToDouble(Double::doubleValue)
+                .sum())
+            .add("primitive.max", size -> () -> WindowAggregates.max(size).over(IntStream.of(values)).sum())
+            .add("primitive.variance", size -> () -> WindowAggregates.variance(size).over(IntStream.of(values)).sum())
+            .run();
+    }
+
+    private static int[] values() {
+        return new SplittableRandom(42).ints(LENGTH, 0, 1_000_000).toArray();
+    }
+
+    private static double sum(List<Integer> window) {
+        long sum = 0;
+        for (int value : window) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static double max(List<Integer> window) {
+        int max = Integer.MIN_VALUE;
+        for (int value : window) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static void verify(int[] values) {
+        for (int size : new int[] {1, 7, 1_000}) {
+            double[] naiveSums = IntStream.of(values).boxed().gather(Gatherers.windowSliding(size))
+                .mapToDouble(WindowAggregatesBenchmarks::sum).toArray();
+            double[] naiveMaxima = IntStream.of(values).boxed().gather(Gatherers.windowSliding(size))
+                .mapToDouble(WindowAggregatesBenchmarks::max).toArray();
+            if (!Arrays.equals(naiveSums, WindowAggregates.sum(size).over(IntStream.of(values)).toArray())
+                    || !Arrays.equals(naiveMaxima, WindowAggregates.max(size).over(IntStream.of(values)).toArray())) {
+                throw new IllegalStateException("WindowAggregates differ from windowSliding + reduce for size " + size);
+            }
+        }
+        // a NaN makes every window it is in NaN, as in a fold with Math.max / Math.min
+        double[] withNaN = {-13, -18, 47, -44, 46, Double.NaN, Double.NaN, -20, 5, 3, 1};
+        for (int size : new int[] {1, 3, 4, 20}) {
+            double[] naiveMaxima = DoubleStream.of(withNaN).boxed().gather(Gatherers.windowSliding(size))
+                .mapToDouble(window -> fold(window, Math::max)).toArray();
+            double[] naiveMinima = DoubleStream.of(withNaN).boxed().gather(Gatherers.windowSliding(size))
+                .mapToDouble(window -> fold(window, Math::min)).toArray();
+            if (!Arrays.equals(naiveMaxima, WindowAggregates.max(size).over(DoubleStream.of(withNaN)).toArray())
+                    || !Arrays.equals(naiveMinima, WindowAggregates.min(size).over(DoubleStream.of(withNaN)).toArray())) {
+                throw new IllegalStateException("WindowAggregates min/max differ on NaN for size " + size);
+            }
+        }
+        System.out.println("# WindowAggregates agree with windowSliding + reduce");
+    }
+
+    private static double fold(List<Double> window, DoubleBinaryOperator extreme) {
+        double result = window.get(0);
+        for (double value : window) {
+            result = extreme.applyAsDouble(result, value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,374 @@
+package java11.jfr;
+
+import jdk.jfr.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work-Stealing Telemetry for ForkJoinPool Workloads
+ *
+ * Samples a pool while a pipeline (parallel stream, RecursiveTask, ...) runs:
+ * - getStealCount() delta, getQueuedTaskCount(), getQueuedSubmissionCount()
+ * - getActiveThreadCount(), getRunningThreadCount(), getPoolSize()
+ *
+ * Every sample is committed as a ForkJoinPoolSample JFR event, and stop() commits
+ * one ForkJoinPipeline event and returns a Report with hints about skewed splits
+ * or badly chosen thresholds. Events cost nothing when no recording is running.
+ *
+ * ForkJoinPool has no per-worker counters, so per-worker CPU time is only
+ * available for pools created with newMonitoredPool() (their worker threads are
+ * registered by the thread factory and read through ThreadMXBean). The registry
+ * holds pools and workers weakly, so a shut-down pool and its threads can be
+ * collected.
+ *
+ * Usage:
+ *   ForkJoinPool pool = ForkJoinPoolMonitor.newMonitoredPool(8);
+ *   ForkJoinPoolMonitor monitor = ForkJoinPoolMonitor.start("word-count", pool, 10);
+ *   pool.submit(() -> words.parallelStream()...).get();
+ *   System.out.println(monitor.stop());
+ */
+public final class ForkJoinPoolMonitor implements AutoCloseable {
+
+    @Name("java11.jfr.ForkJoinPoolSample")
+    @Label("ForkJoinPool Sample")
+    @Category({"Java Application", "ForkJoinPool"})
+    @Description("Periodic snapshot of a ForkJoinPool while a pipeline runs")
+    @StackTrace(false)
+    static class ForkJoinPoolSampleEvent extends Event {
+        @Label("Pipeline")
+        String pipeline;
+
+        @Label("Parallelism")
+        int parallelism;
+
+        @Label("Pool Size")
+        int poolSize;
+
+        @Label("Active Threads")
+        int activeThreads;
+
+        @Label("Running Threads")
+        @Description("Workers not blocked waiting to join tasks or in managed blocking")
+        int runningThreads;
+
+        @Label("Queued Tasks")
+        long queuedTasks;
+
+        @Label("Queued Submissions")
+        int queuedSubmissions;
+
+        @Label("Steals Since Last Sample")
+        long steals;
+    }
+
+    @Name("java11.jfr.ForkJoinPipeline")
+    @Label("ForkJoinPool Pipeline")
+    @Category({"Java Application", "ForkJoinPool"})
+    @Description("Summary of one monitored pipeline run")
+    @StackTrace(false)
+    static class ForkJoinPipelineEvent extends Event {
+        @Label("Pipeline")
+        String pipeline;
+
+        @Label("Parallelism")
+        int parallelism;
+
+        @Label("Steals")
+        long steals;
+
+        @Label("Max Queued Tasks")
+        long maxQueuedTasks;
+
+        @Label("Average Active Threads")
+        double averageActiveThreads;
+
+        @Label("Utilization")
+        @Percentage
+        double utilization;
+
+        @Label("Worker CPU Skew")
+        @Description("Max worker CPU time divided by mean worker CPU time; 1.0 is perfectly balanced")
+        double workerCpuSkew;
+    }
+
+    /**
+     * Worker threads of pools created by newMonitoredPool(), keyed by pool. Workers
+     * reference their pool, so they are held weakly too: a strong set would keep
+     * every pool it belongs to reachable
+     */
+    private static final Map<ForkJoinPool, Set<Thread>> WORKERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final String pipeline;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService sampler;
+    private final ForkJoinPipelineEvent summaryEvent = new ForkJoinPipelineEvent();
+    private final long startNanos;
+    private final long startSteals;
+    private final Map<Thread, Long> startCpuNanos = new HashMap<>();
+
+    private long lastSteals;
+    private int samples;
+    private long activeSum;
+    private long runningSum;
+    private long maxQueuedTasks;
+    private int maxActive;
+    private Report report;
+
+    private ForkJoinPoolMonitor(String pipeline, ForkJoinPool pool, long intervalMillis) {
+        this.pipeline = pipeline;
+        this.pool = pool;
+        for (Thread worker : workersOf(pool)) {
+            startCpuNanos.put(worker, cpuNanos(worker));
+        }
+        this.startSteals = pool.getStealCount();
+        this.lastSteals = startSteals;
+        this.startNanos = System.nanoTime();
+        summaryEvent.begin();
+
+        this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fj-monitor-" + pipeline);
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts sampling pool every intervalMillis until stop() or close()
+     */
+    public static ForkJoinPoolMonitor start(String pipeline, ForkJoinPool pool, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("intervalMillis must be positive, was " + intervalMillis);
+        }
+        return new ForkJoinPoolMonitor(pipeline, pool, intervalMillis);
+    }
+
+    /**
+     * A pool whose workers are registered for per-worker CPU accounting
+     */
+    public static ForkJoinPool newMonitoredPool(int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            WORKERS.computeIfAbsent(pool, p -> Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()))).add(worker);
+            return worker;
+        }, null, false);
+    }
+
+    private synchronized void sample() {
+        if (report != null) {
+            return;
+        }
+        pruneTerminatedWorkers(pool);
+        long steals = pool.getStealCount();
+        int active = pool.getActiveThreadCount();
+        int running = pool.getRunningThreadCount();
+        long queued = pool.getQueuedTaskCount();
+
+        samples++;
+        activeSum += active;
+        runningSum += running;
+        maxActive = Math.max(maxActive, active);
+        maxQueuedTasks = Math.max(maxQueuedTasks, queued);
+
+        ForkJoinPoolSampleEvent event = new ForkJoinPoolSampleEvent();
+        if (event.isEnabled()) {
+            event.pipeline = pipeline;
+            event.parallelism = pool.getParallelism();
+            event.poolSize = pool.getPoolSize();
+            event.activeThreads = active;
+            event.runningThreads = running;
+            event.queuedTasks = queued;
+            event.queuedSubmissions = pool.getQueuedSubmissionCount();
+            event.steals = steals - lastSteals;
+            event.commit();
+        }
+        lastSteals = steals;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * Stops sampling, commits the summary event and returns the report; later calls
+     * return the same report
+     */
+    public synchronized Report stop() {
+        if (report != null) {
+            return report;
+        }
+        sampler.shutdownNow();
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        List<Long> workerCpu = new ArrayList<>();
+        for (Thread worker : workersOf(pool)) {
+            long now = cpuNanos(worker);
+            if (now >= 0) {
+                workerCpu.add(now - startCpuNanos.getOrDefault(worker, 0L));
+            }
+        }
+
+        int parallelism = pool.getParallelism();
+        double avgActive = samples == 0 ? 0 : (double) activeSum / samples;
+        double avgRunning = samples == 0 ? 0 : (double) runningSum / samples;
+        report = new Report(pipeline, elapsedNanos, parallelism, pool.getStealCount() - startSteals,
+            samples, avgActive, avgRunning, maxActive, maxQueuedTasks, workerCpu);
+
+        summaryEvent.end();
+        if (summaryEvent.shouldCommit()) {
+            summaryEvent.pipeline = pipeline;
+            summaryEvent.parallelism = parallelism;
+            summaryEvent.steals = report.steals;
+            summaryEvent.maxQueuedTasks = maxQueuedTasks;
+            summaryEvent.averageActiveThreads = avgActive;
+            summaryEvent.utilization = report.utilization();
+            summaryEvent.workerCpuSkew = report.workerCpuSkew();
+            summaryEvent.commit();
+        }
+        return report;
+    }
+
+    private static List<Thread> workersOf(ForkJoinPool pool) {
+        Set<Thread> workers = WORKERS.get(pool);
+        if (workers == null) {
+            return List.of();
+        }
+        synchronized (workers) {
+            return new ArrayList<>(workers);
+        }
+    }
+
+    /**
+     * Workers retired by the pool (idle timeout, shutdown) report no CPU time anymore
+     */
+    private static void pruneTerminatedWorkers(ForkJoinPool pool) {
+        Set<Thread> workers = WORKERS.get(pool);
+        if (workers != null) {
+            synchronized (workers) {
+                workers.removeIf(worker -> worker.getState() == Thread.State.TERMINATED);
+            }
+        }
+    }
+
+    // getId() is deprecated from Java 19 in favour of threadId(), which Java 11 lacks
+    @SuppressWarnings("deprecation")
+    private static long cpuNanos(Thread thread) {
+        return THREADS.isThreadCpuTimeSupported() ? THREADS.getThreadCpuTime(thread.getId()) : -1;
+    }
+
+    /**
+     * Summary of one monitored pipeline
+     */
+    public static final class Report {
+        final String pipeline;
+        final long elapsedNanos;
+        final int parallelism;
+        final long steals;
+        final int samples;
+        final double averageActive;
+        final double averageRunning;
+        final int maxActive;
+        final long maxQueuedTasks;
+        final List<Long> workerCpuNanos;
+
+        Report(String pipeline, long elapsedNanos, int parallelism, long steals, int samples,
+               double averageActive, double averageRunning, int maxActive, long maxQueuedTasks,
+               List<Long> workerCpuNanos) {
+            this.pipeline = pipeline;
+            this.elapsedNanos = elapsedNanos;
+            this.parallelism = parallelism;
+            this.steals = steals;
+            this.samples = samples;
+            this.averageActive = averageActive;
+            this.averageRunning = averageRunning;
+            this.maxActive = maxActive;
+            this.maxQueuedTasks = maxQueuedTasks;
+            this.workerCpuNanos = workerCpuNanos;
+        }
+
+        public long steals() {
+            return steals;
+        }
+
+        /**
+         * Average active workers as a fraction of parallelism (0.0 - 1.0)
+         */
+        public double utilization() {
+            return parallelism == 0 ? 0 : Math.min(1.0, averageActive / parallelism);
+        }
+
+        /**
+         * Busiest worker's CPU time over the mean; NaN when per-worker CPU is unknown
+         */
+        public double workerCpuSkew() {
+            long total = 0;
+            long max = 0;
+            int busy = 0;
+            for (long cpu : workerCpuNanos) {
+                total += cpu;
+                max = Math.max(max, cpu);
+                busy++;
+            }
+            return busy == 0 || total == 0 ? Double.NaN : max / ((double) total / busy);
+        }
+
+        /**
+         * Human-readable hints derived from the numbers
+         */
+        public List<String> hints() {
+            List<String> hints = new ArrayList<>();
+            if (parallelism > 1 && steals == 0) {
+                hints.add("No steals: the work was never split, check the source spliterator or the task threshold");
+            }
+            if (samples > 0 && utilization() < 0.5) {
+                hints.add("Workers were idle more than half the time: splits too coarse, skewed, or blocking work");
+            }
+            if (averageActive > 0 && averageRunning < averageActive / 2) {
+                hints.add("Active workers were mostly blocked: move blocking calls off the pool (ManagedBlocker or virtual threads)");
+            }
+            double skew = workerCpuSkew();
+            if (!Double.isNaN(skew) && skew > 2.0) {
+                hints.add(String.format("Busiest worker used %.1fx the mean CPU: skewed splits", skew));
+            }
+            if (steals > 0 && elapsedNanos / steals < 10_000) {
+                hints.add("More than one steal per 10us: leaves are probably too small, raise the threshold");
+            }
+            return hints;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Pipeline '%s' on parallelism %d: %.1f ms%n", pipeline, parallelism, elapsedNanos / 1e6));
+            sb.append(String.format("  steals=%d samples=%d avgActive=%.2f avgRunning=%.2f maxActive=%d maxQueued=%d utilization=%.0f%%%n",
+                steals, samples, averageActive, averageRunning, maxActive, maxQueuedTasks, utilization() * 100));
+            if (!workerCpuNanos.isEmpty()) {
+                sb.append("  worker CPU ms:");
+                for (long cpu : workerCpuNanos) {
+                    sb.append(String.format(" %.1f", cpu / 1e6));
+                }
+                sb.append(String.format(" (skew %.2f)%n", workerCpuSkew()));
+            }
+            for (String hint : hints()) {
+                sb.append("  ! ").append(hint).append(System.lineSeparator());
+            }
+            return sb.toString();
+        }
+    }
+}
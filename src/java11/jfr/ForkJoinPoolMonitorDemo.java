@@ -0,0 +1,91 @@
+package java11.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * ForkJoinPoolMonitor Demo
+ *
+ * Runs three parallel streams on a monitored pool and prints the report of each:
+ * 1. Balanced: every element costs the same
+ * 2. Skewed: cost grows with the index, so the right-most splits carry most work
+ * 3. Blocking: elements sleep, so workers are "active" but burn no CPU
+ *
+ * If JFR is available, the ForkJoinPoolSample / ForkJoinPipeline events are recorded
+ * and counted from the dumped file (inspect with: jfr print --events ForkJoinPipeline file.jfr).
+ */
+public class ForkJoinPoolMonitorDemo {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Work-Stealing Telemetry ===\n");
+
+        Recording recording = null;
+        if (FlightRecorder.isAvailable()) {
+            recording = new Recording();
+            recording.enable(ForkJoinPoolMonitor.ForkJoinPoolSampleEvent.class);
+            recording.enable(ForkJoinPoolMonitor.ForkJoinPipelineEvent.class);
+            recording.start();
+        }
+
+        int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ForkJoinPool pool = ForkJoinPoolMonitor.newMonitoredPool(parallelism);
+
+        run("balanced", pool, () -> IntStream.range(0, 4_000).parallel().mapToLong(i -> spin(2_000)).sum());
+        run("skewed", pool, () -> IntStream.range(0, 4_000).parallel().mapToLong(i -> spin(i)).sum());
+        run("blocking", pool, () -> IntStream.range(0, 200).parallel().mapToLong(i -> sleep(2)).sum());
+        pool.shutdown();
+
+        if (recording != null) {
+            recording.stop();
+            Path file = Files.createTempFile("forkjoin-telemetry", ".jfr");
+            recording.dump(file);
+            recording.close();
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            long samples = events.stream().filter(e -> e.getEventType().getName().equals("java11.jfr.ForkJoinPoolSample")).count();
+            long pipelines = events.stream().filter(e -> e.getEventType().getName().equals("java11.jfr.ForkJoinPipeline")).count();
+            System.out.println("JFR events recorded:");
+            System.out.println("  ForkJoinPoolSample events: " + samples);
+            System.out.println("  ForkJoinPipeline events: " + pipelines);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void run(String pipeline, ForkJoinPool pool, LongSupplier work) throws Exception {
+        ForkJoinPoolMonitor monitor = ForkJoinPoolMonitor.start(pipeline, pool, 5);
+        try {
+            pool.submit(work::getAsLong).get();
+        } finally {
+            System.out.println(monitor.stop());
+        }
+    }
+
+    /**
+     * Busy loop whose cost is proportional to iterations
+     */
+    private static long spin(int iterations) {
+        long x = iterations;
+        for (int i = 0; i < iterations * 50; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+
+    private static long sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return millis;
+    }
+}
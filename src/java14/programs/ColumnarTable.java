@@ -0,0 +1,796 @@
+package java14.programs;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Columnar (Struct-of-Arrays) Store for Records
+ *
+ * A List<Person> holds a reference per record and every record points to its
+ * own String, so .filter(Person::isAdult).map(Person::name) chases pointers
+ * per row and pulls whole records through the cache to read one int. A
+ * ColumnarTable stores each record component in its own column:
+ *
+ * - int, long, double: a primitive array
+ * - boolean: a BitSet
+ * - String: dictionary-encoded, an int code per row and one copy of each distinct
+ *   value; once built, the dictionary is a sorted String[] searched by equalTo()
+ * - any other type (including byte, short, char, float): an Object[]
+ *
+ * Predicates run over a single column and return a selection bitmap, a BitSet
+ * with a bit per matching row, filled 64 rows per word by a branch-free loop.
+ * Selections combine with BitSet.and() / or() / andNot(). A String predicate is
+ * evaluated once per distinct value, not once per row. Records are only
+ * materialized, through the canonical constructor, by row(i) and rows(selection).
+ *
+ * Columns are found through Class.getRecordComponents(), so any record works
+ * without per-type code. Components are read and records constructed through
+ * method handles: of(Class, ...) reaches public records, of(Lookup, Class, ...)
+ * any record the code that created the Lookup can access, such as a private
+ * nested record. Tables are immutable once built.
+ *
+ * Usage:
+ *   ColumnarTable<Person> table = ColumnarTable.of(Person.class, people);
+ *   ColumnarTable<Reading> readings = ColumnarTable.of(MethodHandles.lookup(), Reading.class, rows);
+ *   BitSet adults = table.intColumn("age").atLeast(18);
+ *   List<String> names = table.stringColumn("name").values(adults).toList();
+ */
+public final class ColumnarTable<R extends Record>
+{
+	private final Class<R> type;
+	/** The canonical constructor, taking the components as an Object[] */
+	private final MethodHandle constructor;
+	private final List<Column> columns;
+	private final Map<String, Column> byName = new HashMap<>();
+	private final int size;
+
+	private ColumnarTable(Class<R> type, MethodHandle constructor, List<Column> columns, int size)
+	{
+		this.type = type;
+		this.constructor = constructor;
+		this.columns = Collections.unmodifiableList(columns);
+		this.size = size;
+		for (Column column : columns)
+		{
+			byName.put(column.name, column);
+		}
+	}
+
+	public static <R extends Record> ColumnarTable<R> of(Class<R> type, Iterable<? extends R> records)
+	{
+		return of(MethodHandles.lookup(), type, records);
+	}
+
+	/**
+	 * @param lookup access to the record, e.g. MethodHandles.lookup() in the class
+	 *               that declares it
+	 */
+	public static <R extends Record> ColumnarTable<R> of(MethodHandles.Lookup lookup, Class<R> type, Iterable<? extends R> records)
+	{
+		Builder<R> builder = builder(lookup, type);
+		for (R record : records)
+		{
+			builder.add(record);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Adds records one at a time, so a large table never needs them all as objects
+	 */
+	public static <R extends Record> Builder<R> builder(Class<R> type)
+	{
+		return builder(MethodHandles.lookup(), type);
+	}
+
+	public static <R extends Record> Builder<R> builder(MethodHandles.Lookup lookup, Class<R> type)
+	{
+		return new Builder<>(lookup, type);
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public List<Column> columns()
+	{
+		return columns;
+	}
+
+	/**
+	 * Every row, to start a selection from
+	 */
+	public BitSet all()
+	{
+		BitSet all = new BitSet(size);
+		all.set(0, size);
+		return all;
+	}
+
+	public IntColumn intColumn(String name)
+	{
+		return column(name, IntColumn.class);
+	}
+
+	public LongColumn longColumn(String name)
+	{
+		return column(name, LongColumn.class);
+	}
+
+	public DoubleColumn doubleColumn(String name)
+	{
+		return column(name, DoubleColumn.class);
+	}
+
+	public BooleanColumn booleanColumn(String name)
+	{
+		return column(name, BooleanColumn.class);
+	}
+
+	public StringColumn stringColumn(String name)
+	{
+		return column(name, StringColumn.class);
+	}
+
+	public ObjectColumn objectColumn(String name)
+	{
+		return column(name, ObjectColumn.class);
+	}
+
+	private <C extends Column> C column(String name, Class<C> kind)
+	{
+		Column column = byName.get(name);
+		if (column == null)
+		{
+			throw new IllegalArgumentException("No component " + name + " in " + type.getSimpleName());
+		}
+		if (!kind.isInstance(column))
+		{
+			throw new IllegalArgumentException("Component " + name + " is stored in " + column.getClass().getSimpleName() + ", requested " + kind.getSimpleName());
+		}
+		return kind.cast(column);
+	}
+
+	/**
+	 * Materializes one record
+	 */
+	public R row(int row)
+	{
+		Objects.checkIndex(row, size);
+		Object[] components = new Object[columns.size()];
+		for (int c = 0; c < components.length; c++)
+		{
+			components[c] = columns.get(c).boxed(row);
+		}
+		try
+		{
+			return type.cast(constructor.invokeExact(components));
+		}
+		catch (RuntimeException | Error e)
+		{
+			// the canonical constructor rejected stored values, e.g. a validating compact constructor
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new IllegalStateException("The canonical constructor of " + type.getName() + " failed", e);
+		}
+	}
+
+	/**
+	 * Materializes the selected records lazily, in row order
+	 */
+	public Stream<R> rows(BitSet selection)
+	{
+		return selection.stream().filter(row -> row < size).mapToObj(this::row);
+	}
+
+	@Override
+	public String toString()
+	{
+		return type.getSimpleName() + " table, " + size + " rows, columns " + columns;
+	}
+
+	// ---------------------------------------------------------------- building
+
+	public static final class Builder<R extends Record>
+	{
+		private final Class<R> type;
+		private final MethodHandle constructor;
+		private final MethodHandle[] accessors;
+		private final List<Column> columns = new ArrayList<>();
+		private int size;
+		private boolean built;
+
+		Builder(MethodHandles.Lookup lookup, Class<R> type)
+		{
+			this.type = type;
+			RecordComponent[] components = type.getRecordComponents();
+			if (components == null)
+			{
+				throw new IllegalArgumentException(type.getName() + " is not a record");
+			}
+			Class<?>[] types = new Class<?>[components.length];
+			accessors = new MethodHandle[components.length];
+			try
+			{
+				for (int c = 0; c < components.length; c++)
+				{
+					types[c] = components[c].getType();
+					accessors[c] = lookup.unreflect(components[c].getAccessor());
+					columns.add(Column.of(components[c].getName(), types[c]));
+				}
+				constructor = lookup.findConstructor(type, MethodType.methodType(void.class, types))
+						.asSpreader(Object[].class, types.length)
+						.asType(MethodType.methodType(Object.class, Object[].class));
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new IllegalArgumentException(type.getName() + " is not accessible from " + lookup
+						+ "; pass MethodHandles.lookup() from a class that can access it", e);
+			}
+			catch (ReflectiveOperationException e)
+			{
+				throw new IllegalArgumentException("Cannot access the components of " + type.getName(), e);
+			}
+		}
+
+		public Builder<R> add(R record)
+		{
+			if (built)
+			{
+				throw new IllegalStateException("The table is already built");
+			}
+			for (int c = 0; c < accessors.length; c++)
+			{
+				Object value;
+				try
+				{
+					value = accessors[c].invoke(record);
+				}
+				catch (RuntimeException | Error e)
+				{
+					throw e;
+				}
+				catch (Throwable e)
+				{
+					throw new IllegalStateException(e);
+				}
+				columns.get(c).add(size, value);
+			}
+			size++;
+			return this;
+		}
+
+		/**
+		 * Can be called once; the table takes over the columns
+		 */
+		public ColumnarTable<R> build()
+		{
+			if (built)
+			{
+				throw new IllegalStateException("The table is already built");
+			}
+			built = true;
+			for (Column column : columns)
+			{
+				column.trim(size);
+			}
+			return new ColumnarTable<>(type, constructor, columns, size);
+		}
+	}
+
+	// ---------------------------------------------------------------- columns
+
+	/**
+	 * One record component for every row
+	 */
+	public abstract static class Column
+	{
+		final String name;
+
+		Column(String name)
+		{
+			this.name = name;
+		}
+
+		static Column of(String name, Class<?> type)
+		{
+			if (type == int.class)
+			{
+				return new IntColumn(name);
+			}
+			if (type == long.class)
+			{
+				return new LongColumn(name);
+			}
+			if (type == double.class)
+			{
+				return new DoubleColumn(name);
+			}
+			if (type == boolean.class)
+			{
+				return new BooleanColumn(name);
+			}
+			if (type == String.class)
+			{
+				return new StringColumn(name);
+			}
+			return new ObjectColumn(name);
+		}
+
+		public String name()
+		{
+			return name;
+		}
+
+		/** The value as a constructor argument */
+		abstract Object boxed(int row);
+
+		/** Stores the value of a new row, growing the storage as needed */
+		abstract void add(int row, Object value);
+
+		/** Drops spare capacity once all rows are added */
+		abstract void trim(int size);
+
+		@Override
+		public String toString()
+		{
+			return name + ":" + getClass().getSimpleName();
+		}
+	}
+
+	/**
+	 * Bitmap of the rows for which matches holds, 64 rows per word
+	 */
+	static BitSet select(int size, IntPredicate matches)
+	{
+		long[] words = new long[(size + 63) >>> 6];
+		for (int w = 0; w < words.length; w++)
+		{
+			int end = Math.min((w + 1) << 6, size);
+			long bits = 0;
+			for (int row = w << 6; row < end; row++)
+			{
+				// shifts use the low 6 bits of row, which is its position in the word
+				bits |= (matches.test(row) ? 1L : 0L) << row;
+			}
+			words[w] = bits;
+		}
+		return BitSet.valueOf(words);
+	}
+
+	public static final class IntColumn extends Column
+	{
+		private int[] values = new int[16];
+
+		IntColumn(String name)
+		{
+			super(name);
+		}
+
+		public int get(int row)
+		{
+			return values[row];
+		}
+
+		/**
+		 * Rows with low <= value <= high; the other comparisons delegate here, so
+		 * the JIT compiles one hot loop per column type
+		 */
+		public BitSet between(int low, int high)
+		{
+			int[] values = this.values;
+			long[] words = new long[(values.length + 63) >>> 6];
+			for (int w = 0; w < words.length; w++)
+			{
+				int end = Math.min((w + 1) << 6, values.length);
+				long bits = 0;
+				for (int row = w << 6; row < end; row++)
+				{
+					int value = values[row];
+					bits |= ((value >= low) & (value <= high) ? 1L : 0L) << row;
+				}
+				words[w] = bits;
+			}
+			return BitSet.valueOf(words);
+		}
+
+		public BitSet atLeast(int bound)
+		{
+			return between(bound, Integer.MAX_VALUE);
+		}
+
+		public BitSet atMost(int bound)
+		{
+			return between(Integer.MIN_VALUE, bound);
+		}
+
+		public BitSet lessThan(int bound)
+		{
+			return bound == Integer.MIN_VALUE ? new BitSet() : between(Integer.MIN_VALUE, bound - 1);
+		}
+
+		public BitSet equalTo(int value)
+		{
+			return between(value, value);
+		}
+
+		public BitSet where(IntPredicate predicate)
+		{
+			int[] values = this.values;
+			return select(values.length, row -> predicate.test(values[row]));
+		}
+
+		@Override
+		Object boxed(int row)
+		{
+			return values[row];
+		}
+
+		@Override
+		void add(int row, Object value)
+		{
+			if (row == values.length)
+			{
+				values = Arrays.copyOf(values, row * 2);
+			}
+			values[row] = (Integer) value;
+		}
+
+		@Override
+		void trim(int size)
+		{
+			values = Arrays.copyOf(values, size);
+		}
+	}
+
+	public static final class LongColumn extends Column
+	{
+		private long[] values = new long[16];
+
+		LongColumn(String name)
+		{
+			super(name);
+		}
+
+		public long get(int row)
+		{
+			return values[row];
+		}
+
+		/**
+		 * Rows with low <= value <= high
+		 */
+		public BitSet between(long low, long high)
+		{
+			long[] values = this.values;
+			long[] words = new long[(values.length + 63) >>> 6];
+			for (int w = 0; w < words.length; w++)
+			{
+				int end = Math.min((w + 1) << 6, values.length);
+				long bits = 0;
+				for (int row = w << 6; row < end; row++)
+				{
+					long value = values[row];
+					bits |= ((value >= low) & (value <= high) ? 1L : 0L) << row;
+				}
+				words[w] = bits;
+			}
+			return BitSet.valueOf(words);
+		}
+
+		public BitSet where(LongPredicate predicate)
+		{
+			long[] values = this.values;
+			return select(values.length, row -> predicate.test(values[row]));
+		}
+
+		@Override
+		Object boxed(int row)
+		{
+			return values[row];
+		}
+
+		@Override
+		void add(int row, Object value)
+		{
+			if (row == values.length)
+			{
+				values = Arrays.copyOf(values, row * 2);
+			}
+			values[row] = (Long) value;
+		}
+
+		@Override
+		void trim(int size)
+		{
+			values = Arrays.copyOf(values, size);
+		}
+	}
+
+	public static final class DoubleColumn extends Column
+	{
+		private double[] values = new double[16];
+
+		DoubleColumn(String name)
+		{
+			super(name);
+		}
+
+		public double get(int row)
+		{
+			return values[row];
+		}
+
+		/**
+		 * Rows with low <= value <= high; NaN never matches
+		 */
+		public BitSet between(double low, double high)
+		{
+			double[] values = this.values;
+			long[] words = new long[(values.length + 63) >>> 6];
+			for (int w = 0; w < words.length; w++)
+			{
+				int end = Math.min((w + 1) << 6, values.length);
+				long bits = 0;
+				for (int row = w << 6; row < end; row++)
+				{
+					double value = values[row];
+					bits |= ((value >= low) & (value <= high) ? 1L : 0L) << row;
+				}
+				words[w] = bits;
+			}
+			return BitSet.valueOf(words);
+		}
+
+		public BitSet where(DoublePredicate predicate)
+		{
+			double[] values = this.values;
+			return select(values.length, row -> predicate.test(values[row]));
+		}
+
+		@Override
+		Object boxed(int row)
+		{
+			return values[row];
+		}
+
+		@Override
+		void add(int row, Object value)
+		{
+			if (row == values.length)
+			{
+				values = Arrays.copyOf(values, row * 2);
+			}
+			values[row] = (Double) value;
+		}
+
+		@Override
+		void trim(int size)
+		{
+			values = Arrays.copyOf(values, size);
+		}
+	}
+
+	public static final class BooleanColumn extends Column
+	{
+		private final BitSet values = new BitSet();
+		private int size;
+
+		BooleanColumn(String name)
+		{
+			super(name);
+		}
+
+		public boolean get(int row)
+		{
+			Objects.checkIndex(row, size);
+			return values.get(row);
+		}
+
+		/**
+		 * The column is stored as a bitmap already, so this is a copy
+		 */
+		public BitSet whereTrue()
+		{
+			return (BitSet) values.clone();
+		}
+
+		public BitSet whereFalse()
+		{
+			BitSet selection = (BitSet) values.clone();
+			selection.flip(0, size);
+			return selection;
+		}
+
+		@Override
+		Object boxed(int row)
+		{
+			return values.get(row);
+		}
+
+		@Override
+		void add(int row, Object value)
+		{
+			values.set(row, (Boolean) value);
+			size = row + 1;
+		}
+
+		@Override
+		void trim(int size)
+		{
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Dictionary-encoded: codes[row] indexes the distinct values in first-seen
+	 * order. Repeated strings are stored once and compared as ints
+	 */
+	public static final class StringColumn extends Column
+	{
+		private static final Comparator<String> ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+		private int[] codes = new int[16];
+		/** While building: distinct values in first-seen order and their codes; dropped by trim() */
+		private List<String> pending = new ArrayList<>();
+		private Map<String, Integer> index = new HashMap<>();
+		/** Once built: the distinct values in ORDER, indexed by code */
+		private String[] dictionary;
+
+		StringColumn(String name)
+		{
+			super(name);
+		}
+
+		public String get(int row)
+		{
+			return dictionary[codes[row]];
+		}
+
+		public int distinctValues()
+		{
+			return dictionary.length;
+		}
+
+		public BitSet equalTo(String value)
+		{
+			int target = Arrays.binarySearch(dictionary, value, ORDER);
+			if (target < 0)
+			{
+				return new BitSet();
+			}
+			int[] codes = this.codes;
+			return select(codes.length, row -> codes[row] == target);
+		}
+
+		/**
+		 * Tests each distinct value once, then marks the rows by code
+		 */
+		public BitSet where(Predicate<? super String> predicate)
+		{
+			boolean[] accepted = new boolean[dictionary.length];
+			for (int code = 0; code < accepted.length; code++)
+			{
+				accepted[code] = predicate.test(dictionary[code]);
+			}
+			int[] codes = this.codes;
+			return select(codes.length, row -> accepted[codes[row]]);
+		}
+
+		/**
+		 * The values of the selected rows, in row order
+		 */
+		public Stream<String> values(BitSet selection)
+		{
+			return selection.stream().filter(row -> row < codes.length).mapToObj(this::get);
+		}
+
+		@Override
+		Object boxed(int row)
+		{
+			return get(row);
+		}
+
+		@Override
+		void add(int row, Object value)
+		{
+			if (row == codes.length)
+			{
+				codes = Arrays.copyOf(codes, row * 2);
+			}
+			Integer code = index.get(value);
+			if (code == null)
+			{
+				code = pending.size();
+				pending.add((String) value);
+				index.put((String) value, code);
+			}
+			codes[row] = code;
+		}
+
+		/**
+		 * Sorts the dictionary and recodes the rows, so the index map, a boxed
+		 * Integer and an entry per distinct value, is not retained by the table
+		 */
+		@Override
+		void trim(int size)
+		{
+			codes = Arrays.copyOf(codes, size);
+			dictionary = pending.toArray(new String[0]);
+			Arrays.sort(dictionary, ORDER);
+			int[] recode = new int[dictionary.length];
+			for (int code = 0; code < recode.length; code++)
+			{
+				recode[code] = Arrays.binarySearch(dictionary, pending.get(code), ORDER);
+			}
+			for (int row = 0; row < size; row++)
+			{
+				codes[row] = recode[codes[row]];
+			}
+			pending = null;
+			index = null;
+		}
+	}
+
+	public static final class ObjectColumn extends Column
+	{
+		private Object[] values = new Object[16];
+
+		ObjectColumn(String name)
+		{
+			super(name);
+		}
+
+		public Object get(int row)
+		{
+			return values[row];
+		}
+
+		public BitSet where(Predicate<Object> predicate)
+		{
+			Object[] values = this.values;
+			return select(values.length, row -> predicate.test(values[row]));
+		}
+
+		@Override
+		Object boxed(int row)
+		{
+			return values[row];
+		}
+
+		@Override
+		void add(int row, Object value)
+		{
+			if (row == values.length)
+			{
+				values = Arrays.copyOf(values, row * 2);
+			}
+			values[row] = value;
+		}
+
+		@Override
+		void trim(int size)
+		{
+			values = Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -1,10 +1,12 @@
 package java14.programs;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Practical examples using Java 14 Records
+ * For millions of records, ColumnarTable stores each component in its own array
  */
 public class RecordsExamples
 {
@@ -36,6 +38,28 @@ public class RecordsExamples
 		User user = new User("user123", "john@example.com", "ACTIVE");
 		System.out.println("User: " + user);
 		System.out.println("Is active: " + user.isActive());
+
+		// Example 4: Columnar storage - one array per component, filters produce row bitmaps
+		System.out.println("\n=== Columnar Records ===");
+		List<Person> more = List.of(
+				new Person("Dave", 12),
+				new Person("Alice", 41),
+				new Person("Eve", 17)
+		);
+		ColumnarTable.Builder<Person> builder = ColumnarTable.builder(Person.class);
+		people.forEach(builder::add);
+		more.forEach(builder::add);
+		ColumnarTable<Person> table = builder.build();
+		System.out.println(table);
+
+		BitSet adults = table.intColumn("age").atLeast(18);
+		System.out.println("Adult rows: " + adults);
+		System.out.println("Adult names: " + table.stringColumn("name").values(adults).collect(Collectors.toList()));
+
+		BitSet adultAlices = table.stringColumn("name").equalTo("Alice");
+		adultAlices.and(adults);
+		System.out.println("Adults named Alice, materialized: " + table.rows(adultAlices).collect(Collectors.toList()));
+		System.out.println("Distinct names stored: " + table.stringColumn("name").distinctValues());
 	}
 
 	public record Person(String name, int age)
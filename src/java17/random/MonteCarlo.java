@@ -0,0 +1,337 @@
+package java17.random;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.JumpableGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * Parallel Monte Carlo Engine on the RandomGenerator API
+ *
+ * Runs a per-sample kernel (RandomGenerator -> double) in rounds across a
+ * ForkJoinPool and estimates its expected value with a confidence interval:
+ * - Every leaf task of a round gets its own generator, created with split()
+ *   (LXM family, SplittableRandom) or jumps() (Xoshiro/Xoroshiro)
+ * - Leaves keep count, mean and sum of squared deviations (Welford) in primitive
+ *   locals and are merged pairwise, so no object is allocated per sample
+ * - After each round the running estimate is checked against the error target
+ *   and a user predicate, and the simulation stops early once either is met
+ *
+ * The leaf layout depends only on the round size, never on the pool, so a fixed
+ * seed produces the bit-identical estimate on any number of cores.
+ *
+ * Usage:
+ *   MonteCarlo.Estimate pi = MonteCarlo.of(r -> {
+ *           double x = r.nextDouble(), y = r.nextDouble();
+ *           return x * x + y * y <= 1 ? 4 : 0;
+ *       })
+ *       .absoluteError(1e-4)
+ *       .maxSamples(1_000_000_000L)
+ *       .run(RandomGeneratorFactory.of("L64X128MixRandom").create(42));
+ */
+public final class MonteCarlo {
+
+    /**
+     * One sample of the simulated quantity; must only use the given generator
+     */
+    @FunctionalInterface
+    public interface Kernel {
+        double sample(RandomGenerator random);
+    }
+
+    /** Samples per leaf task; also the granularity of the per-task generators */
+    static final int LEAF_SAMPLES = 1 << 14;
+
+    private final Kernel kernel;
+    private double confidence = 0.99;
+    private double absoluteError = 0;
+    private double relativeError = 0;
+    private long minSamples = 10_000;
+    private long maxSamples = 100_000_000;
+    private int roundSamples = 1 << 20;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private Predicate<Estimate> stopWhen = e -> false;
+    private Consumer<Estimate> onRound = e -> { };
+
+    private MonteCarlo(Kernel kernel) {
+        this.kernel = kernel;
+    }
+
+    public static MonteCarlo of(Kernel kernel) {
+        return new MonteCarlo(Objects.requireNonNull(kernel));
+    }
+
+    /**
+     * Two-sided confidence level of the interval, e.g. 0.95 or 0.999 (default 0.99)
+     */
+    public MonteCarlo confidence(double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be in (0, 1), was " + confidence);
+        }
+        this.confidence = confidence;
+        return this;
+    }
+
+    /**
+     * Stop once the interval half-width is at most error
+     */
+    public MonteCarlo absoluteError(double error) {
+        this.absoluteError = requireNonNegative(error, "absoluteError");
+        return this;
+    }
+
+    /**
+     * Stop once the interval half-width is at most error * |mean|
+     */
+    public MonteCarlo relativeError(double error) {
+        this.relativeError = requireNonNegative(error, "relativeError");
+        return this;
+    }
+
+    /**
+     * Error targets are not checked before this many samples (default 10,000)
+     */
+    public MonteCarlo minSamples(long minSamples) {
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    /**
+     * Hard limit on the number of samples (default 100,000,000)
+     */
+    public MonteCarlo maxSamples(long maxSamples) {
+        if (maxSamples <= 0) {
+            throw new IllegalArgumentException("maxSamples must be positive, was " + maxSamples);
+        }
+        this.maxSamples = maxSamples;
+        return this;
+    }
+
+    /**
+     * Samples between two convergence checks (default 2^20)
+     */
+    public MonteCarlo roundSamples(int roundSamples) {
+        if (roundSamples <= 0) {
+            throw new IllegalArgumentException("roundSamples must be positive, was " + roundSamples);
+        }
+        this.roundSamples = roundSamples;
+        return this;
+    }
+
+    public MonteCarlo pool(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool);
+        return this;
+    }
+
+    /**
+     * Additional early-termination rule, checked after every round
+     */
+    public MonteCarlo stopWhen(Predicate<Estimate> stopWhen) {
+        this.stopWhen = Objects.requireNonNull(stopWhen);
+        return this;
+    }
+
+    /**
+     * Called with the running estimate after every round, e.g. to print progress
+     */
+    public MonteCarlo onRound(Consumer<Estimate> onRound) {
+        this.onRound = Objects.requireNonNull(onRound);
+        return this;
+    }
+
+    /**
+     * Runs rounds until an error target, the stopWhen predicate or maxSamples is
+     * reached. The generator is advanced (split or jumped) but never shared.
+     */
+    public Estimate run(RandomGenerator generator) {
+        if (!(generator instanceof SplittableGenerator) && !(generator instanceof JumpableGenerator)) {
+            throw new IllegalArgumentException(generator.getClass().getSimpleName()
+                + " is neither splittable nor jumpable; use e.g. L64X128MixRandom or Xoshiro256PlusPlus");
+        }
+        double z = normalQuantile(0.5 + confidence / 2);
+        Stats total = new Stats();
+        int rounds = 0;
+        while (true) {
+            int samples = (int) Math.min(roundSamples, maxSamples - total.count);
+            // overflow-safe ceiling division
+            int leaves = samples == 0 ? 0 : (samples - 1) / LEAF_SAMPLES + 1;
+            RandomGenerator[] generators = generator instanceof SplittableGenerator splittable
+                ? splittable.splits(leaves).toArray(RandomGenerator[]::new)
+                : ((JumpableGenerator) generator).jumps(leaves).toArray(RandomGenerator[]::new);
+
+            RoundTask round = new RoundTask(kernel, generators, samples, 0, leaves);
+            pool.invoke(round);
+            total.merge(round.count, round.mean, round.m2);
+            rounds++;
+
+            boolean converged = total.count >= minSamples && total.count > 1
+                && (halfWidth(total, z) <= absoluteError
+                    || halfWidth(total, z) <= relativeError * Math.abs(total.mean));
+            Estimate estimate = new Estimate(total.count, total.mean, total.variance(), halfWidth(total, z),
+                confidence, rounds, converged);
+            onRound.accept(estimate);
+            if (converged || total.count >= maxSamples || stopWhen.test(estimate)) {
+                return estimate;
+            }
+        }
+    }
+
+    private static double halfWidth(Stats stats, double z) {
+        return stats.count < 2 ? Double.POSITIVE_INFINITY : z * Math.sqrt(stats.variance() / stats.count);
+    }
+
+    private static double requireNonNegative(double value, String name) {
+        if (!(value >= 0)) {
+            throw new IllegalArgumentException(name + " must not be negative, was " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Result of a simulation (or of the rounds so far)
+     *
+     * @param samples    number of kernel invocations
+     * @param mean       estimate of the expected value
+     * @param variance   sample variance of the kernel
+     * @param halfWidth  half-width of the confidence interval around mean
+     * @param confidence confidence level of the interval
+     * @param rounds     number of rounds run
+     * @param converged  whether an error target was met
+     */
+    public record Estimate(long samples, double mean, double variance, double halfWidth,
+                           double confidence, int rounds, boolean converged) {
+
+        public double standardError() {
+            return Math.sqrt(variance / samples);
+        }
+
+        public double lower() {
+            return mean - halfWidth;
+        }
+
+        public double upper() {
+            return mean + halfWidth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.6f ± %.6f (%.1f%% CI, %,d samples, %d rounds%s)",
+                mean, halfWidth, confidence * 100, samples, rounds, converged ? ", converged" : "");
+        }
+    }
+
+    /**
+     * Count, mean and sum of squared deviations; merged with the pairwise
+     * update of Chan et al.
+     */
+    static class Stats {
+        long count;
+        double mean;
+        double m2;
+
+        void merge(long otherCount, double otherMean, double otherM2) {
+            if (otherCount == 0) {
+                return;
+            }
+            long n = count + otherCount;
+            double delta = otherMean - mean;
+            mean += delta * otherCount / n;
+            m2 += otherM2 + delta * delta * ((double) count * otherCount / n);
+            count = n;
+        }
+
+        double variance() {
+            return count < 2 ? 0 : m2 / (count - 1);
+        }
+    }
+
+    /**
+     * Runs leaves [lo, hi) of a round by halving; results are merged in a fixed
+     * order, so the sum is the same on every run
+     */
+    static final class RoundTask extends RecursiveAction {
+        final Kernel kernel;
+        final RandomGenerator[] generators;
+        final int samples;
+        final int lo;
+        final int hi;
+        long count;
+        double mean;
+        double m2;
+
+        RoundTask(Kernel kernel, RandomGenerator[] generators, int samples, int lo, int hi) {
+            this.kernel = kernel;
+            this.generators = generators;
+            this.samples = samples;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                sampleLeaf();
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            RoundTask left = new RoundTask(kernel, generators, samples, lo, mid);
+            RoundTask right = new RoundTask(kernel, generators, samples, mid, hi);
+            invokeAll(left, right);
+
+            Stats stats = new Stats();
+            stats.merge(left.count, left.mean, left.m2);
+            stats.merge(right.count, right.mean, right.m2);
+            count = stats.count;
+            mean = stats.mean;
+            m2 = stats.m2;
+        }
+
+        private void sampleLeaf() {
+            RandomGenerator random = generators[lo];
+            int n = Math.min(LEAF_SAMPLES, samples - lo * LEAF_SAMPLES);
+            double runningMean = 0;
+            double runningM2 = 0;
+            for (int i = 1; i <= n; i++) {
+                double x = kernel.sample(random);
+                double delta = x - runningMean;
+                runningMean += delta / i;
+                runningM2 += delta * (x - runningMean);
+            }
+            count = n;
+            mean = runningMean;
+            m2 = runningM2;
+        }
+    }
+
+    /**
+     * Inverse of the standard normal CDF (Acklam's rational approximation,
+     * relative error below 1.2e-9)
+     */
+    static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            return -normalQuantile(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+            / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,145 @@
+package java17.random;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.JumpableGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel Bulk Random Generation with One Generator per Task
+ *
+ * Sharing one generator across parallel-stream workers, as in
+ * IntStream.range(0, 10).parallel().map(i -> splittable.nextInt(100)),
+ * is a data race: SplittableRandom and the LXM/Xoshiro generators are not
+ * thread-safe, so values can repeat and results change from run to run.
+ *
+ * This class fills int[], long[] and double[] in parallel with an independent
+ * generator per fork/join leaf:
+ * - SplittableGenerator (LXM family, SplittableRandom): each split hands the
+ *   right half a generator created with split()
+ * - JumpableGenerator (Xoshiro/Xoroshiro): leaf i gets a copy jumped i times
+ *
+ * The leaf layout depends only on the array length, never on thread timing, so a
+ * fixed seed always produces the same array regardless of the number of cores.
+ * The caller's generator is advanced (split or jumped) but never shared.
+ */
+public final class ParallelRandomFill {
+
+    /** Elements per leaf task; also the granularity of the per-task generators */
+    static final int LEAF_SIZE = 1 << 14;
+
+    @FunctionalInterface
+    interface RangeFiller {
+        void fill(RandomGenerator generator, int from, int to);
+    }
+
+    private ParallelRandomFill() {
+    }
+
+    public static void fill(int[] array, RandomGenerator generator) {
+        fill(array, generator, ForkJoinPool.commonPool());
+    }
+
+    public static void fill(int[] array, RandomGenerator generator, ForkJoinPool pool) {
+        run(array.length, generator, pool, (g, from, to) -> {
+            for (int i = from; i < to; i++) {
+                array[i] = g.nextInt();
+            }
+        });
+    }
+
+    /**
+     * Fills with values in [0, bound)
+     */
+    public static void fill(int[] array, int bound, RandomGenerator generator) {
+        fill(array, bound, generator, ForkJoinPool.commonPool());
+    }
+
+    public static void fill(int[] array, int bound, RandomGenerator generator, ForkJoinPool pool) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive, was " + bound);
+        }
+        run(array.length, generator, pool, (g, from, to) -> {
+            for (int i = from; i < to; i++) {
+                array[i] = g.nextInt(bound);
+            }
+        });
+    }
+
+    public static void fill(long[] array, RandomGenerator generator) {
+        fill(array, generator, ForkJoinPool.commonPool());
+    }
+
+    public static void fill(long[] array, RandomGenerator generator, ForkJoinPool pool) {
+        run(array.length, generator, pool, (g, from, to) -> {
+            for (int i = from; i < to; i++) {
+                array[i] = g.nextLong();
+            }
+        });
+    }
+
+    /**
+     * Fills with values in [0.0, 1.0)
+     */
+    public static void fill(double[] array, RandomGenerator generator) {
+        fill(array, generator, ForkJoinPool.commonPool());
+    }
+
+    public static void fill(double[] array, RandomGenerator generator, ForkJoinPool pool) {
+        run(array.length, generator, pool, (g, from, to) -> {
+            for (int i = from; i < to; i++) {
+                array[i] = g.nextDouble();
+            }
+        });
+    }
+
+    private static void run(int length, RandomGenerator generator, ForkJoinPool pool, RangeFiller filler) {
+        if (generator instanceof SplittableGenerator splittable) {
+            pool.invoke(new SplitTask(0, length, splittable.split(), filler));
+        } else if (generator instanceof JumpableGenerator jumpable) {
+            // overflow-safe ceiling division
+            int leaves = length == 0 ? 0 : (length - 1) / LEAF_SIZE + 1;
+            RandomGenerator[] generators = jumpable.jumps(leaves).toArray(RandomGenerator[]::new);
+            pool.submit(() -> IntStream.range(0, leaves).parallel().forEach(leaf -> {
+                int from = leaf * LEAF_SIZE;
+                filler.fill(generators[leaf], from, from + Math.min(length - from, LEAF_SIZE));
+            })).join();
+        } else {
+            throw new IllegalArgumentException(generator.getClass().getSimpleName()
+                + " is neither splittable nor jumpable; use e.g. L64X128MixRandom or Xoshiro256PlusPlus");
+        }
+    }
+
+    /**
+     * Splits [from, to) in halves down to LEAF_SIZE; the left half keeps the
+     * generator, the right half gets generator.split(). Both happen before forking,
+     * so the tree of generators is the same on every run.
+     */
+    static final class SplitTask extends RecursiveAction {
+        final int from;
+        final int to;
+        final SplittableGenerator generator;
+        final RangeFiller filler;
+
+        SplitTask(int from, int to, SplittableGenerator generator, RangeFiller filler) {
+            this.from = from;
+            this.to = to;
+            this.generator = generator;
+            this.filler = filler;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                filler.fill(generator, from, to);
+                return;
+            }
+            int mid = from + (((to - from) / LEAF_SIZE + 1) / 2) * LEAF_SIZE;
+            SplitTask right = new SplitTask(mid, to, generator.split(), filler);
+            SplitTask left = new SplitTask(from, mid, generator, filler);
+            invokeAll(left, right);
+        }
+    }
+}
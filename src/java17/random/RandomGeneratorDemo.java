@@ -59,15 +59,15 @@ public class RandomGeneratorDemo {
         // 4. Splittable for parallel streams
         System.out.println("\n4. Splittable Random for Parallel Streams");
         System.out.println("------------------------------------------");
-        RandomGenerator splittable = RandomGeneratorFactory.of("SplittableRandom").create();
+        RandomGenerator splittable = RandomGeneratorFactory.of("SplittableRandom").create(42);
         
-        // Generate random numbers in parallel
-        IntStream parallelStream = IntStream.range(0, 10)
-            .parallel()
-            .map(i -> splittable.nextInt(100));
+        // Generators are not thread-safe: never call one instance from parallel workers.
+        // ParallelRandomFill gives every fork/join leaf its own split() generator.
+        int[] parallelNumbers = new int[10];
+        ParallelRandomFill.fill(parallelNumbers, 100, splittable);
         
         System.out.println("Parallel random numbers:");
-        parallelStream.forEach(n -> System.out.println("  " + n));
+        IntStream.of(parallelNumbers).forEach(n -> System.out.println("  " + n));
         
         // 5. Performance comparison
         System.out.println("\n5. Performance Comparison");
@@ -87,6 +87,19 @@ public class RandomGeneratorDemo {
         byte[] bytes = new byte[5];
         gen.nextBytes(bytes);
         System.out.println("bytes: " + java.util.Arrays.toString(bytes));
+        
+        // 7. Monte Carlo estimation
+        System.out.println("\n7. Monte Carlo Estimation of Pi");
+        System.out.println("------------------------------");
+        MonteCarlo.Estimate pi = MonteCarlo.of(r -> {
+                double x = r.nextDouble();
+                double y = r.nextDouble();
+                return x * x + y * y <= 1 ? 4 : 0;
+            })
+            .absoluteError(1e-3)
+            .onRound(e -> System.out.println("  round " + e.rounds() + ": " + e))
+            .run(RandomGeneratorFactory.of("L64X128MixRandom").create(42));
+        System.out.println("Pi: " + pi + " (Math.PI = " + Math.PI + ")");
     }
     
     private static void comparePerformance() {
@@ -112,6 +125,7 @@ public class RandomGeneratorDemo {
         System.out.println("New RandomGenerator: " + newTime + " ms");
         System.out.println("Improvement: " + String.format("%.2f%%", 
             (double)(legacyTime - newTime) / legacyTime * 100));
+        System.out.println("(Single run without warmup - see benchmarks.RandomBenchmarks for reproducible numbers)");
     }
 }
 
@@ -0,0 +1,227 @@
+package java21.virtualthreads;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Blocking Stream Stages on Virtual Threads
+ *
+ * parallelStream().forEach(n -> Thread.sleep(1)) (see java8.streams.advanced
+ * _02_ParallelStreamPerformance and _03_WorkStealingExample) parks common-pool
+ * workers, so at most ~availableProcessors elements are in flight and every other
+ * parallel stream in the JVM waits behind them.
+ *
+ * mapBlocking() runs the mapper for each element on its own virtual thread:
+ * - At most maxConcurrency mappers are in flight; the source is pulled lazily as
+ *   slots free up, so an unbounded source never floods memory
+ * - ordered = true emits results in encounter order (a slow head element holds
+ *   back faster ones); ordered = false emits in completion order
+ * - The common ForkJoinPool is never used; the consuming thread only waits
+ * - A mapper exception is rethrown from the stream and cancels outstanding work
+ *
+ * Close the returned stream (try-with-resources) when a short-circuiting terminal
+ * operation such as findFirst() or limit() may leave mappers running; closing
+ * interrupts them.
+ *
+ * Usage:
+ *   try (Stream<Response> responses = VirtualThreadStreams.mapBlocking(ids.stream(), client::fetch, 1_000, true)) {
+ *       responses.forEach(this::store);
+ *   }
+ */
+public final class VirtualThreadStreams
+{
+	private VirtualThreadStreams()
+	{
+	}
+
+	public static <T, R> Stream<R> mapBlocking(Stream<T> source, Function<? super T, ? extends R> mapper, int maxConcurrency, boolean ordered)
+	{
+		Objects.requireNonNull(mapper, "mapper");
+		if (maxConcurrency < 1)
+		{
+			throw new IllegalArgumentException("maxConcurrency must be positive, was " + maxConcurrency);
+		}
+		BlockingMapSpliterator<T, R> spliterator = new BlockingMapSpliterator<>(source.spliterator(), mapper, maxConcurrency, ordered);
+		return StreamSupport.stream(spliterator, false)
+				.onClose(spliterator::close)
+				.onClose(source::close);
+	}
+
+	/**
+	 * Runs action for every element on virtual threads, at most maxConcurrency at a
+	 * time, and returns when all have finished
+	 */
+	public static <T> void forEachBlocking(Stream<T> source, Consumer<? super T> action, int maxConcurrency)
+	{
+		try (Stream<T> done = mapBlocking(source, t -> {
+			action.accept(t);
+			return t;
+		}, maxConcurrency, false))
+		{
+			done.forEach(t -> {
+			});
+		}
+	}
+
+	/**
+	 * Pulls source elements on the consuming thread, maps them on virtual threads,
+	 * and hands results out one tryAdvance() at a time
+	 */
+	static final class BlockingMapSpliterator<T, R> implements Spliterator<R>
+	{
+		private final Spliterator<T> source;
+		private final Function<? super T, ? extends R> mapper;
+		private final int maxConcurrency;
+		private final boolean ordered;
+
+		private ExecutorService executor;
+		private CompletionService<R> completions;
+		/** Submission order for ordered emission; O(1) removal of whichever task completes for unordered */
+		private final Set<Future<R>> inFlight = new LinkedHashSet<>();
+		private boolean sourceExhausted;
+
+		BlockingMapSpliterator(Spliterator<T> source, Function<? super T, ? extends R> mapper, int maxConcurrency, boolean ordered)
+		{
+			this.source = source;
+			this.mapper = mapper;
+			this.maxConcurrency = maxConcurrency;
+			this.ordered = ordered;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super R> action)
+		{
+			if (executor == null)
+			{
+				executor = Executors.newVirtualThreadPerTaskExecutor();
+				completions = new ExecutorCompletionService<>(executor);
+			}
+			fill();
+			if (inFlight.isEmpty())
+			{
+				close();
+				return false;
+			}
+
+			R result = await(next());
+			// Refill before handing the result downstream, so slow consumers do not idle the mappers
+			fill();
+			action.accept(result);
+			return true;
+		}
+
+		private void fill()
+		{
+			while (!sourceExhausted && inFlight.size() < maxConcurrency)
+			{
+				// only unordered emission reads the completion queue, so only it is fed
+				sourceExhausted = !source.tryAdvance(t -> inFlight.add(ordered
+						? executor.submit(() -> mapper.apply(t))
+						: completions.submit(() -> mapper.apply(t))));
+			}
+		}
+
+		private Future<R> next()
+		{
+			if (ordered)
+			{
+				Iterator<Future<R>> oldest = inFlight.iterator();
+				Future<R> head = oldest.next();
+				oldest.remove();
+				return head;
+			}
+			try
+			{
+				Future<R> done = completions.take();
+				inFlight.remove(done);
+				return done;
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				close();
+				throw new CancellationException("Interrupted while waiting for a mapped element");
+			}
+		}
+
+		private R await(Future<R> future)
+		{
+			try
+			{
+				return future.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				close();
+				throw new CancellationException("Interrupted while waiting for a mapped element");
+			}
+			catch (ExecutionException e)
+			{
+				close();
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException runtime)
+				{
+					throw runtime;
+				}
+				if (cause instanceof Error error)
+				{
+					throw error;
+				}
+				throw new CompletionException(cause);
+			}
+		}
+
+		/**
+		 * Cancels every outstanding mapper; safe to call more than once
+		 */
+		void close()
+		{
+			sourceExhausted = true;
+			for (Future<R> future : inFlight)
+			{
+				future.cancel(true);
+			}
+			inFlight.clear();
+			if (executor != null)
+			{
+				executor.shutdownNow();
+			}
+		}
+
+		@Override
+		public Spliterator<R> trySplit()
+		{
+			// Concurrency comes from the virtual threads, not from splitting
+			return null;
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			long remaining = source.estimateSize();
+			return remaining == Long.MAX_VALUE ? remaining : remaining + inFlight.size();
+		}
+
+		@Override
+		public int characteristics()
+		{
+			return ordered ? source.characteristics() & ORDERED : 0;
+		}
+	}
+}
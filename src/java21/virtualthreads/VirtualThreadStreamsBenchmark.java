@@ -0,0 +1,94 @@
+package java21.virtualthreads;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Blocking per-element work: parallelStream() vs VirtualThreadStreams
+ *
+ * Each element sleeps for 1 ms, like compute() in _02_ParallelStreamPerformance.
+ * A parallel stream can only sleep on ~availableProcessors common-pool workers at
+ * once; virtual threads keep up to maxConcurrency sleeps in flight.
+ */
+public class VirtualThreadStreamsBenchmark
+{
+	public static void main(String[] args)
+	{
+		System.out.println("=== Blocking Stream Stages on Virtual Threads ===\n");
+		System.out.println("Common pool parallelism: " + ForkJoinPool.getCommonPoolParallelism());
+
+		// 1. Encounter order is preserved even though elements finish out of order
+		System.out.println("\n1. Ordered mapBlocking");
+		System.out.println("----------------------");
+		try (Stream<String> mapped = VirtualThreadStreams.mapBlocking(Stream.of(5, 1, 4, 2, 3), n -> {
+			sleep(n * 10);
+			return "item-" + n;
+		}, 5, true))
+		{
+			System.out.println(mapped.collect(Collectors.toList()));
+		}
+
+		// 2. Failures surface on the consuming thread
+		System.out.println("\n2. Failure Propagation");
+		System.out.println("----------------------");
+		try (Stream<Integer> mapped = VirtualThreadStreams.mapBlocking(IntStream.range(0, 100).boxed(), n -> {
+			if (n == 42)
+			{
+				throw new IllegalStateException("service failed for " + n);
+			}
+			sleep(1);
+			return n;
+		}, 10, true))
+		{
+			mapped.forEach(n -> {
+			});
+		}
+		catch (IllegalStateException e)
+		{
+			System.out.println("Caught: " + e.getMessage());
+		}
+
+		// 3. Throughput
+		System.out.println("\n3. Throughput (1 ms blocking call per element)");
+		System.out.println("----------------------------------------------");
+		System.out.printf("%10s %16s %22s %22s%n", "elements", "parallelStream", "virtual (limit 256)", "virtual (limit 4096)");
+		for (int size : new int[] { 1_000, 10_000 })
+		{
+			List<Integer> numbers = IntStream.range(0, size).boxed().collect(Collectors.toList());
+
+			long start = System.nanoTime();
+			numbers.parallelStream().forEach(n -> sleep(1));
+			long parallelMs = (System.nanoTime() - start) / 1_000_000;
+
+			start = System.nanoTime();
+			VirtualThreadStreams.forEachBlocking(numbers.stream(), n -> sleep(1), 256);
+			long virtual256Ms = (System.nanoTime() - start) / 1_000_000;
+
+			start = System.nanoTime();
+			VirtualThreadStreams.forEachBlocking(numbers.stream(), n -> sleep(1), 4096);
+			long virtual4096Ms = (System.nanoTime() - start) / 1_000_000;
+
+			System.out.printf("%10d %14d ms %20d ms %20d ms%n", size, parallelMs, virtual256Ms, virtual4096Ms);
+		}
+
+		System.out.println("\nKey Points:");
+		System.out.println("- Blocking work belongs on virtual threads, not on ForkJoinPool workers");
+		System.out.println("- maxConcurrency protects the downstream service, not the CPU");
+		System.out.println("- Close the stream when a short-circuiting operation may leave work running");
+	}
+
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -60,7 +60,8 @@ public class StreamGatherersDemo
 		System.out.println("Explanation: Each window slides by 1 position:");
 		System.out.println("  Window 1: [1, 2, 3]");
 		System.out.println("  Window 2: [2, 3, 4]");
-		System.out.println("  Window 3: [3, 4, 5]\n");
+		System.out.println("  Window 3: [3, 4, 5]");
+		System.out.println("Note: Each window is a new List; for large windows see java24.streamgatherers.SlidingWindows.\n");
 
 		System.out.println("Example 3: Window Fixed - Fixed Window");
 		System.out.println("--------------------------------------");
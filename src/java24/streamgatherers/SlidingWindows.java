@@ -0,0 +1,138 @@
+package java24.streamgatherers;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+/**
+ * Sliding Windows over a Ring Buffer
+ *
+ * Gatherers.windowSliding(w) copies the current window into a new List for
+ * every element, so a stream of n elements allocates O(n * w) references: a
+ * 10,000-element window over a billion elements copies 10^13 references. These
+ * gatherers keep the last w elements in one circular buffer per stream and
+ * hand out a read-only view of it instead:
+ *
+ * - mapping(w, function): applies function to each window and emits its result;
+ *   the view never leaves the gatherer, so nothing is allocated per element
+ * - views(w): emits the view itself. It is the same object every time and is
+ *   only valid until the next element arrives, so consume it in the next stage
+ *   (map, forEach) or copy() it; collecting views directly yields n references
+ *   to the last window
+ *
+ * Windows have the same shape as windowSliding(w): the first is emitted once w
+ * elements have arrived, then one per element, and a non-empty stream shorter
+ * than w emits a single partial window. Window.get(i) is O(1), index 0 being the
+ * oldest element. Both gatherers are sequential, like windowSliding().
+ *
+ * Usage:
+ *   Stream.of(1, 2, 3, 4, 5).gather(SlidingWindows.mapping(3, w -> w.getFirst() + w.getLast()))  // 4, 6, 8
+ */
+public final class SlidingWindows
+{
+	private SlidingWindows()
+	{
+	}
+
+	/**
+	 * The reusable window view; valid only while it is being pushed downstream
+	 */
+	public static <T> Gatherer<T, ?, Window<T>> views(int size)
+	{
+		return SlidingWindows.<T, Window<T>>mapping(size, Function.identity());
+	}
+
+	/**
+	 * function applied to each window, like windowSliding(size).map(function)
+	 * without a List per window
+	 */
+	public static <T, R> Gatherer<T, ?, R> mapping(int size, Function<? super Window<T>, ? extends R> function)
+	{
+		if (size < 1)
+		{
+			throw new IllegalArgumentException("'size' must be greater than zero, was " + size);
+		}
+		Objects.requireNonNull(function, "function");
+		return Gatherer.<T, Window<T>, R>ofSequential(
+				() -> new Window<T>(size),
+				Gatherer.Integrator.<Window<T>, T, R>ofGreedy((window, element, downstream) -> {
+					window.slide(element);
+					return !window.isFull() || downstream.push(function.apply(window));
+				}),
+				(window, downstream) -> {
+					// like windowSliding(): a short, non-empty stream still gets one window
+					if (!window.isEmpty() && !window.isFull())
+					{
+						downstream.push(function.apply(window));
+					}
+				}
+		);
+	}
+
+	/**
+	 * Read-only view of the last size() elements, oldest first, backed by a
+	 * circular buffer that the gatherer overwrites as elements arrive
+	 */
+	public static final class Window<T> extends AbstractList<T> implements RandomAccess
+	{
+		private final Object[] elements;
+		private int start;
+		private int count;
+
+		Window(int capacity)
+		{
+			this.elements = new Object[capacity];
+		}
+
+		void slide(T element)
+		{
+			if (count < elements.length)
+			{
+				elements[index(count)] = element;
+				count++;
+				return;
+			}
+			// full: the newest element replaces the oldest
+			elements[start] = element;
+			start = index(1);
+		}
+
+		boolean isFull()
+		{
+			return count == elements.length;
+		}
+
+		private int index(int offset)
+		{
+			int index = start + offset;
+			return index >= elements.length ? index - elements.length : index;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T get(int index)
+		{
+			Objects.checkIndex(index, count);
+			return (T) elements[index(index)];
+		}
+
+		@Override
+		public int size()
+		{
+			return count;
+		}
+
+		/**
+		 * A snapshot that stays valid after the window moves on
+		 */
+		public List<T> copy()
+		{
+			return Collections.unmodifiableList(new ArrayList<>(this));
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package java24.streamgatherers;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Gatherer;
 import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -64,7 +66,8 @@ public class StreamGatherersDemo
 		System.out.println("Explanation: Each window slides by 1 position:");
 		System.out.println("  Window 1: [1, 2, 3]");
 		System.out.println("  Window 2: [2, 3, 4]");
-		System.out.println("  Window 3: [3, 4, 5]\n");
+		System.out.println("  Window 3: [3, 4, 5]");
+		System.out.println("Note: Each window is a new List - see Example 5 for large windows.\n");
 
 		System.out.println("Example 3: Window Fixed - Fixed Window");
 		System.out.println("--------------------------------------");
@@ -100,6 +103,48 @@ public class StreamGatherersDemo
 		System.out.println("  Step 3: \"ab\" + \"c\" = \"abc\"");
 		System.out.println("Final result: \"abc\"\n");
 
+		System.out.println("Example 5: Ring-Buffer Windows - No List per Window");
+		System.out.println("---------------------------------------------------");
+		System.out.println("windowSliding(w) copies w elements for every window. SlidingWindows keeps one");
+		System.out.println("circular buffer and passes a read-only view of it to an aggregation.");
+		System.out.println("Input: [1, 2, 3, 4, 5]");
+
+		// Sum of each window of size 3, computed on the view
+		List<Integer> windowSums = Stream.of(1, 2, 3, 4, 5)
+				.gather(SlidingWindows.<Integer, Integer>mapping(3, window -> window.stream().mapToInt(Integer::intValue).sum()))
+				.toList();
+
+		System.out.println("Result: " + windowSums);
+		System.out.println("Explanation: Same windows as Example 2, summed in place: 1+2+3, 2+3+4, 3+4+5");
+
+		// Views are reused: use them in the next stage, or copy() the ones to keep
+		List<List<Integer>> copies = Stream.of(1, 2, 3, 4, 5)
+				.gather(SlidingWindows.<Integer>views(3))
+				.map(SlidingWindows.Window::copy)
+				.toList();
+
+		System.out.println("Copied views: " + copies);
+		System.out.println("Note: A 10,000-element window over a huge stream allocates nothing per element.\n");
+
+		System.out.println("Example 6: Incremental Window Aggregates - O(1) per Element");
+		System.out.println("-----------------------------------------------------------");
+		System.out.println("Moving sum, mean, max and variance update as one value enters and one leaves,");
+		System.out.println("instead of re-folding every window. IntStream inputs are never boxed.");
+		System.out.println("Input: [3, 1, 4, 1, 5, 9, 2, 6]");
+
+		int[] readings = {3, 1, 4, 1, 5, 9, 2, 6};
+		System.out.println("Moving sum (3): " + Arrays.toString(WindowAggregates.sum(3).over(IntStream.of(readings)).toArray()));
+		System.out.println("Moving mean (3): " + Arrays.toString(WindowAggregates.mean(3).over(IntStream.of(readings)).toArray()));
+		System.out.println("Moving max (3): " + Arrays.toString(WindowAggregates.max(3).over(IntStream.of(readings)).toArray()));
+		System.out.println("Moving variance (3): " + Arrays.toString(WindowAggregates.variance(3).over(IntStream.of(readings)).toArray()));
+		System.out.println("EWMA (alpha 0.5): " + Arrays.toString(WindowAggregates.ewma(0.5).over(IntStream.of(readings)).toArray()));
+
+		// The same aggregates as gatherers for object streams
+		List<Double> minima = Stream.of(3, 1, 4, 1, 5, 9, 2, 6)
+				.gather(WindowAggregates.min(3).gatherer())
+				.toList();
+		System.out.println("Moving min (3) as a gatherer: " + minima + "\n");
+
 		System.out.println("\nKey Features:");
 		System.out.println("- Custom intermediate operations");
 		System.out.println("- Extend Stream API functionality");
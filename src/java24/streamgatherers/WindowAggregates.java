@@ -0,0 +1,549 @@
+package java24.streamgatherers;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.Gatherer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * O(1) Windowed Aggregates for Primitives
+ *
+ * windowSliding(w) followed by a reduce re-folds all w elements of every window.
+ * These aggregates update a running state as one value enters and one leaves
+ * the window, in constant time per element:
+ *
+ * - sum(w), mean(w): running sum with Neumaier compensation, so adding and
+ *   subtracting doubles does not drift
+ * - min(w), max(w): monotonic deque of candidate values, amortized O(1); a
+ *   window containing NaN gives NaN
+ * - variance(w): population variance via Welford updates for insert and removal
+ *
+ * Removing a value by subtraction cannot undo rounding exactly, and cannot undo
+ * an infinity at all (Infinity - Infinity is NaN). So sum, mean and variance
+ * keep +Infinity, -Infinity and NaN out of the running state and only count
+ * them; while any is in the window the result is what a fold of the window
+ * gives (an infinity, or NaN). And every time the window has turned over
+ * completely, the state is recomputed from the w buffered values, so rounding
+ * never builds up over more than one window; this adds O(w) work per w
+ * elements, O(1) per element amortized.
+ * - ewma(alpha): exponentially weighted moving average, s += alpha * (x - s),
+ *   one result per element
+ *
+ * Every aggregate can be used in two ways:
+ *
+ * 1. gatherer(): a Gatherer for Stream<Integer>, Stream<Double>, ... built with
+ *    Gatherer.ofSequential, like the custom gatherer in StreamGatherersDemo
+ * 2. over(IntStream) / over(DoubleStream): IntStream and DoubleStream have no
+ *    gather(), so the same state is driven from their primitive spliterator,
+ *    without boxing
+ *
+ * Windows are emitted like windowSliding(w): the first once w values arrived,
+ * then one per value; a non-empty input shorter than w emits one result for
+ * the partial window. Int inputs are exact as doubles, so sums of ints are exact
+ * below 2^53.
+ *
+ * Usage:
+ *   DoubleStream smoothed = WindowAggregates.mean(60).over(IntStream.of(readings));
+ *   List<Double> peaks = prices.stream().gather(WindowAggregates.max(20).gatherer()).toList();
+ */
+public final class WindowAggregates
+{
+	private WindowAggregates()
+	{
+	}
+
+	public static Aggregation sum(int size)
+	{
+		checkSize(size);
+		return new Aggregation(() -> new Sum(size, false));
+	}
+
+	public static Aggregation mean(int size)
+	{
+		checkSize(size);
+		return new Aggregation(() -> new Sum(size, true));
+	}
+
+	public static Aggregation min(int size)
+	{
+		checkSize(size);
+		return new Aggregation(() -> new Extreme(size, true));
+	}
+
+	public static Aggregation max(int size)
+	{
+		checkSize(size);
+		return new Aggregation(() -> new Extreme(size, false));
+	}
+
+	public static Aggregation variance(int size)
+	{
+		checkSize(size);
+		return new Aggregation(() -> new Variance(size));
+	}
+
+	/**
+	 * @param alpha weight of the newest value, in (0, 1]
+	 */
+	public static Aggregation ewma(double alpha)
+	{
+		if (!(alpha > 0 && alpha <= 1))
+		{
+			throw new IllegalArgumentException("'alpha' must be in (0, 1], was " + alpha);
+		}
+		return new Aggregation(() -> new Ewma(alpha));
+	}
+
+	private static void checkSize(int size)
+	{
+		if (size < 1)
+		{
+			throw new IllegalArgumentException("'size' must be greater than zero, was " + size);
+		}
+	}
+
+	/**
+	 * A windowed aggregate, applicable to any number of streams
+	 */
+	public static final class Aggregation
+	{
+		private final Supplier<State> state;
+
+		Aggregation(Supplier<State> state)
+		{
+			this.state = state;
+		}
+
+		public Gatherer<Number, ?, Double> gatherer()
+		{
+			return Gatherer.<Number, State, Double>ofSequential(
+					state,
+					Gatherer.Integrator.<State, Number, Double>ofGreedy((aggregate, value, downstream) -> {
+						aggregate.add(value.doubleValue());
+						return !aggregate.ready() || downstream.push(aggregate.value());
+					}),
+					(aggregate, downstream) -> {
+						if (aggregate.partial())
+						{
+							downstream.push(aggregate.value());
+						}
+					}
+			);
+		}
+
+		public DoubleStream over(IntStream values)
+		{
+			return over(values.asDoubleStream());
+		}
+
+		public DoubleStream over(DoubleStream values)
+		{
+			Spliterator.OfDouble source = values.spliterator();
+			State aggregate = state.get();
+			DoubleConsumer add = aggregate::add;
+			return StreamSupport.doubleStream(new Spliterators.AbstractDoubleSpliterator(source.estimateSize(), Spliterator.ORDERED)
+			{
+				private boolean exhausted;
+
+				@Override
+				public boolean tryAdvance(DoubleConsumer action)
+				{
+					while (!exhausted)
+					{
+						if (!source.tryAdvance(add))
+						{
+							exhausted = true;
+							if (aggregate.partial())
+							{
+								action.accept(aggregate.value());
+								return true;
+							}
+							return false;
+						}
+						if (aggregate.ready())
+						{
+							action.accept(aggregate.value());
+							return true;
+						}
+					}
+					return false;
+				}
+			}, false).onClose(values::close);
+		}
+	}
+
+	// ---------------------------------------------------------------- states
+
+	/**
+	 * Ring buffer of the last size values; subclasses see each value enter
+	 * (admit) and the value it displaces leave (evict)
+	 */
+	abstract static class State
+	{
+		private final double[] ring;
+		private int slot;
+		long count;
+
+		State(int size)
+		{
+			this.ring = new double[size];
+		}
+
+		final void add(double value)
+		{
+			if (count >= ring.length)
+			{
+				evict(ring[slot]);
+			}
+			ring[slot] = value;
+			slot = slot + 1 == ring.length ? 0 : slot + 1;
+			count++;
+			admit(value);
+			if (slot == 0 && count > ring.length)
+			{
+				// every value evicted since the last recompute has left the ring
+				recompute(ring);
+			}
+		}
+
+		abstract void evict(double value);
+
+		abstract void admit(double value);
+
+		/**
+		 * Rebuilds the state from the values of a full window, in any order;
+		 * called once per window length
+		 */
+		void recompute(double[] window)
+		{
+		}
+
+		abstract double value();
+
+		/** Values in the current window */
+		final int length()
+		{
+			return (int) Math.min(count, ring.length);
+		}
+
+		final boolean ready()
+		{
+			return count >= ring.length;
+		}
+
+		/** Input ended before the first full window */
+		final boolean partial()
+		{
+			return count > 0 && count < ring.length;
+		}
+	}
+
+	/**
+	 * Counts of +Infinity, -Infinity and NaN in the window, which running sums
+	 * could never subtract out again
+	 */
+	static final class NonFinite
+	{
+		private int positive;
+		private int negative;
+		private int nan;
+
+		/** Counts value (delta 1 on entry, -1 on exit) if it is not finite */
+		boolean update(double value, int delta)
+		{
+			if (Double.isFinite(value))
+			{
+				return false;
+			}
+			if (Double.isNaN(value))
+			{
+				nan += delta;
+			}
+			else if (value > 0)
+			{
+				positive += delta;
+			}
+			else
+			{
+				negative += delta;
+			}
+			return true;
+		}
+
+		boolean present()
+		{
+			return positive + negative + nan > 0;
+		}
+
+		/** The sum of the window while present() */
+		double sum()
+		{
+			if (nan > 0 || positive > 0 && negative > 0)
+			{
+				return Double.NaN;
+			}
+			return positive > 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+		}
+
+		void clear()
+		{
+			positive = 0;
+			negative = 0;
+			nan = 0;
+		}
+	}
+
+	static final class Sum extends State
+	{
+		private final boolean mean;
+		private final NonFinite nonFinite = new NonFinite();
+		private double sum;
+		private double compensation;
+
+		Sum(int size, boolean mean)
+		{
+			super(size);
+			this.mean = mean;
+		}
+
+		@Override
+		void evict(double value)
+		{
+			if (!nonFinite.update(value, -1))
+			{
+				accumulate(-value);
+			}
+		}
+
+		@Override
+		void admit(double value)
+		{
+			if (!nonFinite.update(value, 1))
+			{
+				accumulate(value);
+			}
+		}
+
+		@Override
+		void recompute(double[] window)
+		{
+			nonFinite.clear();
+			sum = 0;
+			compensation = 0;
+			for (double value : window)
+			{
+				admit(value);
+			}
+		}
+
+		/** Neumaier: keeps the low-order bits that sum + value rounds away */
+		private void accumulate(double value)
+		{
+			double total = sum + value;
+			if (Math.abs(sum) >= Math.abs(value))
+			{
+				compensation += (sum - total) + value;
+			}
+			else
+			{
+				compensation += (value - total) + sum;
+			}
+			sum = total;
+		}
+
+		@Override
+		double value()
+		{
+			double total = nonFinite.present() ? nonFinite.sum() : sum + compensation;
+			return mean ? total / length() : total;
+		}
+	}
+
+	/**
+	 * Deque of values that can still become the extreme, with their positions;
+	 * the head is the current extreme and leaves when it falls out of the window.
+	 * NaNs are only counted, and while one is in the window the result is NaN,
+	 * as with Math.min and Math.max
+	 */
+	static final class Extreme extends State
+	{
+		private final boolean min;
+		private final int size;
+		private final double[] values;
+		private final long[] positions;
+		private int head;
+		private int length;
+		private int nans;
+
+		Extreme(int size, boolean min)
+		{
+			super(size);
+			this.min = min;
+			this.size = size;
+			this.values = new double[size + 1];
+			this.positions = new long[size + 1];
+		}
+
+		@Override
+		void evict(double value)
+		{
+			// deque entries leave by position in admit(), since equal values may be
+			// anywhere in the deque
+			if (Double.isNaN(value))
+			{
+				nans--;
+			}
+		}
+
+		@Override
+		void admit(double value)
+		{
+			if (Double.isNaN(value))
+			{
+				// compares false with everything, so it is counted instead of queued
+				nans++;
+			}
+			else
+			{
+				// values the new one dominates can never be the extreme again
+				while (length > 0 && dominates(value, values[index(length - 1)]))
+				{
+					length--;
+				}
+				int tail = index(length);
+				values[tail] = value;
+				positions[tail] = count - 1;
+				length++;
+			}
+			if (length > 0 && positions[head] <= count - 1 - size)
+			{
+				head = index(1);
+				length--;
+			}
+		}
+
+		private boolean dominates(double value, double other)
+		{
+			return min ? value <= other : value >= other;
+		}
+
+		private int index(int offset)
+		{
+			int index = head + offset;
+			return index >= values.length ? index - values.length : index;
+		}
+
+		@Override
+		double value()
+		{
+			return nans > 0 ? Double.NaN : values[head];
+		}
+	}
+
+	/**
+	 * Welford's running mean and sum of squared deviations of the finite values,
+	 * updated for the value that leaves as well as the one that enters
+	 */
+	static final class Variance extends State
+	{
+		private final NonFinite nonFinite = new NonFinite();
+		private long n;
+		private double mean;
+		private double squares;
+
+		Variance(int size)
+		{
+			super(size);
+		}
+
+		@Override
+		void evict(double value)
+		{
+			if (nonFinite.update(value, -1))
+			{
+				return;
+			}
+			n--;
+			if (n == 0)
+			{
+				mean = 0;
+				squares = 0;
+				return;
+			}
+			double delta = value - mean;
+			mean -= delta / n;
+			squares -= delta * (value - mean);
+		}
+
+		@Override
+		void admit(double value)
+		{
+			if (nonFinite.update(value, 1))
+			{
+				return;
+			}
+			n++;
+			double delta = value - mean;
+			mean += delta / n;
+			squares += delta * (value - mean);
+		}
+
+		@Override
+		void recompute(double[] window)
+		{
+			nonFinite.clear();
+			n = 0;
+			mean = 0;
+			squares = 0;
+			for (double value : window)
+			{
+				admit(value);
+			}
+		}
+
+		@Override
+		double value()
+		{
+			if (nonFinite.present())
+			{
+				// an infinite deviation, or a NaN one
+				return Double.NaN;
+			}
+			// rounding can leave a tiny negative for a constant window
+			return Math.max(0, squares / n);
+		}
+	}
+
+	static final class Ewma extends State
+	{
+		private final double alpha;
+		private double average;
+
+		Ewma(double alpha)
+		{
+			super(1);
+			this.alpha = alpha;
+		}
+
+		@Override
+		void evict(double value)
+		{
+		}
+
+		@Override
+		void admit(double value)
+		{
+			average = count == 1 ? value : average + alpha * (value - average);
+		}
+
+		@Override
+		double value()
+		{
+			return average;
+		}
+	}
+}
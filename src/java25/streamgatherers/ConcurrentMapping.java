@@ -0,0 +1,222 @@
+package java25.streamgatherers;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+/**
+ * Ordered, Bounded-Concurrency Mapping on Virtual Threads
+ *
+ * The gatherers in StreamGatherersDemo run on the caller thread, and
+ * parallelStream() runs blocking calls on the few common-pool threads, so a
+ * pipeline that calls a slow service per element waits for one call (or one
+ * per core) at a time. mapOrdered(maxConcurrency, mapper) starts the mapping of
+ * each element on its own virtual thread and keeps up to maxConcurrency of them
+ * running or waiting to be emitted:
+ *
+ * - Ordering: tasks wait in a reorder buffer (a queue in encounter order);
+ *   results are pushed as soon as every earlier element has been pushed, so a
+ *   slow element delays later ones but never reorders them
+ * - Back-pressure: when maxConcurrency tasks are outstanding, the gatherer blocks
+ *   on the oldest before starting another
+ * - Failures: the first failure in encounter order cancels all outstanding
+ *   tasks and is rethrown on the stream's thread as thrown by the mapper
+ * - Short-circuit: when downstream stops accepting (findFirst, limit,
+ *   anyMatch) or throws, outstanding tasks are cancelled; cancellation
+ *   interrupts their virtual threads, which ends blocking I/O and sleeps
+ * - Abandonment: a gatherer is not told when an upstream stage throws or the
+ *   stream is dropped before its terminal operation completes, so neither
+ *   cancels right away. The executor is registered with a Cleaner instead, which
+ *   interrupts the remaining tasks once the gatherer's state is garbage
+ *   collected; until then they run on. Mappers that must stop promptly in that
+ *   case need their own timeout
+ *
+ * java21.virtualthreads.VirtualThreadStreams.mapBlocking() wraps a whole stream;
+ * as a gatherer, this stage composes anywhere in a pipeline. Gatherers.mapConcurrent()
+ * offers a similar contract in the JDK; this version shows the moving parts and
+ * emits completed heads eagerly, without waiting for the buffer to fill. The
+ * gatherer is sequential: elements are submitted in order from one thread, and
+ * only the mapper runs concurrently.
+ *
+ * Usage:
+ *   List<Price> prices = skus.stream()
+ *           .gather(ConcurrentMapping.mapOrdered(64, pricingService::lookup))
+ *           .toList();
+ */
+public final class ConcurrentMapping
+{
+	/** Shuts down the executors of abandoned gatherers */
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private ConcurrentMapping()
+	{
+	}
+
+	public static <T, R> Gatherer<T, ?, R> mapOrdered(int maxConcurrency, Function<? super T, ? extends R> mapper)
+	{
+		Objects.requireNonNull(mapper, "mapper");
+		if (maxConcurrency < 1)
+		{
+			throw new IllegalArgumentException("maxConcurrency must be positive, was " + maxConcurrency);
+		}
+		return Gatherer.<T, InFlight<R>, R>ofSequential(
+				() -> new InFlight<R>(maxConcurrency),
+				Gatherer.Integrator.<InFlight<R>, T, R>of((inFlight, element, downstream) -> {
+					if (inFlight.isFull() && !inFlight.emitOldest(downstream))
+					{
+						return false;
+					}
+					inFlight.start(() -> mapper.apply(element));
+					return inFlight.emitCompleted(downstream);
+				}),
+				InFlight::emitAll
+		);
+	}
+
+	/**
+	 * Outstanding tasks in encounter order: the reorder buffer
+	 */
+	static final class InFlight<R>
+	{
+		private final int maxConcurrency;
+		private final ArrayDeque<Future<R>> tasks = new ArrayDeque<>();
+		private ExecutorService executor;
+		/** Interrupts the tasks if this state becomes unreachable before they finish */
+		private Cleaner.Cleanable shutdown;
+		private boolean cancelled;
+
+		InFlight(int maxConcurrency)
+		{
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		boolean isFull()
+		{
+			return tasks.size() >= maxConcurrency;
+		}
+
+		void start(Callable<R> mapping)
+		{
+			if (executor == null)
+			{
+				executor = Executors.newVirtualThreadPerTaskExecutor();
+				// the action captures only the executor: it must not keep this state reachable
+				shutdown = CLEANER.register(this, executor::shutdownNow);
+			}
+			tasks.addLast(executor.submit(mapping));
+		}
+
+		/**
+		 * Pushes finished results from the head, without blocking
+		 */
+		boolean emitCompleted(Gatherer.Downstream<? super R> downstream)
+		{
+			while (!tasks.isEmpty() && tasks.peekFirst().isDone())
+			{
+				if (!emitOldest(downstream))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Finisher: waits for and pushes everything left, in order
+		 */
+		void emitAll(Gatherer.Downstream<? super R> downstream)
+		{
+			while (!cancelled && !tasks.isEmpty())
+			{
+				if (!emitOldest(downstream))
+				{
+					return;
+				}
+			}
+			if (shutdown != null)
+			{
+				// every task has finished here, so this only deregisters and shuts down
+				shutdown.clean();
+			}
+		}
+
+		/**
+		 * Waits for the oldest task and pushes its result; false if downstream
+		 * stopped accepting, after cancelling the rest
+		 */
+		boolean emitOldest(Gatherer.Downstream<? super R> downstream)
+		{
+			R result = await(tasks.pollFirst());
+			boolean more;
+			try
+			{
+				more = downstream.push(result) && !downstream.isRejecting();
+			}
+			catch (RuntimeException | Error e)
+			{
+				cancel();
+				throw e;
+			}
+			if (!more)
+			{
+				cancel();
+			}
+			return more;
+		}
+
+		private R await(Future<R> task)
+		{
+			try
+			{
+				return task.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				cancel();
+				throw new CancellationException("Interrupted while waiting for a mapped element");
+			}
+			catch (ExecutionException e)
+			{
+				cancel();
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException runtime)
+				{
+					throw runtime;
+				}
+				if (cause instanceof Error error)
+				{
+					throw error;
+				}
+				throw new CompletionException(cause);
+			}
+		}
+
+		/**
+		 * Interrupts every outstanding task; nothing more is emitted. Safe to call
+		 * more than once
+		 */
+		void cancel()
+		{
+			cancelled = true;
+			for (Future<R> task : tasks)
+			{
+				task.cancel(true);
+			}
+			tasks.clear();
+			if (shutdown != null)
+			{
+				shutdown.clean();
+			}
+		}
+	}
+}
@@ -3,6 +3,7 @@ package java25.streamgatherers;
 import java.util.List;
 import java.util.stream.Gatherer;
 import java.util.stream.Gatherers;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -62,7 +63,8 @@ public class StreamGatherersDemo
 		System.out.println("Explanation: Each window slides by 1 position:");
 		System.out.println("  Window 1: [1, 2, 3]");
 		System.out.println("  Window 2: [2, 3, 4]");
-		System.out.println("  Window 3: [3, 4, 5]\n");
+		System.out.println("  Window 3: [3, 4, 5]");
+		System.out.println("Note: Each window is a new List; for large windows see java24.streamgatherers.SlidingWindows.\n");
 
 		System.out.println("Example 3: Window Fixed - Fixed Window");
 		System.out.println("--------------------------------------");
@@ -98,6 +100,46 @@ public class StreamGatherersDemo
 		System.out.println("  Step 3: \"ab\" + \"c\" = \"abc\"");
 		System.out.println("Final result: \"abc\"\n");
 
+		System.out.println("Example 5: Ordered Concurrent Mapping - Blocking Calls on Virtual Threads");
+		System.out.println("-------------------------------------------------------------------------");
+		System.out.println("Each element calls a slow service (100 ms). With up to 5 calls in flight,");
+		System.out.println("10 elements take about 200 ms instead of 1 s, and results keep encounter order.");
+		System.out.println("Input: [1, 2, ..., 10]");
+
+		long start = System.nanoTime();
+		List<String> quotes = IntStream.rangeClosed(1, 10).boxed()
+				.gather(ConcurrentMapping.<Integer, String>mapOrdered(5, StreamGatherersDemo::slowQuote))
+				.toList();
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		System.out.println("Result: " + quotes);
+		System.out.println("Elapsed: ~" + elapsedMillis + " ms");
+
+		// Short-circuit: findFirst() cancels the calls still in flight
+		String first = IntStream.rangeClosed(1, 1_000).boxed()
+				.gather(ConcurrentMapping.<Integer, String>mapOrdered(50, StreamGatherersDemo::slowQuote))
+				.findFirst()
+				.orElseThrow();
+		System.out.println("findFirst: " + first + " (the other 49 calls were interrupted)");
+
+		// Failures propagate in encounter order and cancel the rest
+		try
+		{
+			IntStream.rangeClosed(1, 10).boxed()
+					.gather(ConcurrentMapping.<Integer, String>mapOrdered(5, id -> {
+						if (id == 4)
+						{
+							throw new IllegalStateException("service unavailable for " + id);
+						}
+						return slowQuote(id);
+					}))
+					.toList();
+		}
+		catch (IllegalStateException e)
+		{
+			System.out.println("Failure propagated: " + e.getMessage() + "\n");
+		}
+
 		System.out.println("\nKey Features:");
 		System.out.println("- Custom intermediate operations");
 		System.out.println("- Extend Stream API functionality");
@@ -120,5 +162,21 @@ public class StreamGatherersDemo
 		System.out.println("\nNote: This is a preview feature in Java 25 (Fifth Preview).");
 		System.out.println("Requires --enable-preview flag for compilation and execution.");
 	}
-}
 
+	/**
+	 * Stands in for a remote call
+	 */
+	private static String slowQuote(int id)
+	{
+		try
+		{
+			Thread.sleep(100);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Cancelled quote " + id, e);
+		}
+		return "quote-" + id;
+	}
+}
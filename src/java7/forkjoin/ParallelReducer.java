@@ -0,0 +1,384 @@
+package java7.forkjoin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Auto-tuning Fork/Join reductions over primitive arrays
+ *
+ * Generalizes SumTask from ForkJoinExample: int, long and double arrays with any
+ * associative operator, no boxing on the hot path, and a leaf size derived from
+ * the pool instead of a fixed THRESHOLD.
+ *
+ * Grain sizing:
+ * - The root task picks a minimum leaf size of length / (parallelism * 8),
+ *   never below MIN_GRAIN, so every worker gets several chunks to steal
+ * - Each task keeps splitting only while getSurplusQueuedTaskCount() is small;
+ *   once idle workers already have enough queued work, the rest of the range
+ *   is reduced in a single tight loop
+ *
+ * The operator must be associative and identity must be its neutral element
+ * (0 for +, Integer.MIN_VALUE for max, ...), since the split order is not fixed.
+ */
+public final class ParallelReducer
+{
+	/** Smallest leaf worth a task; below this the fork overhead dominates */
+	static final int MIN_GRAIN = 1 << 13;
+
+	/** Number of leaves per worker the root grain aims for */
+	private static final int LEAVES_PER_WORKER = 8;
+
+	/** Stop splitting once this many surplus tasks are queued locally */
+	private static final int SURPLUS_LIMIT = 3;
+
+	private ParallelReducer()
+	{
+	}
+
+	/**
+	 * Computes the minimum leaf size for a range of the given length on the given pool
+	 */
+	static int grainFor(int length, ForkJoinPool pool)
+	{
+		int grain = length / (pool.getParallelism() * LEAVES_PER_WORKER);
+		return Math.max(grain, MIN_GRAIN);
+	}
+
+	private static boolean shouldSplit(int length, int grain)
+	{
+		return length > grain && ForkJoinTask.getSurplusQueuedTaskCount() <= SURPLUS_LIMIT;
+	}
+
+	private static void checkRange(int arrayLength, int from, int to)
+	{
+		if (from > to)
+		{
+			throw new IllegalArgumentException("from(" + from + ") > to(" + to + ")");
+		}
+		if (from < 0 || to > arrayLength)
+		{
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + arrayLength);
+		}
+	}
+
+	// ---------------------------------------------------------------- int
+
+	/**
+	 * Sum of all elements, accumulated as long so it cannot overflow like int addition
+	 */
+	public static long sum(int[] array)
+	{
+		return sum(array, 0, array.length, ForkJoinPool.commonPool());
+	}
+
+	public static long sum(int[] array, int from, int to, ForkJoinPool pool)
+	{
+		checkRange(array.length, from, to);
+		IntSumTask task = new IntSumTask(array, from, to, grainFor(to - from, pool), null);
+		pool.invoke(task);
+		return task.result;
+	}
+
+	public static int reduce(int[] array, int identity, IntBinaryOperator op)
+	{
+		return reduce(array, 0, array.length, identity, op, ForkJoinPool.commonPool());
+	}
+
+	public static int reduce(int[] array, int from, int to, int identity, IntBinaryOperator op, ForkJoinPool pool)
+	{
+		checkRange(array.length, from, to);
+		IntReduceTask task = new IntReduceTask(array, from, to, grainFor(to - from, pool), identity, op, null);
+		pool.invoke(task);
+		return task.result;
+	}
+
+	// ---------------------------------------------------------------- long
+
+	public static long sum(long[] array)
+	{
+		return reduce(array, 0, array.length, 0L, Long::sum, ForkJoinPool.commonPool());
+	}
+
+	public static long reduce(long[] array, long identity, LongBinaryOperator op)
+	{
+		return reduce(array, 0, array.length, identity, op, ForkJoinPool.commonPool());
+	}
+
+	public static long reduce(long[] array, int from, int to, long identity, LongBinaryOperator op, ForkJoinPool pool)
+	{
+		checkRange(array.length, from, to);
+		LongReduceTask task = new LongReduceTask(array, from, to, grainFor(to - from, pool), identity, op, null);
+		pool.invoke(task);
+		return task.result;
+	}
+
+	// ---------------------------------------------------------------- double
+
+	/**
+	 * Sum of all elements; the grouping differs from a sequential loop, so the
+	 * last bits may differ from a left-to-right sum
+	 */
+	public static double sum(double[] array)
+	{
+		return reduce(array, 0, array.length, 0.0, Double::sum, ForkJoinPool.commonPool());
+	}
+
+	public static double reduce(double[] array, double identity, DoubleBinaryOperator op)
+	{
+		return reduce(array, 0, array.length, identity, op, ForkJoinPool.commonPool());
+	}
+
+	public static double reduce(double[] array, int from, int to, double identity, DoubleBinaryOperator op, ForkJoinPool pool)
+	{
+		checkRange(array.length, from, to);
+		DoubleReduceTask task = new DoubleReduceTask(array, from, to, grainFor(to - from, pool), identity, op, null);
+		pool.invoke(task);
+		return task.result;
+	}
+
+	// ---------------------------------------------------------------- tasks
+
+	/*
+	 * All tasks follow the same shape: keep the left half, fork the right half,
+	 * chain forked halves through 'next', reduce the remaining leaf, then join
+	 * the chain in reverse fork order. Results live in primitive fields, so there
+	 * is no Long/Double per join as with RecursiveTask<Long>.
+	 */
+
+	static final class IntSumTask extends RecursiveAction
+	{
+		final int[] array;
+		final int from;
+		final int to;
+		final int grain;
+		final IntSumTask next;
+		long result;
+
+		IntSumTask(int[] array, int from, int to, int grain, IntSumTask next)
+		{
+			this.array = array;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.next = next;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int lo = from;
+			int hi = to;
+			IntSumTask forked = null;
+			while (shouldSplit(hi - lo, grain))
+			{
+				int mid = (lo + hi) >>> 1;
+				forked = new IntSumTask(array, mid, hi, grain, forked);
+				forked.fork();
+				hi = mid;
+			}
+
+			long sum = 0;
+			for (int i = lo; i < hi; i++)
+			{
+				sum += array[i];
+			}
+
+			while (forked != null)
+			{
+				if (forked.tryUnfork())
+				{
+					forked.compute();
+				}
+				else
+				{
+					forked.join();
+				}
+				sum += forked.result;
+				forked = forked.next;
+			}
+			result = sum;
+		}
+	}
+
+	static final class IntReduceTask extends RecursiveAction
+	{
+		final int[] array;
+		final int from;
+		final int to;
+		final int grain;
+		final int identity;
+		final IntBinaryOperator op;
+		final IntReduceTask next;
+		int result;
+
+		IntReduceTask(int[] array, int from, int to, int grain, int identity, IntBinaryOperator op, IntReduceTask next)
+		{
+			this.array = array;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.identity = identity;
+			this.op = op;
+			this.next = next;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int lo = from;
+			int hi = to;
+			IntReduceTask forked = null;
+			while (shouldSplit(hi - lo, grain))
+			{
+				int mid = (lo + hi) >>> 1;
+				forked = new IntReduceTask(array, mid, hi, grain, identity, op, forked);
+				forked.fork();
+				hi = mid;
+			}
+
+			int acc = identity;
+			for (int i = lo; i < hi; i++)
+			{
+				acc = op.applyAsInt(acc, array[i]);
+			}
+
+			// Forked tasks cover ranges to the right of ours, nearest first
+			while (forked != null)
+			{
+				if (forked.tryUnfork())
+				{
+					forked.compute();
+				}
+				else
+				{
+					forked.join();
+				}
+				acc = op.applyAsInt(acc, forked.result);
+				forked = forked.next;
+			}
+			result = acc;
+		}
+	}
+
+	static final class LongReduceTask extends RecursiveAction
+	{
+		final long[] array;
+		final int from;
+		final int to;
+		final int grain;
+		final long identity;
+		final LongBinaryOperator op;
+		final LongReduceTask next;
+		long result;
+
+		LongReduceTask(long[] array, int from, int to, int grain, long identity, LongBinaryOperator op, LongReduceTask next)
+		{
+			this.array = array;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.identity = identity;
+			this.op = op;
+			this.next = next;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int lo = from;
+			int hi = to;
+			LongReduceTask forked = null;
+			while (shouldSplit(hi - lo, grain))
+			{
+				int mid = (lo + hi) >>> 1;
+				forked = new LongReduceTask(array, mid, hi, grain, identity, op, forked);
+				forked.fork();
+				hi = mid;
+			}
+
+			long acc = identity;
+			for (int i = lo; i < hi; i++)
+			{
+				acc = op.applyAsLong(acc, array[i]);
+			}
+
+			while (forked != null)
+			{
+				if (forked.tryUnfork())
+				{
+					forked.compute();
+				}
+				else
+				{
+					forked.join();
+				}
+				acc = op.applyAsLong(acc, forked.result);
+				forked = forked.next;
+			}
+			result = acc;
+		}
+	}
+
+	static final class DoubleReduceTask extends RecursiveAction
+	{
+		final double[] array;
+		final int from;
+		final int to;
+		final int grain;
+		final double identity;
+		final DoubleBinaryOperator op;
+		final DoubleReduceTask next;
+		double result;
+
+		DoubleReduceTask(double[] array, int from, int to, int grain, double identity, DoubleBinaryOperator op, DoubleReduceTask next)
+		{
+			this.array = array;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.identity = identity;
+			this.op = op;
+			this.next = next;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int lo = from;
+			int hi = to;
+			DoubleReduceTask forked = null;
+			while (shouldSplit(hi - lo, grain))
+			{
+				int mid = (lo + hi) >>> 1;
+				forked = new DoubleReduceTask(array, mid, hi, grain, identity, op, forked);
+				forked.fork();
+				hi = mid;
+			}
+
+			double acc = identity;
+			for (int i = lo; i < hi; i++)
+			{
+				acc = op.applyAsDouble(acc, array[i]);
+			}
+
+			while (forked != null)
+			{
+				if (forked.tryUnfork())
+				{
+					forked.compute();
+				}
+				else
+				{
+					forked.join();
+				}
+				acc = op.applyAsDouble(acc, forked.result);
+				forked = forked.next;
+			}
+			result = acc;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package java7.forkjoin;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongSupplier;
+
+/**
+ * ParallelReducer vs fixed-threshold SumTask
+ *
+ * The baseline is a copy of SumTask from ForkJoinExample, nested here because
+ * javac warns when an auxiliary class is used outside its own source file.
+ *
+ * Runs both on dedicated pools of 1, 2, 4, ... up to availableProcessors workers
+ * for several array sizes. Each measurement is preceded by warmup rounds and
+ * reports the best of several runs, so JIT compilation and pool start-up are not
+ * part of the numbers.
+ *
+ * Usage: java java7.forkjoin.ParallelReducerBenchmark [size ...]
+ * Sizes above ~100M need a larger heap (-Xmx), since the int[] is 4 bytes per element.
+ */
+public class ParallelReducerBenchmark
+{
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int MEASURED_ROUNDS = 10;
+
+	/** Results are written here so the JIT cannot drop the measured work */
+	private static volatile long sink;
+
+	public static void main(String[] args)
+	{
+		System.out.println("=== ParallelReducer vs SumTask ===\n");
+
+		int[] sizes = args.length > 0 ? parseSizes(args) : new int[] { 100_000, 1_000_000, 10_000_000, 50_000_000 };
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println("Available processors: " + cores);
+		System.out.printf("%12s %8s %14s %14s %9s%n", "size", "workers", "SumTask(ms)", "Reducer(ms)", "speedup");
+
+		for (int size : sizes)
+		{
+			int[] array = randomArray(size);
+			for (int workers = 1; workers <= cores; workers = nextWorkerCount(workers, cores))
+			{
+				ForkJoinPool pool = new ForkJoinPool(workers);
+				try
+				{
+					long expected = pool.invoke(new SumTask(array, 0, array.length));
+					long actual = ParallelReducer.sum(array, 0, array.length, pool);
+					if (expected != actual)
+					{
+						throw new IllegalStateException("Sum mismatch: " + expected + " vs " + actual);
+					}
+
+					double sumTaskMs = bestOf(() -> pool.invoke(new SumTask(array, 0, array.length)));
+					double reducerMs = bestOf(() -> ParallelReducer.sum(array, 0, array.length, pool));
+					System.out.printf("%12d %8d %14.3f %14.3f %8.2fx%n", size, workers, sumTaskMs, reducerMs, sumTaskMs / reducerMs);
+				}
+				finally
+				{
+					pool.shutdown();
+				}
+			}
+		}
+
+		System.out.println("\nWhy the reducer is faster:");
+		System.out.println("- No Long allocated per join (SumTask returns RecursiveTask<Long>)");
+		System.out.println("- Leaf size scales with array length / parallelism instead of 1000");
+		System.out.println("- Splitting stops early when other workers already have queued work");
+	}
+
+	private static int nextWorkerCount(int workers, int cores)
+	{
+		if (workers == cores)
+		{
+			return cores + 1;
+		}
+		return Math.min(workers * 2, cores);
+	}
+
+	private static double bestOf(LongSupplier run)
+	{
+		for (int i = 0; i < WARMUP_ROUNDS; i++)
+		{
+			sink = run.getAsLong();
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < MEASURED_ROUNDS; i++)
+		{
+			long start = System.nanoTime();
+			sink = run.getAsLong();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / 1_000_000.0;
+	}
+
+	private static int[] parseSizes(String[] args)
+	{
+		int[] sizes = new int[args.length];
+		for (int i = 0; i < args.length; i++)
+		{
+			sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+		}
+		return sizes;
+	}
+
+	private static int[] randomArray(int size)
+	{
+		Random random = new Random(42);
+		int[] array = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			array[i] = random.nextInt(1_000_000);
+		}
+		return array;
+	}
+
+	/**
+	 * SumTask from ForkJoinExample: halves until fewer than 1000 elements,
+	 * boxing a Long per join
+	 */
+	private static final class SumTask extends RecursiveTask<Long>
+	{
+		private static final int THRESHOLD = 1000;
+		private final int[] array;
+		private final int start;
+		private final int end;
+
+		SumTask(int[] array, int start, int end)
+		{
+			this.array = array;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected Long compute()
+		{
+			int length = end - start;
+			if (length < THRESHOLD)
+			{
+				long sum = 0;
+				for (int i = start; i < end; i++)
+				{
+					sum += array[i];
+				}
+				return sum;
+			}
+			int mid = start + length / 2;
+			SumTask leftTask = new SumTask(array, start, mid);
+			SumTask rightTask = new SumTask(array, mid, end);
+			leftTask.fork();
+			long rightResult = rightTask.compute();
+			long leftResult = leftTask.join();
+			return leftResult + rightResult;
+		}
+	}
+}
@@ -0,0 +1,284 @@
+package java7.forkjoin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Parallel prefix sums (scans) on a Fork/Join pool
+ *
+ * Inclusive scan: a[i] = a[from] op ... op a[i]
+ * Exclusive scan: a[i] = identity op a[from] op ... op a[i - 1]
+ *
+ * Two passes over fixed blocks (block size from ParallelReducer.grainFor):
+ * 1. Up-sweep: every block is reduced in parallel into blockSums[]
+ * 2. The few block sums are turned into per-block carries sequentially
+ * 3. Down-sweep: every block rescans itself in parallel, starting from its carry
+ *
+ * Unlike Arrays.parallelPrefix this supports exclusive and segmented scans,
+ * works on a caller-supplied pool, and returns the total of the range.
+ *
+ * Segmented scans take a boolean[] of the same length as the array; a true
+ * entry restarts the running value at that index, which gives independent
+ * prefix sums per group in one pass.
+ */
+public final class ParallelScan
+{
+	private ParallelScan()
+	{
+	}
+
+	// ---------------------------------------------------------------- int
+
+	public static int inclusiveScan(int[] array, int identity, IntBinaryOperator op)
+	{
+		return scan(array, null, 0, array.length, identity, op, true, ForkJoinPool.commonPool());
+	}
+
+	public static int exclusiveScan(int[] array, int identity, IntBinaryOperator op)
+	{
+		return scan(array, null, 0, array.length, identity, op, false, ForkJoinPool.commonPool());
+	}
+
+	public static int inclusiveScan(int[] array, int from, int to, int identity, IntBinaryOperator op, ForkJoinPool pool)
+	{
+		return scan(array, null, from, to, identity, op, true, pool);
+	}
+
+	public static int exclusiveScan(int[] array, int from, int to, int identity, IntBinaryOperator op, ForkJoinPool pool)
+	{
+		return scan(array, null, from, to, identity, op, false, pool);
+	}
+
+	public static void segmentedInclusiveScan(int[] array, boolean[] segmentStarts, int identity, IntBinaryOperator op, ForkJoinPool pool)
+	{
+		checkSegments(array.length, segmentStarts);
+		scan(array, segmentStarts, 0, array.length, identity, op, true, pool);
+	}
+
+	public static void segmentedExclusiveScan(int[] array, boolean[] segmentStarts, int identity, IntBinaryOperator op, ForkJoinPool pool)
+	{
+		checkSegments(array.length, segmentStarts);
+		scan(array, segmentStarts, 0, array.length, identity, op, false, pool);
+	}
+
+	/**
+	 * Scans array[from, to) in place and returns the reduction of the whole range
+	 * (of the last segment, for segmented scans)
+	 */
+	static int scan(int[] a, boolean[] starts, int from, int to, int identity, IntBinaryOperator op, boolean inclusive, ForkJoinPool pool)
+	{
+		checkRange(a.length, from, to);
+		int n = to - from;
+		int grain = ParallelReducer.grainFor(n, pool);
+		// overflow-safe ceiling division
+		int blocks = n == 0 ? 1 : (n - 1) / grain + 1;
+		if (blocks == 1)
+		{
+			return scanBlock(a, starts, from, to, identity, identity, op, inclusive);
+		}
+
+		int[] carries = new int[blocks];
+		boolean[] restarts = new boolean[blocks];
+
+		// Up-sweep: per-block reduction, noting blocks that contain a segment start
+		pool.invoke(new BlockAction(0, blocks, b -> {
+			int lo = from + b * grain;
+			int hi = lo + Math.min(grain, to - lo);
+			int acc = identity;
+			for (int i = lo; i < hi; i++)
+			{
+				if (starts != null && starts[i])
+				{
+					acc = identity;
+					restarts[b] = true;
+				}
+				acc = op.applyAsInt(acc, a[i]);
+			}
+			carries[b] = acc;
+		}));
+
+		// Block sums -> carry into each block
+		int carry = identity;
+		for (int b = 0; b < blocks; b++)
+		{
+			int blockSum = carries[b];
+			carries[b] = carry;
+			carry = restarts[b] ? blockSum : op.applyAsInt(carry, blockSum);
+		}
+
+		// Down-sweep: rescan each block from its carry
+		pool.invoke(new BlockAction(0, blocks, b -> {
+			int lo = from + b * grain;
+			scanBlock(a, starts, lo, lo + Math.min(grain, to - lo), carries[b], identity, op, inclusive);
+		}));
+		return carry;
+	}
+
+	private static int scanBlock(int[] a, boolean[] starts, int lo, int hi, int carry, int identity, IntBinaryOperator op, boolean inclusive)
+	{
+		int acc = carry;
+		for (int i = lo; i < hi; i++)
+		{
+			if (starts != null && starts[i])
+			{
+				acc = identity;
+			}
+			int value = a[i];
+			int next = op.applyAsInt(acc, value);
+			a[i] = inclusive ? next : acc;
+			acc = next;
+		}
+		return acc;
+	}
+
+	// ---------------------------------------------------------------- long
+
+	public static long inclusiveScan(long[] array, long identity, LongBinaryOperator op)
+	{
+		return scan(array, null, 0, array.length, identity, op, true, ForkJoinPool.commonPool());
+	}
+
+	public static long exclusiveScan(long[] array, long identity, LongBinaryOperator op)
+	{
+		return scan(array, null, 0, array.length, identity, op, false, ForkJoinPool.commonPool());
+	}
+
+	public static long inclusiveScan(long[] array, int from, int to, long identity, LongBinaryOperator op, ForkJoinPool pool)
+	{
+		return scan(array, null, from, to, identity, op, true, pool);
+	}
+
+	public static long exclusiveScan(long[] array, int from, int to, long identity, LongBinaryOperator op, ForkJoinPool pool)
+	{
+		return scan(array, null, from, to, identity, op, false, pool);
+	}
+
+	public static void segmentedInclusiveScan(long[] array, boolean[] segmentStarts, long identity, LongBinaryOperator op, ForkJoinPool pool)
+	{
+		checkSegments(array.length, segmentStarts);
+		scan(array, segmentStarts, 0, array.length, identity, op, true, pool);
+	}
+
+	public static void segmentedExclusiveScan(long[] array, boolean[] segmentStarts, long identity, LongBinaryOperator op, ForkJoinPool pool)
+	{
+		checkSegments(array.length, segmentStarts);
+		scan(array, segmentStarts, 0, array.length, identity, op, false, pool);
+	}
+
+	static long scan(long[] a, boolean[] starts, int from, int to, long identity, LongBinaryOperator op, boolean inclusive, ForkJoinPool pool)
+	{
+		checkRange(a.length, from, to);
+		int n = to - from;
+		int grain = ParallelReducer.grainFor(n, pool);
+		// overflow-safe ceiling division
+		int blocks = n == 0 ? 1 : (n - 1) / grain + 1;
+		if (blocks == 1)
+		{
+			return scanBlock(a, starts, from, to, identity, identity, op, inclusive);
+		}
+
+		long[] carries = new long[blocks];
+		boolean[] restarts = new boolean[blocks];
+
+		pool.invoke(new BlockAction(0, blocks, b -> {
+			int lo = from + b * grain;
+			int hi = lo + Math.min(grain, to - lo);
+			long acc = identity;
+			for (int i = lo; i < hi; i++)
+			{
+				if (starts != null && starts[i])
+				{
+					acc = identity;
+					restarts[b] = true;
+				}
+				acc = op.applyAsLong(acc, a[i]);
+			}
+			carries[b] = acc;
+		}));
+
+		long carry = identity;
+		for (int b = 0; b < blocks; b++)
+		{
+			long blockSum = carries[b];
+			carries[b] = carry;
+			carry = restarts[b] ? blockSum : op.applyAsLong(carry, blockSum);
+		}
+
+		pool.invoke(new BlockAction(0, blocks, b -> {
+			int lo = from + b * grain;
+			scanBlock(a, starts, lo, lo + Math.min(grain, to - lo), carries[b], identity, op, inclusive);
+		}));
+		return carry;
+	}
+
+	private static long scanBlock(long[] a, boolean[] starts, int lo, int hi, long carry, long identity, LongBinaryOperator op, boolean inclusive)
+	{
+		long acc = carry;
+		for (int i = lo; i < hi; i++)
+		{
+			if (starts != null && starts[i])
+			{
+				acc = identity;
+			}
+			long value = a[i];
+			long next = op.applyAsLong(acc, value);
+			a[i] = inclusive ? next : acc;
+			acc = next;
+		}
+		return acc;
+	}
+
+	// ---------------------------------------------------------------- helpers
+
+	private static void checkRange(int arrayLength, int from, int to)
+	{
+		if (from > to)
+		{
+			throw new IllegalArgumentException("from(" + from + ") > to(" + to + ")");
+		}
+		if (from < 0 || to > arrayLength)
+		{
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + arrayLength);
+		}
+	}
+
+	private static void checkSegments(int arrayLength, boolean[] segmentStarts)
+	{
+		if (segmentStarts.length != arrayLength)
+		{
+			throw new IllegalArgumentException("segmentStarts length " + segmentStarts.length + " != array length " + arrayLength);
+		}
+	}
+
+	/**
+	 * Runs body for every block index in [lo, hi), one block per leaf task
+	 */
+	static final class BlockAction extends RecursiveAction
+	{
+		final int lo;
+		final int hi;
+		final IntConsumer body;
+
+		BlockAction(int lo, int hi, IntConsumer body)
+		{
+			this.lo = lo;
+			this.hi = hi;
+			this.body = body;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (hi - lo == 1)
+			{
+				body.accept(lo);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new BlockAction(lo, mid, body), new BlockAction(mid, hi, body));
+		}
+	}
+}
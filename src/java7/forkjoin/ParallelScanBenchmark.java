@@ -0,0 +1,108 @@
+package java7.forkjoin;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ParallelScan throughput vs a sequential prefix-sum loop and Arrays.parallelPrefix
+ *
+ * Each variant scans a fresh copy of the same random long[] and reports the best
+ * run after warmup, as millions of elements per second.
+ *
+ * Usage: java java7.forkjoin.ParallelScanBenchmark [size ...]
+ */
+public class ParallelScanBenchmark
+{
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int MEASURED_ROUNDS = 10;
+
+	public static void main(String[] args)
+	{
+		System.out.println("=== Parallel Prefix Sum (Scan) ===\n");
+
+		demo();
+
+		int[] sizes = args.length > 0 ? Arrays.stream(args).mapToInt(s -> Integer.parseInt(s.replace("_", ""))).toArray()
+				: new int[] { 1_000_000, 10_000_000, 50_000_000 };
+		ForkJoinPool pool = new ForkJoinPool();
+		System.out.println("\nWorkers: " + pool.getParallelism());
+		System.out.printf("%12s %16s %16s %16s%n", "size", "sequential M/s", "parallelPrefix", "ParallelScan");
+
+		for (int size : sizes)
+		{
+			long[] source = new Random(42).longs(size, 0, 1000).toArray();
+			long[] work = new long[size];
+
+			long[] expected = source.clone();
+			sequentialScan(expected);
+			long[] actual = source.clone();
+			ParallelScan.inclusiveScan(actual, 0, actual.length, 0L, Long::sum, pool);
+			if (!Arrays.equals(expected, actual))
+			{
+				throw new IllegalStateException("Scan mismatch for size " + size);
+			}
+
+			double sequential = throughput(size, source, work, () -> sequentialScan(work));
+			double jdk = throughput(size, source, work, () -> Arrays.parallelPrefix(work, Long::sum));
+			double scan = throughput(size, source, work, () -> ParallelScan.inclusiveScan(work, 0, work.length, 0L, Long::sum, pool));
+			System.out.printf("%12d %16.1f %16.1f %16.1f%n", size, sequential, jdk, scan);
+		}
+		pool.shutdown();
+	}
+
+	private static void demo()
+	{
+		int[] values = { 3, 1, 4, 1, 5, 9, 2, 6 };
+
+		int[] inclusive = values.clone();
+		ParallelScan.inclusiveScan(inclusive, 0, Integer::sum);
+		System.out.println("Input:           " + Arrays.toString(values));
+		System.out.println("Inclusive scan:  " + Arrays.toString(inclusive));
+
+		int[] exclusive = values.clone();
+		int total = ParallelScan.exclusiveScan(exclusive, 0, Integer::sum);
+		System.out.println("Exclusive scan:  " + Arrays.toString(exclusive) + " total=" + total);
+
+		int[] running = values.clone();
+		ParallelScan.inclusiveScan(running, Integer.MIN_VALUE, Math::max);
+		System.out.println("Running max:     " + Arrays.toString(running));
+
+		int[] segmented = values.clone();
+		boolean[] starts = { true, false, false, true, false, false, true, false };
+		ParallelScan.segmentedInclusiveScan(segmented, starts, 0, Integer::sum, ForkJoinPool.commonPool());
+		System.out.println("Segmented scan:  " + Arrays.toString(segmented) + " (segments start at 0, 3, 6)");
+	}
+
+	private static void sequentialScan(long[] a)
+	{
+		long acc = 0;
+		for (int i = 0; i < a.length; i++)
+		{
+			acc += a[i];
+			a[i] = acc;
+		}
+	}
+
+	/**
+	 * Best-of-N throughput in millions of elements per second; the array is reset
+	 * from source before every run (outside the timed section)
+	 */
+	private static double throughput(int size, long[] source, long[] work, Runnable scan)
+	{
+		for (int i = 0; i < WARMUP_ROUNDS; i++)
+		{
+			System.arraycopy(source, 0, work, 0, size);
+			scan.run();
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < MEASURED_ROUNDS; i++)
+		{
+			System.arraycopy(source, 0, work, 0, size);
+			long start = System.nanoTime();
+			scan.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return size / (best / 1_000.0);
+	}
+}
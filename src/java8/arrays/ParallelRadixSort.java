@@ -0,0 +1,199 @@
+package java8.arrays;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel LSD Radix Sort for int[] and long[]
+ *
+ * Sorts 8 bits per pass (4 passes for int, 8 for long), so the cost is linear in
+ * the array length instead of n log n comparisons. Each pass:
+ * 1. Every chunk builds its own 256-bucket histogram in parallel (no sharing)
+ * 2. Histograms are turned into per-chunk write offsets (digit-major, chunk-minor)
+ * 3. Every chunk scatters its elements to the scratch buffer in parallel
+ *
+ * Offsets are assigned in chunk order within each bucket, so every pass is stable,
+ * which is what makes LSD correct. Passes where all keys share the same digit are
+ * skipped, and the sign bit is flipped on the top digit so negatives sort first.
+ *
+ * Needs a scratch buffer as large as the range. Small ranges fall back to Arrays.sort.
+ */
+public final class ParallelRadixSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private static final int MASK = BUCKETS - 1;
+
+    /** Below this size Arrays.sort wins (histogram setup is not amortized) */
+    private static final int MIN_RADIX_LENGTH = 1 << 16;
+
+    /** Elements per chunk; keeps each chunk's histogram pass worth a task */
+    private static final int MIN_CHUNK = 1 << 15;
+
+    private ParallelRadixSort() {
+    }
+
+    public static void parallelSort(int[] a) {
+        parallelSort(a, 0, a.length);
+    }
+
+    /**
+     * Sorts a[from, to) in ascending order, same contract as Arrays.parallelSort(a, from, to)
+     */
+    public static void parallelSort(int[] a, int from, int to) {
+        checkRange(a.length, from, to);
+        int n = to - from;
+        if (n < MIN_RADIX_LENGTH) {
+            Arrays.sort(a, from, to);
+            return;
+        }
+        int chunks = chunkCount(n);
+        int[] buffer = new int[n];
+        int[][] histograms = new int[chunks][BUCKETS];
+
+        // src/dst alternate between a (at offset 'from') and buffer (at offset 0)
+        int[] src = a;
+        int srcFrom = from;
+        int[] dst = buffer;
+        int dstFrom = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            int flip = shift == Integer.SIZE - RADIX_BITS ? BUCKETS >>> 1 : 0;
+            if (intPass(src, srcFrom, dst, dstFrom, n, shift, flip, chunks, histograms)) {
+                int[] t = src; src = dst; dst = t;
+                int f = srcFrom; srcFrom = dstFrom; dstFrom = f;
+            }
+        }
+        if (src != a) {
+            System.arraycopy(src, 0, a, from, n);
+        }
+    }
+
+    /**
+     * One counting pass; returns false (and moves nothing) if every key has the same digit
+     */
+    private static boolean intPass(int[] src, int srcFrom, int[] dst, int dstFrom, int n,
+                                   int shift, int flip, int chunks, int[][] histograms) {
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] h = histograms[c];
+            Arrays.fill(h, 0);
+            int end = srcFrom + chunkEnd(c, chunks, n);
+            for (int i = srcFrom + chunkStart(c, chunks, n); i < end; i++) {
+                h[((src[i] >>> shift) & MASK) ^ flip]++;
+            }
+        });
+        if (!toOffsets(histograms, chunks, n, dstFrom)) {
+            return false;
+        }
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] offsets = histograms[c];
+            int end = srcFrom + chunkEnd(c, chunks, n);
+            for (int i = srcFrom + chunkStart(c, chunks, n); i < end; i++) {
+                int v = src[i];
+                dst[offsets[((v >>> shift) & MASK) ^ flip]++] = v;
+            }
+        });
+        return true;
+    }
+
+    public static void parallelSort(long[] a) {
+        parallelSort(a, 0, a.length);
+    }
+
+    /**
+     * Sorts a[from, to) in ascending order, same contract as Arrays.parallelSort(a, from, to)
+     */
+    public static void parallelSort(long[] a, int from, int to) {
+        checkRange(a.length, from, to);
+        int n = to - from;
+        if (n < MIN_RADIX_LENGTH) {
+            Arrays.sort(a, from, to);
+            return;
+        }
+        int chunks = chunkCount(n);
+        long[] buffer = new long[n];
+        int[][] histograms = new int[chunks][BUCKETS];
+
+        long[] src = a;
+        int srcFrom = from;
+        long[] dst = buffer;
+        int dstFrom = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            int flip = shift == Long.SIZE - RADIX_BITS ? BUCKETS >>> 1 : 0;
+            if (longPass(src, srcFrom, dst, dstFrom, n, shift, flip, chunks, histograms)) {
+                long[] t = src; src = dst; dst = t;
+                int f = srcFrom; srcFrom = dstFrom; dstFrom = f;
+            }
+        }
+        if (src != a) {
+            System.arraycopy(src, 0, a, from, n);
+        }
+    }
+
+    private static boolean longPass(long[] src, int srcFrom, long[] dst, int dstFrom, int n,
+                                    int shift, int flip, int chunks, int[][] histograms) {
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] h = histograms[c];
+            Arrays.fill(h, 0);
+            int end = srcFrom + chunkEnd(c, chunks, n);
+            for (int i = srcFrom + chunkStart(c, chunks, n); i < end; i++) {
+                h[((int) (src[i] >>> shift) & MASK) ^ flip]++;
+            }
+        });
+        if (!toOffsets(histograms, chunks, n, dstFrom)) {
+            return false;
+        }
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] offsets = histograms[c];
+            int end = srcFrom + chunkEnd(c, chunks, n);
+            for (int i = srcFrom + chunkStart(c, chunks, n); i < end; i++) {
+                long v = src[i];
+                dst[offsets[((int) (v >>> shift) & MASK) ^ flip]++] = v;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Rewrites per-chunk counts into per-chunk start offsets in dst, bucket by
+     * bucket and chunk by chunk (stable). Returns false if one bucket holds all n keys.
+     */
+    private static boolean toOffsets(int[][] histograms, int chunks, int n, int dstFrom) {
+        int offset = dstFrom;
+        for (int d = 0; d < BUCKETS; d++) {
+            int bucketTotal = 0;
+            for (int c = 0; c < chunks; c++) {
+                int count = histograms[c][d];
+                histograms[c][d] = offset;
+                offset += count;
+                bucketTotal += count;
+            }
+            if (bucketTotal == n) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int chunkCount(int n) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(1, Math.min(parallelism * 4, n / MIN_CHUNK));
+    }
+
+    private static int chunkStart(int c, int chunks, int n) {
+        return (int) ((long) n * c / chunks);
+    }
+
+    private static int chunkEnd(int c, int chunks, int n) {
+        return (int) ((long) n * (c + 1) / chunks);
+    }
+
+    private static void checkRange(int arrayLength, int from, int to) {
+        if (from > to) {
+            throw new IllegalArgumentException("fromIndex(" + from + ") > toIndex(" + to + ")");
+        }
+        if (from < 0 || to > arrayLength) {
+            throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + arrayLength);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package java8.arrays;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * ParallelRadixSort vs Arrays.sort() vs Arrays.parallelSort()
+ *
+ * Checks that all three produce identical output (full array and sub-range, int and
+ * long, including negative keys), then times each on copies of the same random data.
+ * Reports the best of several runs after warmup.
+ *
+ * Usage: java java8.arrays.ParallelRadixSortBenchmark [size ...]
+ * 100M ints need roughly -Xmx2g (input, copy and radix scratch buffer).
+ */
+public class ParallelRadixSortBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+
+        System.out.println("=== Correctness ===");
+        verify();
+        System.out.println("All checks passed");
+
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(s -> Integer.parseInt(s.replace("_", ""))).toArray()
+                : new int[] {1_000_000, 10_000_000, 50_000_000};
+
+        System.out.println("\n=== int[] (best of " + MEASURED_ROUNDS + ", ms) ===");
+        System.out.printf("%12s %12s %14s %12s%n", "size", "sort", "parallelSort", "radix");
+        for (int size : sizes) {
+            int[] source = new SplittableRandom(42).ints(size).toArray();
+            double sort = time(source, Arrays::sort);
+            double parallel = time(source, Arrays::parallelSort);
+            double radix = time(source, ParallelRadixSort::parallelSort);
+            System.out.printf("%12d %12.1f %14.1f %12.1f%n", size, sort, parallel, radix);
+        }
+
+        System.out.println("\n=== long[] (best of " + MEASURED_ROUNDS + ", ms) ===");
+        System.out.printf("%12s %12s %14s %12s%n", "size", "sort", "parallelSort", "radix");
+        for (int size : sizes) {
+            long[] source = new SplittableRandom(42).longs(size).toArray();
+            double sort = timeLongs(source, Arrays::sort);
+            double parallel = timeLongs(source, Arrays::parallelSort);
+            double radix = timeLongs(source, ParallelRadixSort::parallelSort);
+            System.out.printf("%12d %12.1f %14.1f %12.1f%n", size, sort, parallel, radix);
+        }
+    }
+
+    private static void verify() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int size : new int[] {0, 1, 100, 70_000, 1_000_003}) {
+            int[] ints = random.ints(size).toArray();
+            int[] expected = ints.clone();
+            Arrays.sort(expected);
+            int[] actual = ints.clone();
+            ParallelRadixSort.parallelSort(actual);
+            check(Arrays.equals(expected, actual), "int[] size " + size);
+
+            long[] longs = random.longs(size).toArray();
+            long[] expectedLongs = longs.clone();
+            Arrays.parallelSort(expectedLongs);
+            long[] actualLongs = longs.clone();
+            ParallelRadixSort.parallelSort(actualLongs);
+            check(Arrays.equals(expectedLongs, actualLongs), "long[] size " + size);
+        }
+
+        // Sub-range: elements outside [from, to) must not move
+        int[] ints = random.ints(500_000, -1000, 1000).toArray();
+        int[] expected = ints.clone();
+        Arrays.parallelSort(expected, 1234, 400_000);
+        int[] actual = ints.clone();
+        ParallelRadixSort.parallelSort(actual, 1234, 400_000);
+        check(Arrays.equals(expected, actual), "int[] range");
+
+        // Keys sharing high bytes exercise the skipped-pass path
+        long[] narrow = random.longs(300_000, 0, 200).toArray();
+        long[] expectedNarrow = narrow.clone();
+        Arrays.sort(expectedNarrow);
+        ParallelRadixSort.parallelSort(narrow);
+        check(Arrays.equals(expectedNarrow, narrow), "long[] narrow keys");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            throw new IllegalStateException("Mismatch: " + what);
+        }
+        System.out.println("  ✓ " + what);
+    }
+
+    private static double time(int[] source, Consumer<int[]> sorter) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + MEASURED_ROUNDS; i++) {
+            int[] copy = source.clone();
+            long start = System.nanoTime();
+            sorter.accept(copy);
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best / 1_000_000.0;
+    }
+
+    private static double timeLongs(long[] source, Consumer<long[]> sorter) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + MEASURED_ROUNDS; i++) {
+            long[] copy = source.clone();
+            long start = System.nanoTime();
+            sorter.accept(copy);
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best / 1_000_000.0;
+    }
+}
@@ -71,6 +71,7 @@ public class ParallelSortDemo {
         System.out.println("Sequential sort time: " + sequentialTime + " ms");
         System.out.println("Parallel sort time: " + parallelTime + " ms");
         System.out.println("Speedup: " + String.format("%.2f", (double) sequentialTime / parallelTime) + "x");
+        System.out.println("(Single run without warmup - see benchmarks.SortBenchmarks for reproducible numbers)");
         
         System.out.println("\n=== When to Use parallelSort() ===");
         System.out.println("✓ Use when:");
@@ -0,0 +1,223 @@
+package java8.comparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import java8.arrays.ParallelRadixSort;
+
+/**
+ * Schwartzian-transform sort with packed primitive keys
+ *
+ * people.sort(Comparator.comparing(Person::getAge).thenComparing(Person::getName))
+ * calls getAge()/getName() and String.compareTo() on every comparison, roughly
+ * 2 * n log n extractor calls. PackedKeySort describes the same ordering, but:
+ * 1. Extracts every key exactly once per element (in parallel)
+ * 2. Turns each key into a small non-negative code:
+ *    - int keys: value - min
+ *    - Comparable keys: rank among the distinct values (only distinct values are compared)
+ * 3. Packs all codes plus the element's original index into one long per element
+ * 4. Sorts the long[] with ParallelRadixSort and permutes the objects by the index bits
+ *
+ * Because the original index is the lowest field, equal keys keep their order,
+ * so the result is identical to the stable List.sort with the equivalent comparator.
+ *
+ * If the codes plus index need more than 63 bits, it falls back to sorting indices
+ * with a comparator over the extracted code arrays (still one extraction per element).
+ *
+ * Usage:
+ *   PackedKeySort.comparingInt(Person::getAge).thenComparing(Person::getName).sort(people);
+ */
+public final class PackedKeySort<T> {
+
+    private final List<Key<T>> keys;
+
+    private PackedKeySort(List<Key<T>> keys) {
+        this.keys = keys;
+    }
+
+    public static <T> PackedKeySort<T> comparingInt(ToIntFunction<? super T> extractor) {
+        return new PackedKeySort<T>(new ArrayList<>()).thenComparingInt(extractor);
+    }
+
+    public static <T, K extends Comparable<? super K>> PackedKeySort<T> comparing(Function<? super T, ? extends K> extractor) {
+        return new PackedKeySort<T>(new ArrayList<>()).thenComparing(extractor);
+    }
+
+    public PackedKeySort<T> thenComparingInt(ToIntFunction<? super T> extractor) {
+        List<Key<T>> next = new ArrayList<>(keys);
+        next.add(new IntKey<>(extractor));
+        return new PackedKeySort<>(next);
+    }
+
+    public <K extends Comparable<? super K>> PackedKeySort<T> thenComparing(Function<? super T, ? extends K> extractor) {
+        List<Key<T>> next = new ArrayList<>(keys);
+        next.add(new RankedKey<T, K>(extractor));
+        return new PackedKeySort<>(next);
+    }
+
+    /**
+     * The equivalent Comparator chain, for callers that need one (and for benchmarks)
+     */
+    public Comparator<T> comparator() {
+        Comparator<T> result = null;
+        for (Key<T> key : keys) {
+            Comparator<T> next = key.comparator();
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the list in place, with the same result as list.sort(comparator())
+     */
+    @SuppressWarnings("unchecked")
+    public void sort(List<T> list) {
+        Object[] items = list.toArray();
+        int[] order = sortedOrder((T[]) items);
+        ListIterator<T> it = list.listIterator();
+        for (int index : order) {
+            it.next();
+            it.set((T) items[index]);
+        }
+    }
+
+    /**
+     * Returns the original indices of items in sorted order; items is not modified
+     */
+    int[] sortedOrder(T[] items) {
+        int n = items.length;
+        long[][] codes = new long[keys.size()][];
+        int[] bits = new int[keys.size()];
+        int totalBits = bitsFor(n - 1);
+        for (int k = 0; k < keys.size(); k++) {
+            codes[k] = keys.get(k).encode(items);
+            bits[k] = bitsFor(max(codes[k]));
+            totalBits += bits[k];
+        }
+
+        if (totalBits <= Long.SIZE - 1) {
+            return packedOrder(codes, bits, n);
+        }
+        return fallbackOrder(codes, n);
+    }
+
+    private static int[] packedOrder(long[][] codes, int[] bits, int n) {
+        int indexBits = bitsFor(n - 1);
+        long indexMask = (1L << indexBits) - 1;
+        long[] packed = new long[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            long key = 0;
+            for (int k = 0; k < codes.length; k++) {
+                key = (key << bits[k]) | codes[k][i];
+            }
+            packed[i] = (key << indexBits) | i;
+        });
+
+        ParallelRadixSort.parallelSort(packed);
+
+        int[] order = new int[n];
+        IntStream.range(0, n).parallel().forEach(i -> order[i] = (int) (packed[i] & indexMask));
+        return order;
+    }
+
+    private static int[] fallbackOrder(long[][] codes, int n) {
+        Integer[] indices = new Integer[n];
+        Arrays.setAll(indices, i -> i);
+        Arrays.parallelSort(indices, (a, b) -> {
+            for (long[] column : codes) {
+                int c = Long.compare(column[a], column[b]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        });
+        int[] order = new int[n];
+        Arrays.setAll(order, i -> indices[i]);
+        return order;
+    }
+
+    private static long max(long[] values) {
+        return Arrays.stream(values).parallel().max().orElse(0);
+    }
+
+    private static int bitsFor(long maxValue) {
+        return maxValue <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(maxValue);
+    }
+
+    /**
+     * One sort key; encode() returns a non-negative code per item whose order matches the key order
+     */
+    private interface Key<T> {
+        long[] encode(T[] items);
+
+        Comparator<T> comparator();
+    }
+
+    private static final class IntKey<T> implements Key<T> {
+        private final ToIntFunction<? super T> extractor;
+
+        IntKey(ToIntFunction<? super T> extractor) {
+            this.extractor = extractor;
+        }
+
+        @Override
+        public long[] encode(T[] items) {
+            long[] codes = new long[items.length];
+            IntStream.range(0, items.length).parallel().forEach(i -> codes[i] = extractor.applyAsInt(items[i]));
+            long min = Arrays.stream(codes).parallel().min().orElse(0);
+            IntStream.range(0, items.length).parallel().forEach(i -> codes[i] -= min);
+            return codes;
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return Comparator.comparingInt(extractor);
+        }
+    }
+
+    private static final class RankedKey<T, K extends Comparable<? super K>> implements Key<T> {
+        private final Function<? super T, ? extends K> extractor;
+
+        RankedKey(Function<? super T, ? extends K> extractor) {
+            this.extractor = extractor;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public long[] encode(T[] items) {
+            Object[] values = new Object[items.length];
+            IntStream.range(0, items.length).parallel().forEach(i -> values[i] = extractor.apply(items[i]));
+
+            // Only the distinct values are compared; typically far fewer than items
+            Object[] distinct = Arrays.stream(values).parallel().unordered().distinct().toArray();
+            Arrays.parallelSort(distinct, (a, b) -> ((K) a).compareTo((K) b));
+            Map<Object, Integer> ranks = new HashMap<>(distinct.length * 2);
+            int rank = 0;
+            for (int d = 0; d < distinct.length; d++) {
+                // Values that compare equal without being equal() share a rank
+                if (d > 0 && ((K) distinct[d - 1]).compareTo((K) distinct[d]) != 0) {
+                    rank++;
+                }
+                ranks.put(distinct[d], rank);
+            }
+
+            long[] codes = new long[items.length];
+            IntStream.range(0, items.length).parallel().forEach(i -> codes[i] = ranks.get(values[i]));
+            return codes;
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return Comparator.comparing(extractor);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package java8.comparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import java8.comparator.ComparatorEnhancements.Person;
+
+/**
+ * PackedKeySort vs List.sort(Comparator.comparing(Person::getAge).thenComparing(Person::getName))
+ *
+ * Generates Person records with ages 0-99 and names drawn from a pool of distinct
+ * names, sorts copies of the same list both ways, verifies that the resulting
+ * order is identical element for element, and reports the best time after warmup.
+ *
+ * Usage: java java8.comparator.PackedKeySortBenchmark [size ...]
+ */
+public class PackedKeySortBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int DISTINCT_NAMES = 50_000;
+
+    public static void main(String[] args) {
+
+        Comparator<Person> comparator = Comparator
+            .comparing(Person::getAge)
+            .thenComparing(Person::getName);
+        PackedKeySort<Person> packed = PackedKeySort
+            .<Person>comparingInt(Person::getAge)
+            .thenComparing(Person::getName);
+
+        System.out.println("=== Small Example ===");
+        List<Person> people = new ArrayList<>(Arrays.asList(
+            new Person("Alice", 30, "New York"),
+            new Person("Bob", 25, "Boston"),
+            new Person("Charlie", 30, "Boston"),
+            new Person("David", 25, "New York"),
+            new Person("Eve", 35, "Chicago")
+        ));
+        packed.sort(people);
+        people.forEach(System.out::println);
+
+        int[] sizes = args.length > 0
+            ? Arrays.stream(args).mapToInt(s -> Integer.parseInt(s.replace("_", ""))).toArray()
+            : new int[] {100_000, 1_000_000, 5_000_000};
+
+        System.out.println("\n=== Performance (best of " + MEASURED_ROUNDS + ", ms) ===");
+        System.out.printf("%12s %14s %16s %9s%n", "size", "List.sort", "PackedKeySort", "speedup");
+        for (int size : sizes) {
+            List<Person> source = randomPeople(size);
+
+            List<Person> expected = new ArrayList<>(source);
+            expected.sort(comparator);
+            List<Person> actual = new ArrayList<>(source);
+            packed.sort(actual);
+            for (int i = 0; i < size; i++) {
+                if (expected.get(i) != actual.get(i)) {
+                    throw new IllegalStateException("Order differs at index " + i);
+                }
+            }
+
+            double listSort = time(source, list -> list.sort(comparator));
+            double packedSort = time(source, packed::sort);
+            System.out.printf("%12d %14.1f %16.1f %8.2fx%n", size, listSort, packedSort, listSort / packedSort);
+        }
+    }
+
+    private static List<Person> randomPeople(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] names = new String[DISTINCT_NAMES];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Name-" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        }
+        List<Person> people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            people.add(new Person(names[random.nextInt(names.length)], random.nextInt(100), "City"));
+        }
+        return people;
+    }
+
+    private static double time(List<Person> source, Consumer<List<Person>> sorter) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + MEASURED_ROUNDS; i++) {
+            List<Person> copy = new ArrayList<>(source);
+            long start = System.nanoTime();
+            sorter.accept(copy);
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best / 1_000_000.0;
+    }
+}
@@ -0,0 +1,429 @@
+package java8.programs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Boxing-free Character Histogram
+ *
+ * CountingCharacters collects chars().mapToObj(c -> (char) c) with
+ * groupingBy(..., counting()): every character is boxed and every increment
+ * allocates a new Long in the map. Here the histogram is a long[65536] indexed
+ * by the UTF-16 char value, so counting is one array increment per character.
+ *
+ * - of(CharSequence), of(char[]): sequential count
+ * - ofUtf8(byte[]), ofUtf8(InputStream): decodes UTF-8 on the fly; characters
+ *   outside the BMP count as their two surrogates, exactly like String.chars(),
+ *   and each malformed sequence counts as one U+FFFD
+ * - parallelOf(...), parallelOfUtf8(...): the input is cut into chunks (UTF-8
+ *   chunks only at character boundaries), each chunk is counted into a private
+ *   int[65536], and the chunk histograms are merged in parallel by the stream's
+ *   collect(supplier, accumulator, combiner)
+ *
+ * ASCII fast path: UTF-8 input is checked 8 bytes at a time (one long with the
+ * high bits masked), and pure-ASCII runs are counted into 4 interleaved tables,
+ * so repeated characters do not stall on the same counter.
+ *
+ * Usage:
+ *   CharHistogram histogram = CharHistogram.parallelOfUtf8(Files.readAllBytes(log));
+ *   long spaces = histogram.count(' ');
+ */
+public final class CharHistogram
+{
+	private static final int CHARS = 1 << 16;
+
+	/** Inputs shorter than this are counted sequentially by the parallel methods */
+	private static final int MIN_CHUNK = 1 << 16;
+
+	/** Bytes read per call from an InputStream */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	private static final char REPLACEMENT = '\uFFFD';
+
+	/** Smallest code point that needs 2, 3 and 4 bytes (anything below is overlong) */
+	private static final int[] MIN_CODE_POINT = { 0, 0, 0x80, 0x800, 0x10000 };
+
+	private final long[] counts;
+
+	public CharHistogram()
+	{
+		this(new long[CHARS]);
+	}
+
+	private CharHistogram(long[] counts)
+	{
+		this.counts = counts;
+	}
+
+	// ---------------------------------------------------------------- factories
+
+	public static CharHistogram of(CharSequence text)
+	{
+		return new CharHistogram().add(text, 0, text.length());
+	}
+
+	public static CharHistogram of(char[] chars)
+	{
+		return new CharHistogram().add(chars, 0, chars.length);
+	}
+
+	/**
+	 * Counts the UTF-16 chars of UTF-8 bytes; malformed sequences count as U+FFFD
+	 */
+	public static CharHistogram ofUtf8(byte[] bytes)
+	{
+		int[] chunk = new int[CHARS];
+		if (decodeUtf8(bytes, 0, bytes.length, chunk) < bytes.length)
+		{
+			chunk[REPLACEMENT]++;
+		}
+		CharHistogram histogram = new CharHistogram();
+		addInto(histogram.counts, chunk);
+		return histogram;
+	}
+
+	/**
+	 * Streams UTF-8 from in through a fixed buffer; the stream is not closed
+	 */
+	public static CharHistogram ofUtf8(InputStream in) throws IOException
+	{
+		CharHistogram histogram = new CharHistogram();
+		int[] chunk = new int[CHARS];
+		long chunkBytes = 0;
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int pending = 0;
+		int read;
+		while ((read = in.read(buffer, pending, buffer.length - pending)) != -1)
+		{
+			int length = pending + read;
+			int end = decodeUtf8(buffer, 0, length, chunk);
+			// carry an incomplete trailing sequence over to the next read
+			pending = length - end;
+			System.arraycopy(buffer, end, buffer, 0, pending);
+
+			// a byte adds at most one char, so int counters are safe below 2^31 bytes
+			chunkBytes += end;
+			if (chunkBytes > Integer.MAX_VALUE - BUFFER_SIZE)
+			{
+				addInto(histogram.counts, chunk);
+				Arrays.fill(chunk, 0);
+				chunkBytes = 0;
+			}
+		}
+		if (pending > 0)
+		{
+			chunk[REPLACEMENT]++;
+		}
+		addInto(histogram.counts, chunk);
+		return histogram;
+	}
+
+	public static CharHistogram parallelOf(CharSequence text)
+	{
+		int length = text.length();
+		return parallel(length, (from, to) -> countChunk(text, from, to));
+	}
+
+	public static CharHistogram parallelOf(char[] chars)
+	{
+		return parallel(chars.length, (from, to) -> countChunk(chars, from, to));
+	}
+
+	public static CharHistogram parallelOfUtf8(byte[] bytes)
+	{
+		return parallel(bytes.length, (from, to) -> {
+			// move both ends forward past continuation bytes so no chunk starts mid-character
+			int start = characterStart(bytes, from);
+			int end = characterStart(bytes, to);
+			int[] chunk = new int[CHARS];
+			if (decodeUtf8(bytes, start, end, chunk) < end)
+			{
+				chunk[REPLACEMENT]++;
+			}
+			return chunk;
+		});
+	}
+
+	@FunctionalInterface
+	private interface ChunkCounter
+	{
+		int[] count(int from, int to);
+	}
+
+	private static CharHistogram parallel(int length, ChunkCounter counter)
+	{
+		int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, length / MIN_CHUNK));
+		long chunkSize = ((long) length + chunks - 1) / chunks;
+		long[] counts = IntStream.range(0, chunks)
+				.parallel()
+				.mapToObj(chunk -> counter.count((int) Math.min(length, chunk * chunkSize),
+						(int) Math.min(length, (chunk + 1) * chunkSize)))
+				.collect(() -> new long[CHARS], CharHistogram::addInto, CharHistogram::addInto);
+		return new CharHistogram(counts);
+	}
+
+	private static void addInto(long[] target, int[] chunk)
+	{
+		for (int c = 0; c < CHARS; c++)
+		{
+			target[c] += chunk[c];
+		}
+	}
+
+	private static void addInto(long[] target, long[] other)
+	{
+		for (int c = 0; c < CHARS; c++)
+		{
+			target[c] += other[c];
+		}
+	}
+
+	// ---------------------------------------------------------------- accumulation
+
+	public CharHistogram add(CharSequence text, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			counts[text.charAt(i)]++;
+		}
+		return this;
+	}
+
+	public CharHistogram add(char[] chars, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			counts[chars[i]]++;
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the counts of other to this histogram
+	 */
+	public CharHistogram merge(CharHistogram other)
+	{
+		addInto(counts, other.counts);
+		return this;
+	}
+
+	// ---------------------------------------------------------------- queries
+
+	public long count(char c)
+	{
+		return counts[c];
+	}
+
+	public long total()
+	{
+		long total = 0;
+		for (long count : counts)
+		{
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Number of different characters seen
+	 */
+	public int distinct()
+	{
+		int distinct = 0;
+		for (long count : counts)
+		{
+			if (count != 0)
+			{
+				distinct++;
+			}
+		}
+		return distinct;
+	}
+
+	/**
+	 * Copy of the counts, indexed by char value
+	 */
+	public long[] toArray()
+	{
+		return counts.clone();
+	}
+
+	/**
+	 * The same map CountingCharacters builds with groupingBy(..., counting())
+	 */
+	public Map<Character, Long> toMap()
+	{
+		Map<Character, Long> map = new HashMap<>();
+		for (int c = 0; c < CHARS; c++)
+		{
+			if (counts[c] != 0)
+			{
+				map.put((char) c, counts[c]);
+			}
+		}
+		return map;
+	}
+
+	@Override
+	public String toString()
+	{
+		return toMap().toString();
+	}
+
+	// ---------------------------------------------------------------- chunk kernels
+
+	private static int[] countChunk(CharSequence text, int from, int to)
+	{
+		int[] chunk = new int[CHARS];
+		for (int i = from; i < to; i++)
+		{
+			chunk[text.charAt(i)]++;
+		}
+		return chunk;
+	}
+
+	private static int[] countChunk(char[] chars, int from, int to)
+	{
+		int[] chunk = new int[CHARS];
+		for (int i = from; i < to; i++)
+		{
+			chunk[chars[i]]++;
+		}
+		return chunk;
+	}
+
+	private static int characterStart(byte[] bytes, int index)
+	{
+		for (int i = 0; i < 3 && index < bytes.length && (bytes[index] & 0xC0) == 0x80; i++)
+		{
+			index++;
+		}
+		return index;
+	}
+
+	/**
+	 * Counts the chars of bytes[from, to) into histogram and returns the index after
+	 * the last complete character
+	 */
+	private static int decodeUtf8(byte[] bytes, int from, int to, int[] histogram)
+	{
+		int[] ascii = new int[4 * 128];
+		int end = decodeUtf8(bytes, from, to, histogram, ascii);
+		for (int c = 0; c < 128; c++)
+		{
+			histogram[c] += ascii[c] + ascii[128 + c] + ascii[256 + c] + ascii[384 + c];
+		}
+		return end;
+	}
+
+	private static int decodeUtf8(byte[] bytes, int from, int to, int[] histogram, int[] ascii)
+	{
+		ByteBuffer words = ByteBuffer.wrap(bytes);
+		int i = from;
+		while (i < to)
+		{
+			// ASCII fast path: find the run of bytes without the high bit, 8 at a time
+			int run = i;
+			while (run + 8 <= to && (words.getLong(run) & HIGH_BITS) == 0)
+			{
+				run += 8;
+			}
+			while (run < to && bytes[run] >= 0)
+			{
+				run++;
+			}
+			if (run > i)
+			{
+				countAscii(bytes, i, run, ascii);
+				i = run;
+				if (i == to)
+				{
+					break;
+				}
+			}
+
+			int b = bytes[i] & 0xFF;
+			int length = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+			if (length == 1 || b > 0xF4)
+			{
+				// stray continuation byte or invalid lead byte
+				histogram[REPLACEMENT]++;
+				i++;
+				continue;
+			}
+			if (i + length > to)
+			{
+				// only continuation bytes can follow: incomplete if they do, malformed otherwise
+				int j = i + 1;
+				while (j < to && (bytes[j] & 0xC0) == 0x80)
+				{
+					j++;
+				}
+				if (j == to)
+				{
+					return i;
+				}
+				histogram[REPLACEMENT]++;
+				i = j;
+				continue;
+			}
+			int codePoint = b & (0xFF >> (length + 1));
+			int j = i + 1;
+			for (; j < i + length && (bytes[j] & 0xC0) == 0x80; j++)
+			{
+				codePoint = (codePoint << 6) | (bytes[j] & 0x3F);
+			}
+			if (j < i + length || codePoint < MIN_CODE_POINT[length]
+					|| Character.isSurrogate((char) codePoint) && codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT)
+			{
+				// truncated, overlong or encoded surrogate
+				histogram[REPLACEMENT]++;
+				i = j;
+				continue;
+			}
+			if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT)
+			{
+				histogram[codePoint]++;
+			}
+			else if (codePoint <= Character.MAX_CODE_POINT)
+			{
+				histogram[Character.highSurrogate(codePoint)]++;
+				histogram[Character.lowSurrogate(codePoint)]++;
+			}
+			else
+			{
+				histogram[REPLACEMENT]++;
+			}
+			i = j;
+		}
+		return to;
+	}
+
+	/**
+	 * Counts ASCII bytes into 4 interleaved 128-entry tables, so runs of the same
+	 * character update 4 different counters instead of one
+	 */
+	private static void countAscii(byte[] bytes, int from, int to, int[] tables)
+	{
+		int i = from;
+		for (; i + 4 <= to; i += 4)
+		{
+			tables[bytes[i]]++;
+			tables[128 + bytes[i + 1]]++;
+			tables[256 + bytes[i + 2]]++;
+			tables[384 + bytes[i + 3]]++;
+		}
+		for (; i < to; i++)
+		{
+			tables[bytes[i]]++;
+		}
+	}
+}
@@ -8,6 +8,8 @@ import java.util.stream.Collectors;
  * Counting Characters in a String
  * This program counts the occurrences of each character in a given string
  * and prints the result in a map.
+ *
+ * For large inputs (or UTF-8 files) use CharHistogram, which counts without boxing.
  */
 
 public class CountingCharacters
@@ -28,6 +30,11 @@ public class CountingCharacters
 
 		System.out.println(characterLongMap);	
 		System.out.println(characterLongMap2);	
+
+		//Without boxing: one long[65536] counter array instead of a Character -> Long map (see CharHistogram)
+		CharHistogram histogram = CharHistogram.of(input);
+		System.out.println(histogram);
+		System.out.println("'o' occurs " + histogram.count('o') + " times, " + histogram.distinct() + " distinct characters");
 	}
 }
 
@@ -0,0 +1,211 @@
+package java8.programs;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Order-preserving Distinct Characters backed by a Bitset
+ *
+ * _04_RemoveDuplicateCharacter keeps the first occurrence of every character
+ * with distinct() over boxed values and joins one String per character: every
+ * distinct() stage is a HashSet of Integer or String. Here "seen" is a long[1024]
+ * bitset over the BMP (8 KB for all 65536 chars), and first occurrences are
+ * appended straight to a StringBuilder sized for the worst case.
+ *
+ * - Characters are code points: a surrogate pair is kept or dropped as a whole
+ *   (String.chars().distinct() would dedupe the two halves separately and can
+ *   leave a broken pair). Supplementary code points, which are rare, go to a
+ *   java.util.BitSet created on first use
+ * - parallelOf() deduplicates chunks independently (never splitting a surrogate
+ *   pair) and merges them left to right: the left result stays as is and the
+ *   right one contributes only characters the left has not seen, in its own
+ *   first-seen order. Every chunk result has at most one entry per distinct
+ *   character, so merging is cheap however long the text is
+ *
+ * Usage:
+ *   String letters = DistinctCharacters.of("hello world").toString();   // "helo wrd"
+ *   String merged = new DistinctCharacters().add("hello").add("world").toString();
+ */
+public final class DistinctCharacters
+{
+	private static final int BMP_CHARS = 1 << 16;
+
+	/** Texts shorter than this are deduplicated sequentially by parallelOf() */
+	private static final int MIN_CHUNK = 1 << 16;
+
+	private final long[] bmp = new long[BMP_CHARS >>> 6];
+	private BitSet supplementary;
+	private final StringBuilder out;
+
+	/**
+	 * Positions in out of unpaired surrogates, so merge() does not read a lone high
+	 * surrogate followed by a lone low one as a pair; created on first use
+	 */
+	private BitSet loneSurrogates;
+
+	public DistinctCharacters()
+	{
+		this(16);
+	}
+
+	/**
+	 * @param capacity initial capacity of the result builder
+	 */
+	public DistinctCharacters(int capacity)
+	{
+		this.out = new StringBuilder(capacity);
+	}
+
+	public static DistinctCharacters of(CharSequence text)
+	{
+		return new DistinctCharacters(capacityFor(text.length())).add(text, 0, text.length());
+	}
+
+	public static DistinctCharacters parallelOf(CharSequence text)
+	{
+		int length = text.length();
+		int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, length / MIN_CHUNK));
+		long chunkSize = ((long) length + chunks - 1) / chunks;
+		// an ordered stream combines the chunk results in encounter order
+		return IntStream.range(0, chunks)
+				.parallel()
+				.collect(() -> new DistinctCharacters(capacityFor(length)),
+						(distinct, chunk) -> distinct.add(text,
+								boundary(text, (int) Math.min(length, chunk * chunkSize)),
+								boundary(text, (int) Math.min(length, (chunk + 1) * chunkSize))),
+						DistinctCharacters::merge);
+	}
+
+	/**
+	 * A result holds at most one char per BMP character, two per supplementary one
+	 */
+	private static int capacityFor(int length)
+	{
+		return Math.min(length, BMP_CHARS);
+	}
+
+	/**
+	 * Moves a chunk boundary that falls inside a surrogate pair to after the pair
+	 */
+	private static int boundary(CharSequence text, int index)
+	{
+		if (index > 0 && index < text.length()
+				&& Character.isHighSurrogate(text.charAt(index - 1)) && Character.isLowSurrogate(text.charAt(index)))
+		{
+			return index + 1;
+		}
+		return index;
+	}
+
+	public DistinctCharacters add(CharSequence text)
+	{
+		return add(text, 0, text.length());
+	}
+
+	/**
+	 * Appends the characters of text[from, to) not seen before, in order
+	 */
+	public DistinctCharacters add(CharSequence text, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			char c = text.charAt(i);
+			if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1)))
+			{
+				addSupplementary(Character.toCodePoint(c, text.charAt(++i)));
+			}
+			else
+			{
+				addBmp(c);
+			}
+		}
+		return this;
+	}
+
+	private void addBmp(char c)
+	{
+		long mask = 1L << c;
+		int word = c >>> 6;
+		if ((bmp[word] & mask) == 0)
+		{
+			bmp[word] |= mask;
+			if (Character.isSurrogate(c))
+			{
+				if (loneSurrogates == null)
+				{
+					loneSurrogates = new BitSet();
+				}
+				loneSurrogates.set(out.length());
+			}
+			out.append(c);
+		}
+	}
+
+	private void addSupplementary(int codePoint)
+	{
+		if (supplementary == null)
+		{
+			supplementary = new BitSet();
+		}
+		int bit = codePoint - Character.MIN_SUPPLEMENTARY_CODE_POINT;
+		if (!supplementary.get(bit))
+		{
+			supplementary.set(bit);
+			out.appendCodePoint(codePoint);
+		}
+	}
+
+	/**
+	 * Appends the characters of later (a result for text that follows this one)
+	 * that this has not seen, keeping later's first-seen order
+	 */
+	public DistinctCharacters merge(DistinctCharacters later)
+	{
+		StringBuilder text = later.out;
+		for (int i = 0; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			if (Character.isHighSurrogate(c) && (later.loneSurrogates == null || !later.loneSurrogates.get(i)))
+			{
+				addSupplementary(Character.toCodePoint(c, text.charAt(++i)));
+			}
+			else
+			{
+				addBmp(c);
+			}
+		}
+		return this;
+	}
+
+	public boolean contains(int codePoint)
+	{
+		if (codePoint < BMP_CHARS)
+		{
+			return (bmp[codePoint >>> 6] & (1L << codePoint)) != 0;
+		}
+		return supplementary != null && supplementary.get(codePoint - Character.MIN_SUPPLEMENTARY_CODE_POINT);
+	}
+
+	/**
+	 * Number of distinct code points
+	 */
+	public int count()
+	{
+		int count = 0;
+		for (long word : bmp)
+		{
+			count += Long.bitCount(word);
+		}
+		return supplementary == null ? count : count + supplementary.cardinality();
+	}
+
+	/**
+	 * The first occurrences, in order
+	 */
+	@Override
+	public String toString()
+	{
+		return out.toString();
+	}
+}
@@ -0,0 +1,398 @@
+package java8.programs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+
+/**
+ * Bounded-memory Duplicate Detection
+ *
+ * _02_FindingDuplicates counts every key with groupingBy(counting()) and then
+ * keeps count > 1, so the map holds every distinct key even if almost all of
+ * them occur once. For billions of tokens this finder reads the input twice:
+ *
+ * 1. Filter pass: every token goes into a "seen" Bloom filter; a token whose bits
+ *    were all set already goes into a second "candidates" Bloom filter. Memory is
+ *    fixed by expectedDistinct and falsePositiveRate, not by the input
+ * 2. Exact pass: only tokens in the candidates filter are counted, and keys with
+ *    count > 1 are returned. Bloom false positives are counted once and dropped,
+ *    so the result is exact; no duplicate is ever missed
+ *
+ * findPartitioned() replaces the single count map of pass 2 with hash partitions:
+ * candidate tokens are buffered per partition and a partition is spilled to a
+ * file once its share of memoryBudgetBytes is used up. The partitions are then
+ * counted in parallel, one map per partition at a time per worker.
+ *
+ * Both passes run as parallel streams, so source must be able to produce the
+ * same tokens twice, e.g. () -> Files.lines(log).flatMap(WORDS::splitAsStream).
+ * The result has the shape of approach 1 of _02_FindingDuplicates: one
+ * Map.Entry(key, count) per duplicate key.
+ */
+public final class DuplicateFinder
+{
+	/** Locks serializing Bloom filter inserts of equal tokens (see BloomFilter.add) */
+	private static final int LOCK_STRIPES = 1024;
+
+	/** Rough heap cost of a buffered token: String + char[] headers, reference, chars */
+	private static final int TOKEN_OVERHEAD = 56;
+
+	private final long expectedDistinct;
+	private final double falsePositiveRate;
+
+	/**
+	 * @param expectedDistinct  upper estimate of the number of distinct tokens
+	 * @param falsePositiveRate Bloom filter false-positive rate, e.g. 0.01; lower
+	 *                          rates cost memory, higher rates let more unique
+	 *                          tokens into the exact pass
+	 */
+	public DuplicateFinder(long expectedDistinct, double falsePositiveRate)
+	{
+		if (expectedDistinct <= 0)
+		{
+			throw new IllegalArgumentException("expectedDistinct must be positive, was " + expectedDistinct);
+		}
+		if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+		{
+			throw new IllegalArgumentException("falsePositiveRate must be in (0, 1), was " + falsePositiveRate);
+		}
+		this.expectedDistinct = expectedDistinct;
+		this.falsePositiveRate = falsePositiveRate;
+	}
+
+	/**
+	 * Duplicate tokens with their counts; the exact pass keeps the counts of
+	 * candidate tokens in memory
+	 */
+	public List<Map.Entry<String, Long>> find(Supplier<? extends Stream<String>> source)
+	{
+		BloomFilter candidates = candidates(source);
+		try (Stream<String> tokens = source.get())
+		{
+			ConcurrentMap<String, Long> counts = tokens.parallel()
+					.filter(candidates::mightContain)
+					.collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
+			return duplicates(counts);
+		}
+	}
+
+	/**
+	 * Duplicate tokens with their counts; the exact pass buffers candidate tokens
+	 * in hash partitions, spilling a partition to spillDirectory when its share of
+	 * memoryBudgetBytes is exceeded. Spill files are deleted before returning.
+	 *
+	 * Choose partitions so that the distinct candidates of one partition fit in
+	 * memoryBudgetBytes / parallelism.
+	 */
+	public List<Map.Entry<String, Long>> findPartitioned(Supplier<? extends Stream<String>> source, int partitions,
+			long memoryBudgetBytes, Path spillDirectory) throws IOException
+	{
+		if (partitions <= 0)
+		{
+			throw new IllegalArgumentException("partitions must be positive, was " + partitions);
+		}
+		BloomFilter candidates = candidates(source);
+		Path directory = Files.createTempDirectory(spillDirectory, "duplicates");
+		Partition[] buckets = new Partition[partitions];
+		for (int p = 0; p < partitions; p++)
+		{
+			buckets[p] = new Partition(directory.resolve("partition-" + p), memoryBudgetBytes / partitions);
+		}
+		try
+		{
+			try (Stream<String> tokens = source.get())
+			{
+				tokens.parallel()
+						.filter(candidates::mightContain)
+						.forEach(token -> buckets[Math.floorMod(token.hashCode(), partitions)].add(token));
+			}
+			return IntStream.range(0, partitions)
+					.parallel()
+					.mapToObj(p -> buckets[p].duplicates())
+					.flatMap(List::stream)
+					.collect(Collectors.toList());
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+		finally
+		{
+			for (Partition bucket : buckets)
+			{
+				bucket.delete();
+			}
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	/**
+	 * Pass 1: tokens seen at least twice, with Bloom false positives
+	 */
+	private BloomFilter candidates(Supplier<? extends Stream<String>> source)
+	{
+		BloomFilter seen = new BloomFilter(expectedDistinct, falsePositiveRate);
+		BloomFilter candidates = new BloomFilter(expectedDistinct, falsePositiveRate);
+		try (Stream<String> tokens = source.get())
+		{
+			tokens.parallel().forEach(token -> {
+				if (!seen.add(token))
+				{
+					candidates.add(token);
+				}
+			});
+		}
+		return candidates;
+	}
+
+	private static List<Map.Entry<String, Long>> duplicates(Map<String, Long> counts)
+	{
+		List<Map.Entry<String, Long>> duplicates = new ArrayList<>();
+		for (Map.Entry<String, Long> entry : counts.entrySet())
+		{
+			if (entry.getValue() > 1)
+			{
+				duplicates.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+			}
+		}
+		return duplicates;
+	}
+
+	/**
+	 * Bit-array Bloom filter with double hashing over a 64-bit token hash.
+	 * Bits are set with atomic ORs, so concurrent adds of different tokens are
+	 * safe; adds of equal tokens are serialized by a lock stripe, otherwise two
+	 * threads could each set some of the bits and both report the token as new.
+	 */
+	static final class BloomFilter
+	{
+		private final AtomicLongArray words;
+		private final long bits;
+		private final int hashes;
+		private final Object[] locks = new Object[LOCK_STRIPES];
+
+		BloomFilter(long expectedDistinct, double falsePositiveRate)
+		{
+			// m = -n ln p / (ln 2)^2, k = m / n ln 2
+			long optimalBits = (long) Math.ceil(-expectedDistinct * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+			long wordCount = Math.max(1, (optimalBits + 63) >>> 6);
+			if (wordCount > Integer.MAX_VALUE)
+			{
+				throw new IllegalArgumentException("Bloom filter for " + expectedDistinct + " keys at " + falsePositiveRate
+						+ " would need " + optimalBits + " bits");
+			}
+			this.words = new AtomicLongArray((int) wordCount);
+			this.bits = wordCount << 6;
+			this.hashes = (int) Math.max(1, Math.round((double) bits / expectedDistinct * Math.log(2)));
+			for (int i = 0; i < locks.length; i++)
+			{
+				locks[i] = new Object();
+			}
+		}
+
+		/**
+		 * Sets the token's bits; true if at least one was clear, i.e. the token is
+		 * definitely new
+		 */
+		boolean add(String token)
+		{
+			long hash = hash(token);
+			synchronized (locks[(int) (hash >>> 54) & (LOCK_STRIPES - 1)])
+			{
+				boolean changed = false;
+				long h1 = hash;
+				long h2 = (hash >>> 32) | 1;
+				for (int i = 0; i < hashes; i++)
+				{
+					long bit = Math.floorMod(h1 + i * h2, bits);
+					int index = (int) (bit >>> 6);
+					long mask = 1L << bit;
+					long word = words.get(index);
+					while ((word & mask) == 0)
+					{
+						if (words.compareAndSet(index, word, word | mask))
+						{
+							changed = true;
+							break;
+						}
+						word = words.get(index);
+					}
+				}
+				return changed;
+			}
+		}
+
+		boolean mightContain(String token)
+		{
+			long hash = hash(token);
+			long h1 = hash;
+			long h2 = (hash >>> 32) | 1;
+			for (int i = 0; i < hashes; i++)
+			{
+				long bit = Math.floorMod(h1 + i * h2, bits);
+				if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * FNV-1a over the chars followed by the MurmurHash3 finalizer
+		 */
+		static long hash(String token)
+		{
+			long h = 0xcbf29ce484222325L;
+			for (int i = 0; i < token.length(); i++)
+			{
+				h = (h ^ token.charAt(i)) * 0x100000001b3L;
+			}
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb9fe1a85ec53L;
+			h ^= h >>> 33;
+			return h;
+		}
+	}
+
+	/**
+	 * Candidate tokens of one hash partition: buffered in memory and appended to
+	 * a spill file (length-prefixed UTF-8) whenever the buffer exceeds its budget
+	 */
+	static final class Partition
+	{
+		private final Path file;
+		private final long budgetBytes;
+		/** Serializes writers of the spill file; taken without the buffer lock held */
+		private final Object fileLock = new Object();
+		private List<String> buffer = new ArrayList<>();
+		private long bufferedBytes;
+		private boolean spilled;
+
+		Partition(Path file, long budgetBytes)
+		{
+			this.file = file;
+			this.budgetBytes = budgetBytes;
+		}
+
+		void add(String token)
+		{
+			List<String> full;
+			synchronized (this)
+			{
+				buffer.add(token);
+				bufferedBytes += TOKEN_OVERHEAD + 2L * token.length();
+				if (bufferedBytes <= budgetBytes)
+				{
+					return;
+				}
+				full = buffer;
+				buffer = new ArrayList<>();
+				bufferedBytes = 0;
+			}
+			// other threads keep filling the new buffer while this one writes
+			spill(full);
+		}
+
+		private void spill(List<String> tokens)
+		{
+			synchronized (fileLock)
+			{
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+						Files.newOutputStream(file, spilled ? APPEND : CREATE_NEW))))
+				{
+					for (String token : tokens)
+					{
+						byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+						out.writeInt(bytes.length);
+						out.write(bytes);
+					}
+				}
+				catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+				spilled = true;
+			}
+		}
+
+		/**
+		 * Exact counts of the spilled and buffered tokens, keeping count > 1
+		 */
+		List<Map.Entry<String, Long>> duplicates()
+		{
+			// the file lock first, so a spill still being written is read in full
+			synchronized (fileLock)
+			{
+				synchronized (this)
+				{
+					return countDuplicates();
+				}
+			}
+		}
+
+		private List<Map.Entry<String, Long>> countDuplicates()
+		{
+			Map<String, Long> counts = new HashMap<>();
+			if (spilled)
+			{
+				try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+				{
+					while (true)
+					{
+						int length;
+						try
+						{
+							length = in.readInt();
+						}
+						catch (EOFException end)
+						{
+							break;
+						}
+						byte[] bytes = new byte[length];
+						in.readFully(bytes);
+						counts.merge(new String(bytes, StandardCharsets.UTF_8), 1L, Long::sum);
+					}
+				}
+				catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+			}
+			for (String token : buffer)
+			{
+				counts.merge(token, 1L, Long::sum);
+			}
+			buffer = new ArrayList<>();
+			return DuplicateFinder.duplicates(counts);
+		}
+
+		void delete() throws IOException
+		{
+			Files.deleteIfExists(file);
+		}
+	}
+}
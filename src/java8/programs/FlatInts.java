@@ -0,0 +1,283 @@
+package java8.programs;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Allocation-free Flattening of Nested Primitive Data
+ *
+ * _08_StreamFlatMapExamples flattens with flatMap(List::stream),
+ * flatMapToInt(Arrays::stream) and flatMap(s -> s.chars().mapToObj(...)): every
+ * row creates a Stream pipeline (spliterator, head and sink objects), and the
+ * List/Character versions box every value. FlatInts builds one IntStream over
+ * all rows instead, whose spliterator pushes the primitives of each row straight
+ * to the downstream consumer:
+ *
+ * - of(int[][]), of(List<int[]>): the ints of every row, in order
+ * - chars(List<? extends CharSequence>): the chars of every string, like
+ *   flatMapToInt(String::chars)
+ *
+ * The spliterator works on flat element positions: row starts are prefix sums
+ * computed once per stream (one long per row, the only allocation that grows
+ * with the input), so the stream is SIZED and trySplit() halves the remaining
+ * elements, cutting inside a row if needed. Parallel streams get balanced
+ * chunks even when a few rows hold most of the data, which a split by rows
+ * cannot do.
+ *
+ * Rows are not copied: they must not change while the stream runs.
+ *
+ * Usage:
+ *   int total = FlatInts.of(matrix).parallel().sum();
+ *   long vowels = FlatInts.chars(words).filter(c -> "aeiou".indexOf(c) >= 0).count();
+ */
+public final class FlatInts
+{
+	/** Elements below which a spliterator does not split */
+	private static final int MIN_SPLIT = 1 << 10;
+
+	private FlatInts()
+	{
+	}
+
+	public static IntStream of(int[][] rows)
+	{
+		return StreamSupport.intStream(new IntArrays(rows), false);
+	}
+
+	/**
+	 * The row references are copied to an array, so any List splits by position
+	 */
+	public static IntStream of(List<int[]> rows)
+	{
+		return of(rows.toArray(new int[rows.size()][]));
+	}
+
+	public static IntStream chars(List<? extends CharSequence> rows)
+	{
+		return StreamSupport.intStream(new Chars(rows.toArray(new CharSequence[rows.size()])), false);
+	}
+
+	/**
+	 * Flat positions [position, end) over rows whose starts are in offsets;
+	 * subclasses push one row range at a time
+	 */
+	abstract static class RowSpliterator implements Spliterator.OfInt
+	{
+		/** offsets[r] is the flat position of the first element of row r; offsets[rows] is the total */
+		final long[] offsets;
+		long position;
+		final long end;
+
+		/** Row holding position, kept in step as position advances */
+		int row;
+
+		RowSpliterator(long[] offsets, long position, long end)
+		{
+			this.offsets = offsets;
+			this.position = position;
+			this.end = end;
+			this.row = rowOf(offsets, position);
+		}
+
+		abstract void push(int row, int from, int to, IntConsumer action);
+
+		abstract int get(int row, int index);
+
+		abstract RowSpliterator slice(long from, long to);
+
+		@Override
+		public boolean tryAdvance(IntConsumer action)
+		{
+			if (position >= end)
+			{
+				return false;
+			}
+			while (position >= offsets[row + 1])
+			{
+				row++;
+			}
+			action.accept(get(row, (int) (position - offsets[row])));
+			position++;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action)
+		{
+			long p = position;
+			int r = row;
+			long e = end;
+			position = e;
+			while (p < e)
+			{
+				long rowEnd = offsets[r + 1];
+				if (p < rowEnd)
+				{
+					long to = Math.min(rowEnd, e);
+					push(r, (int) (p - offsets[r]), (int) (to - offsets[r]), action);
+					p = to;
+				}
+				else
+				{
+					r++;
+				}
+			}
+			row = r;
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit()
+		{
+			long remaining = end - position;
+			if (remaining < 2 * MIN_SPLIT)
+			{
+				return null;
+			}
+			long mid = position + remaining / 2;
+			RowSpliterator prefix = slice(position, mid);
+			position = mid;
+			row = rowOf(offsets, mid);
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			return end - position;
+		}
+
+		@Override
+		public int characteristics()
+		{
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+
+		/**
+		 * Last row starting at or before position, skipping empty rows
+		 */
+		static int rowOf(long[] offsets, long position)
+		{
+			int found = Arrays.binarySearch(offsets, 0, offsets.length - 1, position);
+			if (found < 0)
+			{
+				return -found - 2;
+			}
+			// several empty rows share a start: take the last one, which holds the element
+			while (found + 1 < offsets.length - 1 && offsets[found + 1] == position)
+			{
+				found++;
+			}
+			return found;
+		}
+	}
+
+	static final class IntArrays extends RowSpliterator
+	{
+		private final int[][] rows;
+
+		IntArrays(int[][] rows)
+		{
+			this(rows, offsets(rows), 0);
+		}
+
+		private IntArrays(int[][] rows, long[] offsets, long position)
+		{
+			this(rows, offsets, position, offsets[rows.length]);
+		}
+
+		private IntArrays(int[][] rows, long[] offsets, long position, long end)
+		{
+			super(offsets, position, end);
+			this.rows = rows;
+		}
+
+		private static long[] offsets(int[][] rows)
+		{
+			long[] offsets = new long[rows.length + 1];
+			for (int r = 0; r < rows.length; r++)
+			{
+				offsets[r + 1] = offsets[r] + rows[r].length;
+			}
+			return offsets;
+		}
+
+		@Override
+		void push(int row, int from, int to, IntConsumer action)
+		{
+			int[] values = rows[row];
+			for (int i = from; i < to; i++)
+			{
+				action.accept(values[i]);
+			}
+		}
+
+		@Override
+		int get(int row, int index)
+		{
+			return rows[row][index];
+		}
+
+		@Override
+		RowSpliterator slice(long from, long to)
+		{
+			return new IntArrays(rows, offsets, from, to);
+		}
+	}
+
+	static final class Chars extends RowSpliterator
+	{
+		private final CharSequence[] rows;
+
+		Chars(CharSequence[] rows)
+		{
+			this(rows, offsets(rows), 0);
+		}
+
+		private Chars(CharSequence[] rows, long[] offsets, long position)
+		{
+			this(rows, offsets, position, offsets[rows.length]);
+		}
+
+		private Chars(CharSequence[] rows, long[] offsets, long position, long end)
+		{
+			super(offsets, position, end);
+			this.rows = rows;
+		}
+
+		private static long[] offsets(CharSequence[] rows)
+		{
+			long[] offsets = new long[rows.length + 1];
+			for (int r = 0; r < rows.length; r++)
+			{
+				offsets[r + 1] = offsets[r] + rows[r].length();
+			}
+			return offsets;
+		}
+
+		@Override
+		void push(int row, int from, int to, IntConsumer action)
+		{
+			CharSequence text = rows[row];
+			for (int i = from; i < to; i++)
+			{
+				action.accept(text.charAt(i));
+			}
+		}
+
+		@Override
+		int get(int row, int index)
+		{
+			return rows[row].charAt(index);
+		}
+
+		@Override
+		RowSpliterator slice(long from, long to)
+		{
+			return new Chars(rows, offsets, from, to);
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package java8.programs;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Cancellable Short-circuit Search on the Fork/Join Pool
+ *
+ * A parallel stream's findFirst() only knows a match is final when every chunk to
+ * its left has finished, and chunks to the right of a match keep evaluating the
+ * predicate until they notice the stream is done. With an expensive predicate
+ * that is wasted CPU and latency. Here all subtasks share one AtomicInteger,
+ * the best (lowest) matching index found so far:
+ *
+ * - A match lowers it with a CAS loop (ordered search) or sets it once (any match)
+ * - A subtask whose range starts at or beyond it returns without running, and a
+ *   running leaf checks it before every element, so work to the right of a match
+ *   stops right away
+ * - Subtasks fork their right half and continue with the left half, so the
+ *   lowest indices are searched first on the calling thread
+ *
+ * indexOfFirst() is exact: it returns the lowest matching index, like
+ * filter().findFirst() on an ordered stream.
+ *
+ * Usage:
+ *   Optional<Order> first = ParallelSearch.findFirst(orders, o -> isFraudulent(o));
+ *   boolean any = ParallelSearch.anyMatch(orders, o -> isFraudulent(o));
+ */
+public final class ParallelSearch
+{
+	/** Leaves per worker thread: small enough to balance expensive predicates */
+	private static final int LEAVES_PER_THREAD = 16;
+
+	private ParallelSearch()
+	{
+	}
+
+	// ---------------------------------------------------------------- index ranges
+
+	/**
+	 * Lowest index in [from, to) that matches, or -1
+	 */
+	public static int indexOfFirst(int from, int to, IntPredicate matcher)
+	{
+		return indexOfFirst(from, to, matcher, ForkJoinPool.commonPool());
+	}
+
+	public static int indexOfFirst(int from, int to, IntPredicate matcher, ForkJoinPool pool)
+	{
+		return search(from, to, matcher, true, pool);
+	}
+
+	/**
+	 * Some index in [from, to) that matches, or -1; stops at the first match found
+	 * by any thread
+	 */
+	public static int indexOfAny(int from, int to, IntPredicate matcher)
+	{
+		return indexOfAny(from, to, matcher, ForkJoinPool.commonPool());
+	}
+
+	public static int indexOfAny(int from, int to, IntPredicate matcher, ForkJoinPool pool)
+	{
+		return search(from, to, matcher, false, pool);
+	}
+
+	// ---------------------------------------------------------------- lists
+
+	public static <T> Optional<T> findFirst(List<T> list, Predicate<? super T> predicate)
+	{
+		int index = indexOfFirst(0, list.size(), i -> predicate.test(list.get(i)));
+		return index < 0 ? Optional.empty() : Optional.of(list.get(index));
+	}
+
+	public static <T> Optional<T> findAny(List<T> list, Predicate<? super T> predicate)
+	{
+		int index = indexOfAny(0, list.size(), i -> predicate.test(list.get(i)));
+		return index < 0 ? Optional.empty() : Optional.of(list.get(index));
+	}
+
+	public static <T> boolean anyMatch(List<T> list, Predicate<? super T> predicate)
+	{
+		return indexOfAny(0, list.size(), i -> predicate.test(list.get(i))) >= 0;
+	}
+
+	/**
+	 * Stops at the first element that does not match
+	 */
+	public static <T> boolean allMatch(List<T> list, Predicate<? super T> predicate)
+	{
+		return indexOfAny(0, list.size(), i -> !predicate.test(list.get(i))) < 0;
+	}
+
+	public static <T> boolean noneMatch(List<T> list, Predicate<? super T> predicate)
+	{
+		return !anyMatch(list, predicate);
+	}
+
+	// ---------------------------------------------------------------- implementation
+
+	private static int search(int from, int to, IntPredicate matcher, boolean ordered, ForkJoinPool pool)
+	{
+		if (from > to)
+		{
+			throw new IllegalArgumentException("from " + from + " > to " + to);
+		}
+		if (from == to)
+		{
+			return -1;
+		}
+		AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+		int leaf = Math.max(1, (to - from) / (pool.getParallelism() * LEAVES_PER_THREAD));
+		pool.invoke(new SearchTask(from, to, leaf, matcher, ordered, best));
+		int index = best.get();
+		return index == Integer.MAX_VALUE ? -1 : index;
+	}
+
+	/**
+	 * Searches [lo, hi); gives up as soon as best is at or below lo
+	 */
+	static final class SearchTask extends RecursiveAction
+	{
+		final int lo;
+		final int hi;
+		final int leaf;
+		final IntPredicate matcher;
+		final boolean ordered;
+		final AtomicInteger best;
+
+		/** Next subtask forked by the same parent; the list runs from the most recent fork */
+		SearchTask next;
+
+		SearchTask(int lo, int hi, int leaf, IntPredicate matcher, boolean ordered, AtomicInteger best)
+		{
+			this.lo = lo;
+			this.hi = hi;
+			this.leaf = leaf;
+			this.matcher = matcher;
+			this.ordered = ordered;
+			this.best = best;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int l = lo;
+			int h = hi;
+			SearchTask forked = null;
+			while (h - l > leaf && l < best.get())
+			{
+				int mid = (l + h) >>> 1;
+				SearchTask right = new SearchTask(mid, h, leaf, matcher, ordered, best);
+				right.next = forked;
+				forked = right;
+				right.fork();
+				h = mid;
+			}
+			scan(l, h);
+			for (SearchTask task = forked; task != null; task = task.next)
+			{
+				if (task.lo >= best.get() && task.tryUnfork())
+				{
+					// a match to the left makes this range irrelevant: drop it unrun
+					continue;
+				}
+				task.join();
+			}
+		}
+
+		private void scan(int from, int to)
+		{
+			for (int i = from; i < to && i < best.get(); i++)
+			{
+				if (matcher.test(i))
+				{
+					if (ordered)
+					{
+						int current;
+						while (i < (current = best.get()) && !best.compareAndSet(current, i))
+						{
+							// retry: another leaf lowered best concurrently
+						}
+					}
+					else
+					{
+						best.compareAndSet(Integer.MAX_VALUE, i);
+					}
+					return;
+				}
+			}
+		}
+	}
+}
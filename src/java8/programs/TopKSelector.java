@@ -0,0 +1,429 @@
+package java8.programs;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Top-K and k-th Largest Selection without Boxing or Full Sorting
+ *
+ * _06_SecondHighestNumberinanArray boxes every int, sorts all n of them and skips
+ * one: O(n log n) time and n Integer objects to read a single value. This class
+ * answers the same questions in O(n):
+ *
+ * - topK(): bounded min-heap of size k per stream leaf, merged pairwise, so a
+ *   parallel stream keeps one small primitive heap per thread. O(n log k)
+ * - kthLargest(): the heap for small k, otherwise introselect on a copy
+ *   (quickselect with median-of-3 and 3-way partitioning, switching to
+ *   median-of-medians pivots if partitioning keeps going badly). O(n)
+ *
+ * IntStream/LongStream have no collect(Collector), so the heaps are exposed as
+ * supplier/accumulator/combiner triples:
+ *   int[] top = stream.collect(() -> new IntTopK(10), IntTopK::add, IntTopK::merge).toArray();
+ *
+ * Duplicates count separately, like sorted().skip(1) does: for {9, 9, 5} the
+ * second largest is 9.
+ */
+public final class TopKSelector
+{
+	/** Up to this k, kthLargest() uses the parallel heap instead of introselect */
+	private static final int HEAP_MAX_K = 1024;
+
+	/** Ranges this small are finished with Arrays.sort (insertion sort internally) */
+	private static final int SMALL_RANGE = 16;
+
+	private TopKSelector()
+	{
+	}
+
+	// ---------------------------------------------------------------- top-K
+
+	/**
+	 * The k largest values in descending order (fewer if the array is shorter)
+	 */
+	public static int[] topK(int[] array, int k)
+	{
+		return topK(Arrays.stream(array).parallel(), k);
+	}
+
+	public static int[] topK(IntStream stream, int k)
+	{
+		return stream.collect(() -> new IntTopK(k), IntTopK::add, IntTopK::merge).toArray();
+	}
+
+	public static long[] topK(long[] array, int k)
+	{
+		return topK(Arrays.stream(array).parallel(), k);
+	}
+
+	public static long[] topK(LongStream stream, int k)
+	{
+		return stream.collect(() -> new LongTopK(k), LongTopK::add, LongTopK::merge).toArray();
+	}
+
+	// ---------------------------------------------------------------- k-th
+
+	/**
+	 * The k-th largest value (k = 1 is the maximum); the array is not modified
+	 */
+	public static int kthLargest(int[] array, int k)
+	{
+		checkK(array.length, k);
+		if (k <= HEAP_MAX_K)
+		{
+			int[] top = topK(array, k);
+			return top[k - 1];
+		}
+		int[] copy = array.clone();
+		return select(copy, 0, copy.length, copy.length - k);
+	}
+
+	public static long kthLargest(long[] array, int k)
+	{
+		checkK(array.length, k);
+		if (k <= HEAP_MAX_K)
+		{
+			long[] top = topK(array, k);
+			return top[k - 1];
+		}
+		long[] copy = array.clone();
+		return select(copy, 0, copy.length, copy.length - k);
+	}
+
+	private static void checkK(int length, int k)
+	{
+		if (k < 1 || k > length)
+		{
+			throw new IllegalArgumentException("k must be in [1, " + length + "], was " + k);
+		}
+	}
+
+	/**
+	 * Introselect: rearranges a[lo, hi) so that a[target] holds the value it would
+	 * have after sorting, and returns it. After 2 log2(n) bad partitions (those
+	 * that keep more than 3/4 of the range), pivots come from medianOfMedians(),
+	 * which keeps at most about 7/10 of the range, so the worst case is O(n)
+	 */
+	static int select(int[] a, int lo, int hi, int target)
+	{
+		int badPartitionsLeft = 2 * (32 - Integer.numberOfLeadingZeros(hi - lo));
+		while (hi - lo > SMALL_RANGE)
+		{
+			int size = hi - lo;
+			int pivot = badPartitionsLeft < 0 ? medianOfMedians(a, lo, hi) : medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+
+			// 3-way partition: [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi) > pivot
+			int lt = lo;
+			int gt = hi - 1;
+			int i = lo;
+			while (i <= gt)
+			{
+				int v = a[i];
+				if (v < pivot)
+				{
+					a[i++] = a[lt];
+					a[lt++] = v;
+				}
+				else if (v > pivot)
+				{
+					a[i] = a[gt];
+					a[gt--] = v;
+				}
+				else
+				{
+					i++;
+				}
+			}
+
+			if (target < lt)
+			{
+				hi = lt;
+			}
+			else if (target > gt)
+			{
+				lo = gt + 1;
+			}
+			else
+			{
+				return pivot;
+			}
+
+			// a bad partition keeps more than 3/4 of the range
+			if (hi - lo > size - (size >> 2))
+			{
+				badPartitionsLeft--;
+			}
+		}
+		Arrays.sort(a, lo, hi);
+		return a[target];
+	}
+
+	static long select(long[] a, int lo, int hi, int target)
+	{
+		int badPartitionsLeft = 2 * (32 - Integer.numberOfLeadingZeros(hi - lo));
+		while (hi - lo > SMALL_RANGE)
+		{
+			int size = hi - lo;
+			long pivot = badPartitionsLeft < 0 ? medianOfMedians(a, lo, hi) : medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+
+			int lt = lo;
+			int gt = hi - 1;
+			int i = lo;
+			while (i <= gt)
+			{
+				long v = a[i];
+				if (v < pivot)
+				{
+					a[i++] = a[lt];
+					a[lt++] = v;
+				}
+				else if (v > pivot)
+				{
+					a[i] = a[gt];
+					a[gt--] = v;
+				}
+				else
+				{
+					i++;
+				}
+			}
+
+			if (target < lt)
+			{
+				hi = lt;
+			}
+			else if (target > gt)
+			{
+				lo = gt + 1;
+			}
+			else
+			{
+				return pivot;
+			}
+
+			// a bad partition keeps more than 3/4 of the range
+			if (hi - lo > size - (size >> 2))
+			{
+				badPartitionsLeft--;
+			}
+		}
+		Arrays.sort(a, lo, hi);
+		return a[target];
+	}
+
+	/**
+	 * Median of the medians of groups of 5: at least 3/10 of a[lo, hi) is on
+	 * either side of it. Moves the group medians to the front of the range
+	 */
+	private static int medianOfMedians(int[] a, int lo, int hi)
+	{
+		int medians = lo;
+		for (int group = lo, end; group < hi; group = end)
+		{
+			end = group + Math.min(5, hi - group);
+			Arrays.sort(a, group, end);
+			int median = (group + end - 1) >>> 1;
+			int v = a[median];
+			a[median] = a[medians];
+			a[medians++] = v;
+		}
+		return select(a, lo, medians, (lo + medians) >>> 1);
+	}
+
+	private static long medianOfMedians(long[] a, int lo, int hi)
+	{
+		int medians = lo;
+		for (int group = lo, end; group < hi; group = end)
+		{
+			end = group + Math.min(5, hi - group);
+			Arrays.sort(a, group, end);
+			int median = (group + end - 1) >>> 1;
+			long v = a[median];
+			a[median] = a[medians];
+			a[medians++] = v;
+		}
+		return select(a, lo, medians, (lo + medians) >>> 1);
+	}
+
+	private static int medianOfThree(int a, int b, int c)
+	{
+		return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+	}
+
+	private static long medianOfThree(long a, long b, long c)
+	{
+		return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+	}
+
+	// ---------------------------------------------------------------- heaps
+
+	/**
+	 * Keeps the k largest ints seen so far in a primitive min-heap; heap[0] is the
+	 * smallest of them, so most elements are rejected with a single comparison
+	 */
+	public static final class IntTopK
+	{
+		private final int[] heap;
+		private int size;
+
+		public IntTopK(int k)
+		{
+			if (k < 1)
+			{
+				throw new IllegalArgumentException("k must be positive, was " + k);
+			}
+			this.heap = new int[k];
+		}
+
+		public void add(int value)
+		{
+			if (size < heap.length)
+			{
+				int i = size++;
+				while (i > 0)
+				{
+					int parent = (i - 1) >>> 1;
+					if (heap[parent] <= value)
+					{
+						break;
+					}
+					heap[i] = heap[parent];
+					i = parent;
+				}
+				heap[i] = value;
+			}
+			else if (value > heap[0])
+			{
+				siftDown(value);
+			}
+		}
+
+		public void merge(IntTopK other)
+		{
+			for (int i = 0; i < other.size; i++)
+			{
+				add(other.heap[i]);
+			}
+		}
+
+		/**
+		 * Largest first
+		 */
+		public int[] toArray()
+		{
+			int[] result = Arrays.copyOf(heap, size);
+			Arrays.sort(result);
+			for (int i = 0, j = size - 1; i < j; i++, j--)
+			{
+				int t = result[i];
+				result[i] = result[j];
+				result[j] = t;
+			}
+			return result;
+		}
+
+		private void siftDown(int value)
+		{
+			int i = 0;
+			int half = size >>> 1;
+			while (i < half)
+			{
+				int child = 2 * i + 1;
+				if (child + 1 < size && heap[child + 1] < heap[child])
+				{
+					child++;
+				}
+				if (value <= heap[child])
+				{
+					break;
+				}
+				heap[i] = heap[child];
+				i = child;
+			}
+			heap[i] = value;
+		}
+	}
+
+	/**
+	 * long counterpart of IntTopK
+	 */
+	public static final class LongTopK
+	{
+		private final long[] heap;
+		private int size;
+
+		public LongTopK(int k)
+		{
+			if (k < 1)
+			{
+				throw new IllegalArgumentException("k must be positive, was " + k);
+			}
+			this.heap = new long[k];
+		}
+
+		public void add(long value)
+		{
+			if (size < heap.length)
+			{
+				int i = size++;
+				while (i > 0)
+				{
+					int parent = (i - 1) >>> 1;
+					if (heap[parent] <= value)
+					{
+						break;
+					}
+					heap[i] = heap[parent];
+					i = parent;
+				}
+				heap[i] = value;
+			}
+			else if (value > heap[0])
+			{
+				siftDown(value);
+			}
+		}
+
+		public void merge(LongTopK other)
+		{
+			for (int i = 0; i < other.size; i++)
+			{
+				add(other.heap[i]);
+			}
+		}
+
+		public long[] toArray()
+		{
+			long[] result = Arrays.copyOf(heap, size);
+			Arrays.sort(result);
+			for (int i = 0, j = size - 1; i < j; i++, j--)
+			{
+				long t = result[i];
+				result[i] = result[j];
+				result[j] = t;
+			}
+			return result;
+		}
+
+		private void siftDown(long value)
+		{
+			int i = 0;
+			int half = size >>> 1;
+			while (i < half)
+			{
+				int child = 2 * i + 1;
+				if (child + 1 < size && heap[child + 1] < heap[child])
+				{
+					child++;
+				}
+				if (value <= heap[child])
+				{
+					break;
+				}
+				heap[i] = heap[child];
+				i = child;
+			}
+			heap[i] = value;
+		}
+	}
+}
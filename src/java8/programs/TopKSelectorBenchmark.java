@@ -0,0 +1,103 @@
+package java8.programs;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * TopKSelector vs the boxed sort-and-skip approach of _06_SecondHighestNumberinanArray
+ *
+ * Verifies that both agree on the second highest value, the 10 largest values and
+ * a large-k order statistic, then times each (best run after warmup).
+ *
+ * Usage: java java8.programs.TopKSelectorBenchmark [size ...]
+ */
+public class TopKSelectorBenchmark
+{
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+
+	/** Results are written here so the JIT cannot drop the measured work */
+	private static volatile int sink;
+
+	public static void main(String[] args)
+	{
+		int[] input = { 5, 9, 2, 13, 42, 56, 24, 36 };
+		System.out.println("Input: " + Arrays.toString(input));
+		System.out.println("Second highest: " + TopKSelector.kthLargest(input, 2));
+		System.out.println("Top 3: " + Arrays.toString(TopKSelector.topK(input, 3)));
+
+		int[] sizes = args.length > 0
+				? Arrays.stream(args).mapToInt(s -> Integer.parseInt(s.replace("_", ""))).toArray()
+				: new int[] { 100_000, 1_000_000, 5_000_000 };
+
+		System.out.println("\n=== Performance (best of " + MEASURED_ROUNDS + ", ms) ===");
+		System.out.printf("%10s %16s %14s %12s %16s%n", "size", "boxed sort+skip", "kthLargest(2)", "topK(10)", "kth(n/2) select");
+		for (int size : sizes)
+		{
+			int[] array = new SplittableRandom(42).ints(size).toArray();
+			verify(array);
+
+			double boxed = time(() -> secondHighestBoxed(array));
+			double second = time(() -> TopKSelector.kthLargest(array, 2));
+			double top10 = time(() -> TopKSelector.topK(array, 10)[9]);
+			double median = time(() -> TopKSelector.kthLargest(array, array.length / 2));
+			System.out.printf("%10d %16.1f %14.2f %12.2f %16.1f%n", size, boxed, second, top10, median);
+		}
+	}
+
+	/**
+	 * The approach from _06_SecondHighestNumberinanArray
+	 */
+	private static int secondHighestBoxed(int[] array)
+	{
+		Optional<Integer> second = Arrays.stream(array)
+				.boxed()
+				.sorted((a, b) -> Integer.compare(b, a))
+				.skip(1)
+				.findFirst();
+		return second.get();
+	}
+
+	private static void verify(int[] array)
+	{
+		int[] sorted = array.clone();
+		Arrays.sort(sorted);
+		int n = sorted.length;
+
+		check(TopKSelector.kthLargest(array, 2) == secondHighestBoxed(array), "second highest");
+		int[] top = TopKSelector.topK(array, 10);
+		for (int i = 0; i < top.length; i++)
+		{
+			check(top[i] == sorted[n - 1 - i], "top 10 at " + i);
+		}
+		check(TopKSelector.kthLargest(array, n / 2) == sorted[n - n / 2], "kth largest k=n/2");
+		long[] longs = Arrays.stream(array).asLongStream().toArray();
+		check(TopKSelector.kthLargest(longs, 5000) == sorted[n - 5000], "long kth largest k=5000");
+	}
+
+	private static void check(boolean ok, String what)
+	{
+		if (!ok)
+		{
+			throw new IllegalStateException("Mismatch: " + what);
+		}
+	}
+
+	private static double time(IntSupplier run)
+	{
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < WARMUP_ROUNDS + MEASURED_ROUNDS; i++)
+		{
+			long start = System.nanoTime();
+			sink = run.getAsInt();
+			long elapsed = System.nanoTime() - start;
+			if (i >= WARMUP_ROUNDS)
+			{
+				best = Math.min(best, elapsed);
+			}
+		}
+		return best / 1_000_000.0;
+	}
+}
@@ -33,6 +33,13 @@ public class _02_FindingDuplicates
 
 		System.out.println("Duplicates: " + characterLongMap.entrySet());
 
+		//Approach 3: bounded memory for huge inputs - a Bloom filter pass picks candidates,
+		//an exact pass counts only those (see DuplicateFinder)
+		List<Map.Entry<String, Long>> candidatesCounted = new DuplicateFinder(1_000, 0.01)
+				.find(() -> input.chars().mapToObj(c -> String.valueOf((char) c)));
+
+		System.out.println("Duplicates: " + candidatesCounted);
+
 	}
 }
 
@@ -34,6 +34,12 @@ public class _04_RemoveDuplicateCharacter
 				.collect(Collectors.joining());
 
 		System.out.println(result2);  // Output: helowrd
+
+		// Bitset of seen characters, first occurrences appended to one StringBuilder (see DistinctCharacters)
+		DistinctCharacters distinct = new DistinctCharacters();
+		strList.forEach(str -> distinct.add(str.toLowerCase()));
+
+		System.out.println(distinct);  // Output: helowrd
 	}
 }
 
@@ -3,6 +3,7 @@ package java8.programs;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -12,6 +13,7 @@ import java.util.stream.IntStream;
  * - findFirst() vs findAny()
  * - Short-circuit operations
  * - Matching operations
+ * - Cancelling the rest of a parallel search once a match is found (ParallelSearch)
  */
 public class _07_FindFirstAndAnyMatch
 {
@@ -23,6 +25,7 @@ public class _07_FindFirstAndAnyMatch
 		demonstrateFindAny();
 		demonstrateMatchOperations();
 		demonstrateDifferenceBetweenFindFirstAndFindAny();
+		demonstrateCancellableParallelSearch();
 	}
 
 	/**
@@ -138,7 +141,7 @@ public class _07_FindFirstAndAnyMatch
 		// Demonstrate with a large list
 		List<Integer> largeList = IntStream.range(1, 1000000)
 			.boxed()
-			.collect(java.util.stream.Collectors.toList());
+			.collect(Collectors.toList());
 
 		long startTime = System.currentTimeMillis();
 		Optional<Integer> first = largeList.stream()
@@ -159,5 +162,47 @@ public class _07_FindFirstAndAnyMatch
 		System.out.println("    - Use findFirst() when order matters");
 		System.out.println("    - Use findAny() in parallel streams when any match is sufficient");
 	}
-}
 
+	/**
+	 * Demonstrates ParallelSearch: all subtasks share the lowest matching index
+	 * found so far and stop as soon as their range lies beyond it
+	 */
+	private static void demonstrateCancellableParallelSearch()
+	{
+		System.out.println("\n5. Cancellable Parallel Search (ParallelSearch):");
+
+		List<Integer> largeList = IntStream.range(1, 1000000)
+			.boxed()
+			.collect(Collectors.toList());
+
+		Optional<Integer> streamFirst = largeList.parallelStream()
+			.filter(n -> isSlowMatch(n, 500000))
+			.findFirst();
+		Optional<Integer> searchFirst = ParallelSearch.findFirst(largeList, n -> isSlowMatch(n, 500000));
+
+		System.out.println("  findFirst() on an expensive predicate, match in the middle:");
+		System.out.println("    parallelStream().findFirst(): " + streamFirst.orElse(-1));
+		System.out.println("    ParallelSearch.findFirst():   " + searchFirst.orElse(-1));
+
+		boolean any = ParallelSearch.anyMatch(largeList, n -> n % 1000 == 0);
+		boolean all = ParallelSearch.allMatch(largeList, n -> n > 0);
+		System.out.println("  ParallelSearch.anyMatch(n % 1000 == 0): " + any);
+		System.out.println("  ParallelSearch.allMatch(n > 0): " + all);
+		System.out.println("\n  Subtasks to the right of the best match so far return without testing");
+		System.out.println("  their elements, so the search finishes soon after the match is found.");
+		System.out.println("  For timings with warmup, run benchmarks.ParallelSearchBenchmarks.");
+	}
+
+	/**
+	 * A predicate with a little work per element, like parsing or validating a record
+	 */
+	private static boolean isSlowMatch(int n, int target)
+	{
+		long hash = n;
+		for (int i = 0; i < 50; i++)
+		{
+			hash = hash * 31 + i;
+		}
+		return hash != 0 && n >= target;
+	}
+}
@@ -12,6 +12,7 @@ import java.util.stream.Stream;
  * - Flattening nested collections
  * - Extracting nested objects
  * - Combining multiple streams
+ * - Flattening primitives without a stream per row (FlatInts)
  */
 public class _08_StreamFlatMapExamples
 {
@@ -24,6 +25,7 @@ public class _08_StreamFlatMapExamples
 		demonstrateExtractingNestedObjects();
 		demonstrateCombiningMultipleStreams();
 		demonstrateRealWorldExamples();
+		demonstrateFlatteningPrimitives();
 	}
 
 	/**
@@ -230,5 +232,34 @@ public class _08_StreamFlatMapExamples
 
 		System.out.println("  All numbers from matrix: " + allNumbers);
 	}
-}
 
+	/**
+	 * Demonstrates FlatInts: one IntStream over all rows, without a Stream per row
+	 * or a boxed value per element
+	 */
+	private static void demonstrateFlatteningPrimitives()
+	{
+		System.out.println("\n6. Flattening Primitives without flatMap (FlatInts):");
+
+		int[][] matrix = {{1, 2, 3}, {4, 5}, {}, {6, 7, 8, 9}};
+		System.out.println("  Sum of matrix: " + FlatInts.of(matrix).sum());
+
+		List<int[]> rows = Arrays.asList(new int[] {10, 20}, new int[] {30}, new int[] {40, 50, 60});
+		System.out.println("  Rows of List<int[]>: " + Arrays.toString(FlatInts.of(rows).toArray()));
+
+		// Same characters as flatMap(word -> word.chars().mapToObj(c -> (char) c)), as ints
+		List<String> words = Arrays.asList("Java", "Stream", "API");
+		String letters = FlatInts.chars(words)
+			.collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+			.toString();
+		System.out.println("  All characters from words: " + letters);
+
+		// Splits by element count, so one huge row does not end up in a single task
+		int[][] skewed = new int[1000][];
+		for (int i = 0; i < skewed.length; i++)
+		{
+			skewed[i] = new int[i == 0 ? 1000000 : 1];
+		}
+		System.out.println("  Parallel count of a skewed matrix: " + FlatInts.of(skewed).parallel().count());
+	}
+}
@@ -6,6 +6,8 @@ import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 
+import java8.streams.collectors.PrimitiveCollectors;
+
 public class PrimitiveStreams
 {
 	public static void main(String[] args)
@@ -15,6 +17,9 @@ public class PrimitiveStreams
 
 		System.out.println(IntStream.range(1,5).boxed().collect(Collectors.toList()));
 		System.out.println(IntStream.rangeClosed(1,5).boxed().collect(Collectors.toList()));
+		// same ranges without boxing every element
+		System.out.println(PrimitiveCollectors.toGrowableIntList().collect(IntStream.range(1,5)));
+		System.out.println(Arrays.toString(PrimitiveCollectors.toIntArray().collect(IntStream.rangeClosed(1,5))));
 
 		IntStream.of(1,12,55);
 
@@ -24,6 +29,9 @@ public class PrimitiveStreams
 		IntStream intStream  = new Random().ints(5);
 		System.out.println(intStream.boxed().toList());
 
+		System.out.println(PrimitiveCollectors.groupingByInt(n -> n % 3).collect(Arrays.stream(numbers)));
+		System.out.println(PrimitiveCollectors.partitioningByInt(n -> n > 10).collect(Arrays.stream(numbers).parallel()));
+
 	}
 }
 
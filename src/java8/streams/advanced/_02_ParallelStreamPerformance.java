@@ -4,6 +4,10 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+/**
+ * Rough sequential vs parallel comparison (single run, no warmup).
+ * See benchmarks.StreamBenchmarks for reproducible numbers.
+ */
 public class _02_ParallelStreamPerformance
 {
 	public static void main(String[] args)
@@ -0,0 +1,443 @@
+package java8.streams.basics;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splittable Arithmetic and Geometric Sequences
+ *
+ * Stream.iterate(0, n -> n + 2).limit(10) and iterate(0, n -> n < 10, n -> n + 2)
+ * compute every element from the previous one, so their spliterator cannot split
+ * and .parallel() runs on one thread (limit() on an unsized parallel stream even
+ * buffers). The element i of an arithmetic or geometric sequence has a closed
+ * form, so these sources are primitive, SIZED and SUBSIZED spliterators whose
+ * trySplit() halves an index range in O(1):
+ *
+ * - arithmetic(start, step, count), longArithmetic(...): start + i * step
+ * - geometric(start, ratio, count): start * ratio^i, for long (with the same
+ *   wrap-around as repeated multiplication) and double (computed with Math.pow
+ *   per element, so the result does not depend on how the stream was split)
+ * - iterate(seed, hasNext, step): like IntStream.iterate(seed, hasNext, n -> n + step).
+ *   If hasNext is one of the bounds lessThan, atMost, greaterThan or atLeast,
+ *   the length is computed in closed form and the stream splits fully; any
+ *   other predicate falls back to a sequential spliterator
+ *
+ * Closed forms assume the sequence does not overflow before the bound, where
+ * iterate() would wrap around and keep going.
+ *
+ * Usage:
+ *   long sum = Sequences.iterate(0, Sequences.lessThan(1_000_000), 2).parallel().asLongStream().sum();
+ */
+public final class Sequences
+{
+	/** Elements below which a spliterator does not split */
+	private static final int MIN_SPLIT = 1 << 10;
+
+	private Sequences()
+	{
+	}
+
+	// ---------------------------------------------------------------- sources
+
+	/**
+	 * start, start + step, ... (count elements), like
+	 * IntStream.iterate(start, n -> n + step).limit(count)
+	 */
+	public static IntStream arithmetic(int start, int step, long count)
+	{
+		return StreamSupport.intStream(new IntArithmetic(start, step, 0, checkCount(count)), false);
+	}
+
+	public static LongStream longArithmetic(long start, long step, long count)
+	{
+		return StreamSupport.longStream(new LongArithmetic(start, step, 0, checkCount(count)), false);
+	}
+
+	/**
+	 * start, start * ratio, ... (count elements), like
+	 * LongStream.iterate(start, n -> n * ratio).limit(count)
+	 */
+	public static LongStream geometric(long start, long ratio, long count)
+	{
+		return StreamSupport.longStream(new LongGeometric(start, ratio, 0, checkCount(count)), false);
+	}
+
+	public static DoubleStream geometric(double start, double ratio, long count)
+	{
+		return StreamSupport.doubleStream(new DoubleGeometric(start, ratio, 0, checkCount(count)), false);
+	}
+
+	/**
+	 * Like IntStream.iterate(seed, hasNext, n -> n + step) (Java 9); splits only
+	 * if hasNext is a Bound
+	 */
+	public static IntStream iterate(int seed, IntPredicate hasNext, int step)
+	{
+		if (hasNext instanceof Bound)
+		{
+			return arithmetic(seed, step, ((Bound) hasNext).count(seed, step));
+		}
+		return StreamSupport.intStream(new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL)
+		{
+			private int next = seed;
+			private boolean done;
+
+			@Override
+			public boolean tryAdvance(IntConsumer action)
+			{
+				if (done || !hasNext.test(next))
+				{
+					done = true;
+					return false;
+				}
+				action.accept(next);
+				next += step;
+				return true;
+			}
+		}, false);
+	}
+
+	private static long checkCount(long count)
+	{
+		if (count < 0)
+		{
+			throw new IllegalArgumentException("count must not be negative, was " + count);
+		}
+		return count;
+	}
+
+	// ---------------------------------------------------------------- bounds
+
+	/** n < limit */
+	public static Bound lessThan(int limit)
+	{
+		return new Bound(limit, true, false);
+	}
+
+	/** n <= limit */
+	public static Bound atMost(int limit)
+	{
+		return new Bound(limit, true, true);
+	}
+
+	/** n > limit */
+	public static Bound greaterThan(int limit)
+	{
+		return new Bound(limit, false, false);
+	}
+
+	/** n >= limit */
+	public static Bound atLeast(int limit)
+	{
+		return new Bound(limit, false, true);
+	}
+
+	/**
+	 * A comparison against a constant, which iterate() can turn into a length
+	 */
+	public static final class Bound implements IntPredicate
+	{
+		private final int limit;
+		private final boolean below;
+		private final boolean inclusive;
+
+		Bound(int limit, boolean below, boolean inclusive)
+		{
+			this.limit = limit;
+			this.below = below;
+			this.inclusive = inclusive;
+		}
+
+		@Override
+		public boolean test(int n)
+		{
+			if (below)
+			{
+				return inclusive ? n <= limit : n < limit;
+			}
+			return inclusive ? n >= limit : n > limit;
+		}
+
+		/**
+		 * Number of elements seed, seed + step, ... that pass before the first that fails
+		 */
+		long count(int seed, int step)
+		{
+			if (!test(seed))
+			{
+				return 0;
+			}
+			if (step == 0 || (step > 0) != below)
+			{
+				throw new IllegalArgumentException("The sequence from " + seed + " by " + step + " never fails " + this);
+			}
+			// distance to the last value that still passes, divided by the step
+			long last = inclusive ? limit : below ? limit - 1L : limit + 1L;
+			return (last - seed) / step + 1;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "n " + (below ? "<" : ">") + (inclusive ? "= " : " ") + limit;
+		}
+	}
+
+	// ---------------------------------------------------------------- spliterators
+
+	/**
+	 * Index range [index, end) of a sequence with a closed-form element
+	 */
+	abstract static class IndexSpliterator
+	{
+		long index;
+		final long end;
+
+		IndexSpliterator(long index, long end)
+		{
+			this.index = index;
+			this.end = end;
+		}
+
+		/**
+		 * Start of the prefix this spliterator gives away, or -1 if it is too small
+		 */
+		final long splitAt()
+		{
+			long remaining = end - index;
+			if (remaining < 2 * MIN_SPLIT)
+			{
+				return -1;
+			}
+			long from = index;
+			index = from + remaining / 2;
+			return from;
+		}
+
+		public final long estimateSize()
+		{
+			return end - index;
+		}
+
+		public final int characteristics()
+		{
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+		}
+	}
+
+	static final class IntArithmetic extends IndexSpliterator implements Spliterator.OfInt
+	{
+		private final int start;
+		private final int step;
+
+		IntArithmetic(int start, int step, long index, long end)
+		{
+			super(index, end);
+			this.start = start;
+			this.step = step;
+		}
+
+		/** int arithmetic, so it wraps exactly like repeated n + step */
+		private int at(long i)
+		{
+			return start + (int) i * step;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action)
+		{
+			if (index >= end)
+			{
+				return false;
+			}
+			action.accept(at(index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action)
+		{
+			int value = at(index);
+			for (long i = index; i < end; i++)
+			{
+				action.accept(value);
+				value += step;
+			}
+			index = end;
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit()
+		{
+			long from = index;
+			return splitAt() < 0 ? null : new IntArithmetic(start, step, from, index);
+		}
+	}
+
+	static final class LongArithmetic extends IndexSpliterator implements Spliterator.OfLong
+	{
+		private final long start;
+		private final long step;
+
+		LongArithmetic(long start, long step, long index, long end)
+		{
+			super(index, end);
+			this.start = start;
+			this.step = step;
+		}
+
+		private long at(long i)
+		{
+			return start + i * step;
+		}
+
+		@Override
+		public boolean tryAdvance(LongConsumer action)
+		{
+			if (index >= end)
+			{
+				return false;
+			}
+			action.accept(at(index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(LongConsumer action)
+		{
+			long value = at(index);
+			for (long i = index; i < end; i++)
+			{
+				action.accept(value);
+				value += step;
+			}
+			index = end;
+		}
+
+		@Override
+		public Spliterator.OfLong trySplit()
+		{
+			long from = index;
+			return splitAt() < 0 ? null : new LongArithmetic(start, step, from, index);
+		}
+	}
+
+	static final class LongGeometric extends IndexSpliterator implements Spliterator.OfLong
+	{
+		private final long start;
+		private final long ratio;
+
+		LongGeometric(long start, long ratio, long index, long end)
+		{
+			super(index, end);
+			this.start = start;
+			this.ratio = ratio;
+		}
+
+		/**
+		 * start * ratio^i by squaring; overflow wraps the same way as i multiplications
+		 */
+		private long at(long i)
+		{
+			long power = 1;
+			long base = ratio;
+			for (long e = i; e > 0; e >>>= 1)
+			{
+				if ((e & 1) != 0)
+				{
+					power *= base;
+				}
+				base *= base;
+			}
+			return start * power;
+		}
+
+		@Override
+		public boolean tryAdvance(LongConsumer action)
+		{
+			if (index >= end)
+			{
+				return false;
+			}
+			action.accept(at(index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(LongConsumer action)
+		{
+			if (index >= end)
+			{
+				return;
+			}
+			long value = at(index);
+			for (long i = index; i < end; i++)
+			{
+				action.accept(value);
+				value *= ratio;
+			}
+			index = end;
+		}
+
+		@Override
+		public Spliterator.OfLong trySplit()
+		{
+			long from = index;
+			return splitAt() < 0 ? null : new LongGeometric(start, ratio, from, index);
+		}
+	}
+
+	static final class DoubleGeometric extends IndexSpliterator implements Spliterator.OfDouble
+	{
+		private final double start;
+		private final double ratio;
+
+		DoubleGeometric(double start, double ratio, long index, long end)
+		{
+			super(index, end);
+			this.start = start;
+			this.ratio = ratio;
+		}
+
+		private double at(long i)
+		{
+			return start * Math.pow(ratio, i);
+		}
+
+		@Override
+		public boolean tryAdvance(DoubleConsumer action)
+		{
+			if (index >= end)
+			{
+				return false;
+			}
+			action.accept(at(index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(DoubleConsumer action)
+		{
+			for (long i = index; i < end; i++)
+			{
+				action.accept(at(i));
+			}
+			index = end;
+		}
+
+		@Override
+		public Spliterator.OfDouble trySplit()
+		{
+			long from = index;
+			return splitAt() < 0 ? null : new DoubleGeometric(start, ratio, from, index);
+		}
+	}
+}
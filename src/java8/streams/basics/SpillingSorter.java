@@ -0,0 +1,519 @@
+package java8.streams.basics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * External-memory sorted() and distinct() with Disk Spill
+ *
+ * Stream.sorted() and distinct() hold every element on the heap, so StreamDemo's
+ * .distinct().sorted(...) fails with OutOfMemoryError once the stream is larger
+ * than the heap. This sorter keeps at most memoryBudgetBytes of elements:
+ *
+ * 1. Run phase: elements are buffered until their estimated heap size exceeds
+ *    the budget; the buffer is then sorted and written as a run to a temp file
+ *    through a FileChannel, in the binary format of the Codec
+ * 2. Merge phase: the runs are merged with a priority queue holding the head of
+ *    each run; elements are decoded one at a time as the stream is consumed. At
+ *    most MAX_FAN_IN runs are open at once: with more, runs are first merged
+ *    level by level, MAX_FAN_IN at a time, so each element is rewritten once
+ *    per level (log base MAX_FAN_IN of the run count)
+ *
+ * distinctSorted() drops elements the comparator finds equal to the previous
+ * one, both when writing runs and when merging, so it behaves like
+ * .distinct().sorted(comparator) for a comparator consistent with equals. Its
+ * result is in comparator order, not encounter order.
+ *
+ * Nothing happens until the returned stream's terminal operation starts. Temp
+ * files are deleted when the merge is exhausted or the stream is closed. If the
+ * data fits the budget, nothing is written and the buffer is sorted in memory.
+ * Both sorts are stable. Null elements are not supported.
+ *
+ * Usage:
+ *   SpillingSorter<String> sorter = new SpillingSorter<>(SpillingSorter.Codec.strings(), 256 << 20, tmp);
+ *   try (Stream<String> words = sorter.distinctSorted(Files.lines(huge), Comparator.naturalOrder()))
+ *   {
+ *       words.forEach(System.out::println);
+ *   }
+ */
+public final class SpillingSorter<T>
+{
+	/** Runs merged at once; every open run holds a read buffer of BUFFER_SIZE */
+	static final int MAX_FAN_IN = 64;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Binary format of the elements in a run file, plus a heap size estimate used
+	 * against the memory budget
+	 */
+	public interface Codec<T>
+	{
+		void write(T value, DataOutput out) throws IOException;
+
+		T read(DataInput in) throws IOException;
+
+		/**
+		 * Rough heap bytes of a buffered value, including its reference in the buffer
+		 */
+		long heapBytes(T value);
+
+		/**
+		 * Length-prefixed UTF-8, so strings are not limited to the 64 KB of writeUTF
+		 */
+		static Codec<String> strings()
+		{
+			return new Codec<String>()
+			{
+				@Override
+				public void write(String value, DataOutput out) throws IOException
+				{
+					byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+				}
+
+				@Override
+				public String read(DataInput in) throws IOException
+				{
+					byte[] bytes = new byte[in.readInt()];
+					in.readFully(bytes);
+					return new String(bytes, StandardCharsets.UTF_8);
+				}
+
+				@Override
+				public long heapBytes(String value)
+				{
+					// String and char[] headers plus the reference
+					return 56 + 2L * value.length();
+				}
+			};
+		}
+
+		static Codec<Integer> integers()
+		{
+			return new Codec<Integer>()
+			{
+				@Override
+				public void write(Integer value, DataOutput out) throws IOException
+				{
+					out.writeInt(value);
+				}
+
+				@Override
+				public Integer read(DataInput in) throws IOException
+				{
+					return in.readInt();
+				}
+
+				@Override
+				public long heapBytes(Integer value)
+				{
+					return 24;
+				}
+			};
+		}
+
+		static Codec<Long> longs()
+		{
+			return new Codec<Long>()
+			{
+				@Override
+				public void write(Long value, DataOutput out) throws IOException
+				{
+					out.writeLong(value);
+				}
+
+				@Override
+				public Long read(DataInput in) throws IOException
+				{
+					return in.readLong();
+				}
+
+				@Override
+				public long heapBytes(Long value)
+				{
+					return 32;
+				}
+			};
+		}
+	}
+
+	private final Codec<T> codec;
+	private final long memoryBudgetBytes;
+	private final Path spillDirectory;
+
+	/**
+	 * @param memoryBudgetBytes heap for buffered elements, as estimated by the codec
+	 * @param spillDirectory    directory for the run files
+	 */
+	public SpillingSorter(Codec<T> codec, long memoryBudgetBytes, Path spillDirectory)
+	{
+		if (memoryBudgetBytes <= 0)
+		{
+			throw new IllegalArgumentException("memoryBudgetBytes must be positive, was " + memoryBudgetBytes);
+		}
+		this.codec = codec;
+		this.memoryBudgetBytes = memoryBudgetBytes;
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Like source.sorted(comparator)
+	 */
+	public Stream<T> sorted(Stream<? extends T> source, Comparator<? super T> comparator)
+	{
+		return stream(source, comparator, false);
+	}
+
+	/**
+	 * Like source.distinct().sorted(comparator), with equality given by the comparator
+	 */
+	public Stream<T> distinctSorted(Stream<? extends T> source, Comparator<? super T> comparator)
+	{
+		return stream(source, comparator, true);
+	}
+
+	private Stream<T> stream(Stream<? extends T> source, Comparator<? super T> comparator, boolean distinct)
+	{
+		SortedIterator sorted = new SortedIterator(source, comparator, distinct);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(sorted, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(sorted::close)
+				.onClose(source::close);
+	}
+
+	/**
+	 * Runs the run phase on the first hasNext() and then merges on demand
+	 */
+	private final class SortedIterator implements Iterator<T>
+	{
+		private final Stream<? extends T> source;
+		private final Comparator<? super T> comparator;
+		private final boolean distinct;
+
+		private List<T> buffer = new ArrayList<>();
+		private long bufferedBytes;
+		private final List<Path> files = new ArrayList<>();
+
+		private Iterator<T> merged;
+		private Merge merge;
+		private T next;
+		private T last;
+
+		SortedIterator(Stream<? extends T> source, Comparator<? super T> comparator, boolean distinct)
+		{
+			this.source = source;
+			this.comparator = comparator;
+			this.distinct = distinct;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			if (next != null)
+			{
+				return true;
+			}
+			if (merged == null)
+			{
+				start();
+			}
+			while (merged.hasNext())
+			{
+				T value = merged.next();
+				if (distinct && last != null && comparator.compare(last, value) == 0)
+				{
+					continue;
+				}
+				last = value;
+				next = value;
+				return true;
+			}
+			close();
+			return false;
+		}
+
+		@Override
+		public T next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			T value = next;
+			next = null;
+			return value;
+		}
+
+		private void start()
+		{
+			source.forEachOrdered(value -> {
+				buffer.add(value);
+				bufferedBytes += codec.heapBytes(value);
+				if (bufferedBytes > memoryBudgetBytes)
+				{
+					spill();
+				}
+			});
+			if (files.isEmpty())
+			{
+				buffer.sort(comparator);
+				merged = buffer.iterator();
+				buffer = null;
+				return;
+			}
+			if (!buffer.isEmpty())
+			{
+				spill();
+			}
+			buffer = null;
+			try
+			{
+				List<Path> runs = new ArrayList<>(files);
+				while (runs.size() > MAX_FAN_IN)
+				{
+					runs = mergeLevel(runs);
+				}
+				merge = new Merge(runs);
+				merged = merge;
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * Merges each group of MAX_FAN_IN consecutive runs into one, so every
+		 * element is rewritten once per level; groups stay in run order, which
+		 * keeps the sort stable
+		 */
+		private List<Path> mergeLevel(List<Path> runs) throws IOException
+		{
+			List<Path> next = new ArrayList<>();
+			for (int from = 0; from < runs.size(); from += MAX_FAN_IN)
+			{
+				List<Path> group = runs.subList(from, Math.min(from + MAX_FAN_IN, runs.size()));
+				if (group.size() == 1)
+				{
+					next.add(group.get(0));
+					continue;
+				}
+				Merge partial = new Merge(group);
+				try
+				{
+					next.add(writeRun(partial));
+				}
+				finally
+				{
+					partial.close();
+				}
+				for (Path file : group)
+				{
+					Files.delete(file);
+				}
+				files.removeAll(group);
+			}
+			return next;
+		}
+
+		private void spill()
+		{
+			buffer.sort(comparator);
+			try
+			{
+				writeRun(buffer.iterator());
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+			buffer = new ArrayList<>();
+			bufferedBytes = 0;
+		}
+
+		/**
+		 * Writes sorted values as a run: a true byte before every element, a false
+		 * byte at the end
+		 */
+		private Path writeRun(Iterator<T> values) throws IOException
+		{
+			Path file = Files.createTempFile(spillDirectory, "run", ".bin");
+			files.add(file);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					Channels.newOutputStream(FileChannel.open(file, WRITE)), BUFFER_SIZE)))
+			{
+				T previous = null;
+				while (values.hasNext())
+				{
+					T value = values.next();
+					if (distinct && previous != null && comparator.compare(previous, value) == 0)
+					{
+						continue;
+					}
+					out.writeBoolean(true);
+					codec.write(value, out);
+					previous = value;
+				}
+				out.writeBoolean(false);
+			}
+			return file;
+		}
+
+		/**
+		 * Closes open runs and deletes all run files
+		 */
+		void close()
+		{
+			if (merge != null)
+			{
+				merge.close();
+				merge = null;
+			}
+			for (Path file : files)
+			{
+				try
+				{
+					Files.deleteIfExists(file);
+				}
+				catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+			}
+			files.clear();
+			merged = Collections.emptyIterator();
+		}
+
+		/**
+		 * k-way merge of run files; ties go to the earlier run
+		 */
+		private final class Merge implements Iterator<T>
+		{
+			private final PriorityQueue<Run> heads = new PriorityQueue<>((a, b) -> {
+				int order = comparator.compare(a.head, b.head);
+				return order != 0 ? order : Integer.compare(a.index, b.index);
+			});
+			private final List<Run> open = new ArrayList<>();
+
+			Merge(List<Path> runs) throws IOException
+			{
+				try
+				{
+					for (int i = 0; i < runs.size(); i++)
+					{
+						Run run = new Run(runs.get(i), i);
+						open.add(run);
+						if (run.advance())
+						{
+							heads.add(run);
+						}
+					}
+				}
+				catch (IOException e)
+				{
+					close();
+					throw e;
+				}
+			}
+
+			@Override
+			public boolean hasNext()
+			{
+				return !heads.isEmpty();
+			}
+
+			@Override
+			public T next()
+			{
+				Run run = heads.poll();
+				if (run == null)
+				{
+					throw new NoSuchElementException();
+				}
+				T value = run.head;
+				try
+				{
+					if (run.advance())
+					{
+						heads.add(run);
+					}
+				}
+				catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+				return value;
+			}
+
+			void close()
+			{
+				for (Run run : open)
+				{
+					try
+					{
+						run.in.close();
+					}
+					catch (IOException e)
+					{
+						throw new UncheckedIOException(e);
+					}
+				}
+				open.clear();
+				heads.clear();
+			}
+		}
+
+		private final class Run
+		{
+			final DataInputStream in;
+			final int index;
+			T head;
+
+			Run(Path file, int index) throws IOException
+			{
+				this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(FileChannel.open(file, READ)), BUFFER_SIZE));
+				this.index = index;
+			}
+
+			/**
+			 * Reads the next element into head; false at the end of the run
+			 */
+			boolean advance() throws IOException
+			{
+				if (!in.readBoolean())
+				{
+					head = null;
+					return false;
+				}
+				head = codec.read(in);
+				return true;
+			}
+		}
+	}
+}
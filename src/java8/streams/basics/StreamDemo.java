@@ -1,5 +1,9 @@
 package java8.streams.basics;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -19,6 +23,12 @@ import java.util.stream.Stream;
  * Also includes examples that illustrate laziness of intermediate
  * operations, terminal operations, and the use of flatMap to flatten
  * nested collections.
+ * <p>
+ * For streams larger than the heap, {@link SpillingSorter} provides sorted()
+ * and distinct() stages that spill sorted runs to disk and merge them lazily.
+ * <p>
+ * Stream.iterate() cannot split, so {@link Sequences} provides arithmetic and
+ * geometric sequences as SIZED spliterators that parallelize.
  */
 
 public class StreamDemo
@@ -42,6 +52,12 @@ public class StreamDemo
 		Stream<Integer> integerStream1 = Stream.iterate(0, n -> n + 2).limit(10);
 		System.out.println(integerStream1.collect(Collectors.toList()));
 
+		//Same sequence from a closed form: SIZED and splittable, so .parallel() can use every core
+		IntStream evens = Sequences.arithmetic(0, 2, 10);
+		System.out.println(evens.boxed().collect(Collectors.toList()));
+		System.out.println("Sum of 1M evens in parallel : " + Sequences.arithmetic(0, 2, 1_000_000).parallel().asLongStream().sum());
+		System.out.println("Powers of 3 : " + Arrays.toString(Sequences.geometric(1L, 3L, 10).toArray()));
+
 		//Example of stream from generate
 		Stream<Integer> integerStream2 = Stream.generate(() -> (int) (Math.random() * 100)).limit(10);
 		System.out.println(integerStream2.collect(Collectors.toList()));
@@ -59,6 +75,24 @@ public class StreamDemo
 				.toList();
 		System.out.println("integerList : " + integerList);
 
+		//Same distinct + sorted with a bounded heap: runs beyond the budget go to temp files
+		try
+		{
+			Path spillDirectory = Files.createTempDirectory("spill");
+			SpillingSorter<Integer> sorter = new SpillingSorter<>(SpillingSorter.Codec.integers(), 64, spillDirectory);
+			try (Stream<Integer> spilled = sorter.distinctSorted(
+					Stream.iterate(1, x -> x + 1).limit(20).filter(x -> x % 2 == 0).map(x -> x / 3).skip(2),
+					(a, b) -> b - a))
+			{
+				System.out.println("integerList with spill : " + spilled.toList());
+			}
+			Files.delete(spillDirectory);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
 		//Example stream operations are not performed before any Terminal operation
 		List<String> strings = Arrays.asList("abc", "a", "nvdf", "ABC", "a");
 		Stream<String> stringStream1 = strings.stream().filter(n -> {
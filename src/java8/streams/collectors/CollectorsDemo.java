@@ -1,5 +1,10 @@
 package java8.streams.collectors;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -20,6 +25,9 @@ import java.util.stream.Collectors;
  *   <li>Summarizing statistics using {@code summarizingInt()}, {@code averagingInt()}, and {@code summingInt()}.</li>
  *   <li>Grouping elements by a property using {@code groupingBy()}, and partitioning elements using {@code partitioningBy()}.</li>
  *   <li>Mapping and collecting streams into maps using {@code toMap()}.</li>
+ *   <li>Counting and summing per key in parallel with {@link StripedCollectors}.</li>
+ *   <li>Counting the words of a large file without creating a String per word with {@link WordFrequencies}.</li>
+ *   <li>Collecting primitive streams without boxing with {@link PrimitiveCollectors}.</li>
  * </ul>
  */
 public class CollectorsDemo
@@ -107,6 +115,33 @@ public class CollectorsDemo
 		Map<String, Integer> stringIntegerMap = names.stream().collect(Collectors.toMap(x -> x.toLowerCase(), x -> 1, Integer::sum));
 		System.out.println("Creating a map from stream : " + stringIntegerMap);
 
+		//Example 6: Counting words in parallel with striped counters (one shared table, no per-thread maps to merge)
+		Map<String, Long> parallelWordCount = Arrays.stream(sentence.split(" ")).parallel().collect(StripedCollectors.counting(x -> x));
+		System.out.println("Counting words occurrence in parallel : " + parallelWordCount);
+		Map<Integer, Long> lengthSum = names.parallelStream().collect(StripedCollectors.summingLong(String::length, String::length));
+		System.out.println("Summing lengths by length in parallel : " + lengthSum);
+
+		//Example 7: Counting words of a file on its bytes (memory-mapped, no String per word until the result)
+		try
+		{
+			Path file = Files.createTempFile("sentence", ".txt");
+			Files.write(file, sentence.getBytes(StandardCharsets.UTF_8));
+			WordFrequencies frequencies = WordFrequencies.of(file);
+			System.out.println("Counting words occurrence in a mapped file : " + frequencies + ", top 2 : " + frequencies.top(2));
+			Files.delete(file);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		//Example 8: Collecting primitive streams without boxing
+		System.out.println("Summarizing without boxing : " + numList.stream().mapToInt(x -> x).summaryStatistics());
+		int[] evens = PrimitiveCollectors.toIntArray().collect(integerList.stream().mapToInt(x -> x).filter(x -> x % 2 == 0));
+		System.out.println("Collecting to an int[] : " + Arrays.toString(evens));
+		System.out.println("Grouping ints by last digit : " + PrimitiveCollectors.groupingByInt(x -> x % 10).collect(integerList.stream().mapToInt(x -> x)));
+		System.out.println("Partitioning ints into two int[] : " + PrimitiveCollectors.partitioningByInt(x -> x % 2 == 0).collect(integerList.stream().mapToInt(x -> x)));
+
 	}
 }
 
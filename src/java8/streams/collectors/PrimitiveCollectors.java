@@ -0,0 +1,525 @@
+package java8.streams.collectors;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Collectors for IntStream, LongStream and DoubleStream
+ *
+ * java.util.stream.Collector only accepts objects, so collecting a primitive
+ * stream into a list or a grouping means boxed() first: one Integer per element,
+ * plus a boxed key per element for groupingBy. Primitive streams do have
+ * collect(supplier, accumulator, combiner); the collectors here bundle those
+ * three functions (and a finisher) so they can be reused like Collectors:
+ *
+ * - toIntArray(), toLongArray(), toDoubleArray()
+ * - toGrowableIntList(), toGrowableLongList(), toGrowableDoubleList(): an
+ *   IntList / LongList / DoubleList backed by one array
+ * - groupingByInt(classifier): int key -> IntList of elements, in IntGroups, an
+ *   open-addressing map with int keys
+ * - partitioningByInt(predicate): the matching and other elements as two int[]
+ *
+ * Every container combines by appending arrays (System.arraycopy), so parallel
+ * streams keep encounter order and no element is boxed on the way.
+ *
+ * Usage:
+ *   int[] evens = PrimitiveCollectors.toIntArray().collect(IntStream.range(0, 100).filter(n -> n % 2 == 0));
+ *   IntGroups byDigit = PrimitiveCollectors.groupingByInt(n -> n % 10).collect(numbers.parallel());
+ */
+public final class PrimitiveCollectors
+{
+	private PrimitiveCollectors()
+	{
+	}
+
+	// ---------------------------------------------------------------- collector types
+
+	/**
+	 * The supplier, accumulator and combiner of IntStream.collect, plus a finisher
+	 */
+	public static final class IntCollector<A, R>
+	{
+		private final Supplier<A> supplier;
+		private final ObjIntConsumer<A> accumulator;
+		private final BiConsumer<A, A> combiner;
+		private final Function<A, R> finisher;
+
+		public IntCollector(Supplier<A> supplier, ObjIntConsumer<A> accumulator, BiConsumer<A, A> combiner,
+				Function<A, R> finisher)
+		{
+			this.supplier = supplier;
+			this.accumulator = accumulator;
+			this.combiner = combiner;
+			this.finisher = finisher;
+		}
+
+		public R collect(IntStream stream)
+		{
+			return finisher.apply(stream.collect(supplier, accumulator, combiner));
+		}
+	}
+
+	public static final class LongCollector<A, R>
+	{
+		private final Supplier<A> supplier;
+		private final ObjLongConsumer<A> accumulator;
+		private final BiConsumer<A, A> combiner;
+		private final Function<A, R> finisher;
+
+		public LongCollector(Supplier<A> supplier, ObjLongConsumer<A> accumulator, BiConsumer<A, A> combiner,
+				Function<A, R> finisher)
+		{
+			this.supplier = supplier;
+			this.accumulator = accumulator;
+			this.combiner = combiner;
+			this.finisher = finisher;
+		}
+
+		public R collect(LongStream stream)
+		{
+			return finisher.apply(stream.collect(supplier, accumulator, combiner));
+		}
+	}
+
+	public static final class DoubleCollector<A, R>
+	{
+		private final Supplier<A> supplier;
+		private final ObjDoubleConsumer<A> accumulator;
+		private final BiConsumer<A, A> combiner;
+		private final Function<A, R> finisher;
+
+		public DoubleCollector(Supplier<A> supplier, ObjDoubleConsumer<A> accumulator, BiConsumer<A, A> combiner,
+				Function<A, R> finisher)
+		{
+			this.supplier = supplier;
+			this.accumulator = accumulator;
+			this.combiner = combiner;
+			this.finisher = finisher;
+		}
+
+		public R collect(DoubleStream stream)
+		{
+			return finisher.apply(stream.collect(supplier, accumulator, combiner));
+		}
+	}
+
+	// ---------------------------------------------------------------- collectors
+
+	/**
+	 * Like boxed().collect(toList()) followed by an unboxing copy
+	 */
+	public static IntCollector<?, int[]> toIntArray()
+	{
+		return new IntCollector<>(IntList::new, IntList::add, IntList::addAll, IntList::toArray);
+	}
+
+	public static IntCollector<?, IntList> toGrowableIntList()
+	{
+		return new IntCollector<>(IntList::new, IntList::add, IntList::addAll, Function.identity());
+	}
+
+	public static LongCollector<?, long[]> toLongArray()
+	{
+		return new LongCollector<>(LongList::new, LongList::add, LongList::addAll, LongList::toArray);
+	}
+
+	public static LongCollector<?, LongList> toGrowableLongList()
+	{
+		return new LongCollector<>(LongList::new, LongList::add, LongList::addAll, Function.identity());
+	}
+
+	public static DoubleCollector<?, double[]> toDoubleArray()
+	{
+		return new DoubleCollector<>(DoubleList::new, DoubleList::add, DoubleList::addAll, DoubleList::toArray);
+	}
+
+	public static DoubleCollector<?, DoubleList> toGrowableDoubleList()
+	{
+		return new DoubleCollector<>(DoubleList::new, DoubleList::add, DoubleList::addAll, Function.identity());
+	}
+
+	/**
+	 * Like boxed().collect(groupingBy(classifier)), with int keys and IntList groups
+	 */
+	public static IntCollector<?, IntGroups> groupingByInt(IntUnaryOperator classifier)
+	{
+		return new IntCollector<>(IntGroups::new, (groups, value) -> groups.add(classifier.applyAsInt(value), value),
+				IntGroups::addAll, Function.identity());
+	}
+
+	/**
+	 * Like boxed().collect(partitioningBy(predicate)), with the two groups as int[]
+	 */
+	public static IntCollector<?, IntPartition> partitioningByInt(IntPredicate predicate)
+	{
+		return new IntCollector<IntList[], IntPartition>(
+				() -> new IntList[] { new IntList(), new IntList() },
+				(lists, value) -> lists[predicate.test(value) ? 1 : 0].add(value),
+				(left, right) -> {
+					left[0].addAll(right[0]);
+					left[1].addAll(right[1]);
+				},
+				lists -> new IntPartition(lists[1].toArray(), lists[0].toArray()));
+	}
+
+	// ---------------------------------------------------------------- containers
+
+	/**
+	 * Growable int array
+	 */
+	public static final class IntList
+	{
+		private int[] values;
+		private int size;
+
+		public IntList()
+		{
+			this(16);
+		}
+
+		public IntList(int capacity)
+		{
+			this.values = new int[capacity];
+		}
+
+		public void add(int value)
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, Math.max(16, size * 2));
+			}
+			values[size++] = value;
+		}
+
+		public void addAll(IntList other)
+		{
+			if (size + other.size > values.length)
+			{
+				values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+			}
+			System.arraycopy(other.values, 0, values, size, other.size);
+			size += other.size;
+		}
+
+		public int get(int index)
+		{
+			if (index >= size)
+			{
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return values[index];
+		}
+
+		public int size()
+		{
+			return size;
+		}
+
+		public int[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+
+		public IntStream stream()
+		{
+			return Arrays.stream(values, 0, size);
+		}
+
+		@Override
+		public String toString()
+		{
+			return Arrays.toString(toArray());
+		}
+	}
+
+	/**
+	 * Growable long array
+	 */
+	public static final class LongList
+	{
+		private long[] values = new long[16];
+		private int size;
+
+		public void add(long value)
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		public void addAll(LongList other)
+		{
+			if (size + other.size > values.length)
+			{
+				values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+			}
+			System.arraycopy(other.values, 0, values, size, other.size);
+			size += other.size;
+		}
+
+		public long get(int index)
+		{
+			if (index >= size)
+			{
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return values[index];
+		}
+
+		public int size()
+		{
+			return size;
+		}
+
+		public long[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+
+		public LongStream stream()
+		{
+			return Arrays.stream(values, 0, size);
+		}
+
+		@Override
+		public String toString()
+		{
+			return Arrays.toString(toArray());
+		}
+	}
+
+	/**
+	 * Growable double array
+	 */
+	public static final class DoubleList
+	{
+		private double[] values = new double[16];
+		private int size;
+
+		public void add(double value)
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		public void addAll(DoubleList other)
+		{
+			if (size + other.size > values.length)
+			{
+				values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+			}
+			System.arraycopy(other.values, 0, values, size, other.size);
+			size += other.size;
+		}
+
+		public double get(int index)
+		{
+			if (index >= size)
+			{
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return values[index];
+		}
+
+		public int size()
+		{
+			return size;
+		}
+
+		public double[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+
+		public DoubleStream stream()
+		{
+			return Arrays.stream(values, 0, size);
+		}
+
+		@Override
+		public String toString()
+		{
+			return Arrays.toString(toArray());
+		}
+	}
+
+	/**
+	 * Open-addressing map from int keys to the IntList of their elements
+	 */
+	public static final class IntGroups
+	{
+		private int[] keys = new int[16];
+		private IntList[] groups = new IntList[16];
+		private int size;
+
+		void add(int key, int value)
+		{
+			group(key).add(value);
+		}
+
+		/**
+		 * Appends the groups of other, which holds later elements
+		 */
+		void addAll(IntGroups other)
+		{
+			for (int slot = 0; slot < other.groups.length; slot++)
+			{
+				if (other.groups[slot] != null)
+				{
+					group(other.keys[slot]).addAll(other.groups[slot]);
+				}
+			}
+		}
+
+		private IntList group(int key)
+		{
+			int mask = groups.length - 1;
+			int slot = spread(key) & mask;
+			IntList group;
+			while ((group = groups[slot]) != null)
+			{
+				if (keys[slot] == key)
+				{
+					return group;
+				}
+				slot = (slot + 1) & mask;
+			}
+			group = new IntList(4);
+			keys[slot] = key;
+			groups[slot] = group;
+			if (++size > groups.length - groups.length / 4)
+			{
+				grow();
+			}
+			return group;
+		}
+
+		private void grow()
+		{
+			int[] oldKeys = keys;
+			IntList[] oldGroups = groups;
+			keys = new int[oldKeys.length * 2];
+			groups = new IntList[oldGroups.length * 2];
+			int mask = groups.length - 1;
+			for (int old = 0; old < oldGroups.length; old++)
+			{
+				if (oldGroups[old] != null)
+				{
+					int slot = spread(oldKeys[old]) & mask;
+					while (groups[slot] != null)
+					{
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[old];
+					groups[slot] = oldGroups[old];
+				}
+			}
+		}
+
+		private static int spread(int key)
+		{
+			int h = key * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+
+		/**
+		 * The elements with this key, or null
+		 */
+		public IntList get(int key)
+		{
+			int mask = groups.length - 1;
+			int slot = spread(key) & mask;
+			while (groups[slot] != null)
+			{
+				if (keys[slot] == key)
+				{
+					return groups[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			return null;
+		}
+
+		public int size()
+		{
+			return size;
+		}
+
+		/**
+		 * The keys in ascending order
+		 */
+		public int[] keys()
+		{
+			int[] sorted = new int[size];
+			int i = 0;
+			for (int slot = 0; slot < groups.length; slot++)
+			{
+				if (groups[slot] != null)
+				{
+					sorted[i++] = keys[slot];
+				}
+			}
+			Arrays.sort(sorted);
+			return sorted;
+		}
+
+		@Override
+		public String toString()
+		{
+			StringBuilder text = new StringBuilder("{");
+			for (int key : keys())
+			{
+				if (text.length() > 1)
+				{
+					text.append(", ");
+				}
+				text.append(key).append('=').append(get(key));
+			}
+			return text.append('}').toString();
+		}
+	}
+
+	/**
+	 * The elements that matched the predicate and the others, in encounter order
+	 */
+	public static final class IntPartition
+	{
+		private final int[] matching;
+		private final int[] others;
+
+		IntPartition(int[] matching, int[] others)
+		{
+			this.matching = matching;
+			this.others = others;
+		}
+
+		/**
+		 * Like Map<Boolean, List<Integer>>.get(matched)
+		 */
+		public int[] get(boolean matched)
+		{
+			return matched ? matching : others;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "{false=" + Arrays.toString(others) + ", true=" + Arrays.toString(matching) + "}";
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package java8.streams.collectors;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Concurrent Grouping Collectors with Striped Primitive Counters
+ *
+ * groupingBy(classifier, counting()) on a parallel stream builds one HashMap per
+ * leaf and merges them pairwise; groupingByConcurrent(classifier, counting())
+ * shares one ConcurrentHashMap but replaces a boxed Long on every increment, so
+ * all threads counting the same hot key retry on the same bin. These collectors
+ * keep one shared table instead:
+ *
+ * - Open addressing with a fixed capacity: keys are claimed by CAS into an
+ *   AtomicReferenceArray, and every slot has one primitive counter (and sum) per
+ *   stripe. A thread always adds to its own stripe, so two threads counting the
+ *   same key update different cache lines, like the cells of a LongAdder
+ * - Keys arriving after the table is 3/4 full go to a ConcurrentHashMap of
+ *   LongAdder cells, so high-cardinality input (word frequencies) still works;
+ *   frequent keys tend to arrive early and stay in the table
+ * - The collectors are CONCURRENT and UNORDERED: a parallel stream accumulates
+ *   straight into the one shared table and never calls the combiner
+ *
+ * The finisher adds up the stripes into a HashMap<K, Long>, the same result type
+ * as groupingBy(classifier, counting()) / summingLong(mapper).
+ *
+ * Keys in the table are counted with one atomic add and no lookup object; keys
+ * in the overflow cost a probe plus a ConcurrentHashMap lookup. If the number of
+ * distinct keys is known, pass a capacity of about 4/3 of it; the table takes
+ * capacity * STRIPES * 8 bytes per counter array.
+ *
+ * Usage:
+ *   Map<String, Long> frequencies = words.parallelStream()
+ *       .collect(StripedCollectors.counting(Function.identity()));
+ */
+public final class StripedCollectors
+{
+	/** Default number of table slots; holds up to 3/4 of this many keys */
+	static final int DEFAULT_CAPACITY = 1024;
+
+	/** Longs per 64-byte cache line: the minimum distance between two stripes */
+	private static final int MIN_STRIDE = 8;
+
+	/** Stripes per slot: a power of two of at least 2 per processor */
+	static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+
+	private StripedCollectors()
+	{
+	}
+
+	/**
+	 * Like groupingBy(classifier, counting())
+	 */
+	public static <T, K> Collector<T, ?, Map<K, Long>> counting(Function<? super T, ? extends K> classifier)
+	{
+		return counting(classifier, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity table slots for the expected keys; more keys than 3/4 of this
+	 *                 are counted in the ConcurrentHashMap overflow
+	 */
+	public static <T, K> Collector<T, ?, Map<K, Long>> counting(Function<? super T, ? extends K> classifier, int capacity)
+	{
+		return Collector.<T, Table<K>, Map<K, Long>>of(
+				() -> new Table<>(capacity, false),
+				(table, element) -> table.add(classifier.apply(element), 0),
+				Table::merge,
+				table -> table.toMap(false),
+				Collector.Characteristics.CONCURRENT,
+				Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * Like groupingBy(classifier, summingLong(mapper))
+	 */
+	public static <T, K> Collector<T, ?, Map<K, Long>> summingLong(Function<? super T, ? extends K> classifier,
+			ToLongFunction<? super T> mapper)
+	{
+		return summingLong(classifier, mapper, DEFAULT_CAPACITY);
+	}
+
+	public static <T, K> Collector<T, ?, Map<K, Long>> summingLong(Function<? super T, ? extends K> classifier,
+			ToLongFunction<? super T> mapper, int capacity)
+	{
+		return Collector.<T, Table<K>, Map<K, Long>>of(
+				() -> new Table<>(capacity, true),
+				(table, element) -> table.add(classifier.apply(element), mapper.applyAsLong(element)),
+				Table::merge,
+				table -> table.toMap(true),
+				Collector.Characteristics.CONCURRENT,
+				Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * Shared accumulation container: open-addressing key table with striped
+	 * count (and optionally sum) cells, plus the overflow map
+	 */
+	static final class Table<K>
+	{
+		private final int mask;
+		private final int maxKeys;
+		private final AtomicReferenceArray<K> keys;
+		private final AtomicInteger size = new AtomicInteger();
+
+		/**
+		 * Cell of (stripe, slot) is at stripe * stride + slot: each stripe is one
+		 * contiguous block of at least a cache line, so different stripes never
+		 * share a line even in the smallest table
+		 */
+		private final int stride;
+		private final AtomicLongArray counts;
+		private final AtomicLongArray sums;
+
+		private final ConcurrentHashMap<K, Cell> overflow = new ConcurrentHashMap<>();
+
+		Table(int capacity, boolean withSums)
+		{
+			if (capacity <= 0)
+			{
+				throw new IllegalArgumentException("capacity must be positive, was " + capacity);
+			}
+			int slots = Math.max(4, Integer.highestOneBit(capacity - 1) << 1);
+			this.mask = slots - 1;
+			this.maxKeys = slots - slots / 4;
+			this.keys = new AtomicReferenceArray<>(slots);
+			this.stride = Math.max(slots, MIN_STRIDE);
+			this.counts = new AtomicLongArray(stride * STRIPES);
+			this.sums = withSums ? new AtomicLongArray(stride * STRIPES) : null;
+		}
+
+		void add(K key, long value)
+		{
+			int slot = slotOf(key);
+			if (slot < 0)
+			{
+				addOverflow(key, value);
+				return;
+			}
+			int index = stripe() * stride + slot;
+			counts.getAndIncrement(index);
+			if (sums != null)
+			{
+				sums.getAndAdd(index, value);
+			}
+		}
+
+		/**
+		 * Kept out of add() so the table path stays small enough to inline
+		 */
+		private void addOverflow(K key, long value)
+		{
+			Cell cell = cellOf(key);
+			cell.count.increment();
+			if (sums != null)
+			{
+				cell.sum.add(value);
+			}
+		}
+
+		/**
+		 * Slot holding key, claiming a free one if the table is not full; -1 if key
+		 * belongs in the overflow map
+		 */
+		private int slotOf(K key)
+		{
+			int hash = key.hashCode();
+			int slot = spread(hash) & mask;
+			while (true)
+			{
+				K existing = keys.get(slot);
+				if (existing == null)
+				{
+					// once full, the size is only read, so overflow keys do not contend on it
+					if (size.get() >= maxKeys)
+					{
+						return -1;
+					}
+					if (size.incrementAndGet() > maxKeys)
+					{
+						size.decrementAndGet();
+						return -1;
+					}
+					if (keys.compareAndSet(slot, null, key))
+					{
+						return slot;
+					}
+					// lost the race for this slot: give the reservation back and look again
+					size.decrementAndGet();
+					existing = keys.get(slot);
+				}
+				if (existing == key || existing.hashCode() == hash && existing.equals(key))
+				{
+					return slot;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+
+		/**
+		 * Only used if the stream does not run the collector concurrently
+		 */
+		Table<K> merge(Table<K> other)
+		{
+			for (int slot = 0; slot < other.keys.length(); slot++)
+			{
+				K key = other.keys.get(slot);
+				if (key != null)
+				{
+					long count = other.total(other.counts, slot);
+					long sum = other.sums == null ? 0 : other.total(other.sums, slot);
+					addAll(key, count, sum);
+				}
+			}
+			other.overflow.forEach((key, cell) -> addAll(key, cell.count.sum(), cell.sum == null ? 0 : cell.sum.sum()));
+			return this;
+		}
+
+		private void addAll(K key, long count, long sum)
+		{
+			int slot = slotOf(key);
+			if (slot < 0)
+			{
+				Cell cell = cellOf(key);
+				cell.count.add(count);
+				if (sums != null)
+				{
+					cell.sum.add(sum);
+				}
+				return;
+			}
+			int index = stripe() * stride + slot;
+			counts.getAndAdd(index, count);
+			if (sums != null)
+			{
+				sums.getAndAdd(index, sum);
+			}
+		}
+
+		/**
+		 * get() first: computeIfAbsent locks the bin unless the key is its first node
+		 */
+		private Cell cellOf(K key)
+		{
+			Cell cell = overflow.get(key);
+			return cell != null ? cell : overflow.computeIfAbsent(key, k -> new Cell(sums != null));
+		}
+
+		private long total(AtomicLongArray cells, int slot)
+		{
+			long total = 0;
+			for (int stripe = 0; stripe < STRIPES; stripe++)
+			{
+				total += cells.get(stripe * stride + slot);
+			}
+			return total;
+		}
+
+		Map<K, Long> toMap(boolean summing)
+		{
+			Map<K, Long> map = new HashMap<>();
+			for (int slot = 0; slot < keys.length(); slot++)
+			{
+				K key = keys.get(slot);
+				if (key != null)
+				{
+					map.merge(key, total(summing ? sums : counts, slot), Long::sum);
+				}
+			}
+			// a key can be in both places if it was claimed while another thread found the table full
+			overflow.forEach((key, cell) -> map.merge(key, summing ? cell.sum.sum() : cell.count.sum(), Long::sum));
+			return map;
+		}
+
+		private static int stripe()
+		{
+			return spread(System.identityHashCode(Thread.currentThread())) & (STRIPES - 1);
+		}
+
+		private static int spread(int hash)
+		{
+			hash *= 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+	}
+
+	static final class Cell
+	{
+		final LongAdder count = new LongAdder();
+		final LongAdder sum;
+
+		Cell(boolean withSum)
+		{
+			this.sum = withSum ? new LongAdder() : null;
+		}
+	}
+}
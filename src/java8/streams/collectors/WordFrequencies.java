@@ -0,0 +1,515 @@
+package java8.streams.collectors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Memory-mapped Parallel Word Count
+ *
+ * CollectorsDemo counts words with split(" ") and groupingBy(x -> x, counting()):
+ * the whole text is one String, every word becomes a String and every count a
+ * boxed Long. For files of many gigabytes this engine works on the bytes:
+ *
+ * - The file is cut into per-core chunks (at most 1 GB each, the limit of one
+ *   mapping is 2 GB), and every chunk boundary is moved forward to the next
+ *   whitespace byte, so no word is split. Each chunk is mapped with
+ *   FileChannel.map and scanned in place
+ * - A word is a maximal run of bytes that are not ASCII whitespace, like
+ *   split("\\s+"); UTF-8 multi-byte characters never contain those bytes, so
+ *   the text is never decoded
+ * - Each worker counts into its own open-addressing table of byte ranges (the
+ *   word bytes are copied once per distinct word into a byte arena, counts are
+ *   primitive longs); the stream's combiner merges the tables pairwise
+ * - Strings are created only for the result: top(n) decodes n words, toMap()
+ *   all of them
+ *
+ * The work is one hash step per byte and one table lookup per word. With a
+ * vocabulary whose table fits in the CPU caches, a few cores keep up with disk
+ * reads; large vocabularies are bound by cache misses on the table, which are
+ * still far fewer than the allocations of the String-based pipeline.
+ *
+ * Usage:
+ *   WordFrequencies frequencies = WordFrequencies.of(Paths.get("access.log"));
+ *   frequencies.top(10).forEach(e -> System.out.println(e.getKey() + " " + e.getValue()));
+ */
+public final class WordFrequencies
+{
+	/** Files shorter than this are counted in one chunk */
+	private static final int MIN_CHUNK = 1 << 20;
+
+	/** Largest chunk before it is moved to a word boundary */
+	private static final long MAX_CHUNK = 1L << 30;
+
+	/** Bytes read at a time while looking for the whitespace after a chunk boundary */
+	private static final int BOUNDARY_READ = 4096;
+
+	private static final boolean[] WHITESPACE = new boolean[256];
+
+	static
+	{
+		for (char c : new char[] { ' ', '\t', '\n', '\u000B', '\f', '\r' })
+		{
+			WHITESPACE[c] = true;
+		}
+	}
+
+	private final Table table;
+
+	private WordFrequencies(Table table)
+	{
+		this.table = table;
+	}
+
+	/**
+	 * Counts the words of file on the common pool
+	 */
+	public static WordFrequencies of(Path file) throws IOException
+	{
+		return of(file, ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * @param parallelism the file is cut into about 4 chunks per thread
+	 */
+	public static WordFrequencies of(Path file, int parallelism) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			int chunks = (int) Math.max(1, Math.min(parallelism * 4L, size / MIN_CHUNK));
+			chunks = (int) Math.max(chunks, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+			long[] bounds = new long[chunks + 1];
+			bounds[chunks] = size;
+			for (int chunk = 1; chunk < chunks; chunk++)
+			{
+				bounds[chunk] = Math.max(bounds[chunk - 1], nextWhitespace(channel, size * chunk / chunks, size));
+			}
+			Table table = IntStream.range(0, chunks)
+					.parallel()
+					.collect(Table::new, (counts, chunk) -> counts.countChunk(channel, bounds[chunk], bounds[chunk + 1]),
+							Table::merge);
+			return new WordFrequencies(table);
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Counts the words of bytes held in memory, e.g. a String's UTF-8 encoding
+	 */
+	public static WordFrequencies of(byte[] bytes)
+	{
+		Table table = new Table();
+		table.count(ByteBuffer.wrap(bytes));
+		return new WordFrequencies(table);
+	}
+
+	/**
+	 * Position of the first whitespace byte at or after position, or size
+	 */
+	private static long nextWhitespace(FileChannel channel, long position, long size) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_READ);
+		while (position < size)
+		{
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0)
+			{
+				break;
+			}
+			for (int i = 0; i < read; i++)
+			{
+				if (WHITESPACE[buffer.get(i) & 0xFF])
+				{
+					return position + i;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	// ---------------------------------------------------------------- queries
+
+	public long count(String word)
+	{
+		ByteBuffer bytes = ByteBuffer.wrap(word.getBytes(StandardCharsets.UTF_8));
+		int slot = table.find(bytes, 0, bytes.limit(), hash(bytes, 0, bytes.limit()));
+		return slot < 0 ? 0 : table.count(slot);
+	}
+
+	/**
+	 * Number of words in the file
+	 */
+	public long total()
+	{
+		long total = 0;
+		for (int slot = 0; slot < table.capacity(); slot++)
+		{
+			total += table.count(slot);
+		}
+		return total;
+	}
+
+	/**
+	 * Number of different words
+	 */
+	public int distinct()
+	{
+		return table.size;
+	}
+
+	/**
+	 * The n most frequent words, most frequent first; words with equal counts are
+	 * in byte (code point) order. Only these n words are decoded to Strings.
+	 */
+	public List<Map.Entry<String, Long>> top(int n)
+	{
+		Comparator<Integer> byFrequency = Comparator.<Integer>comparingLong(slot -> table.count(slot))
+				.thenComparing((a, b) -> table.compareKeys(b, a));
+		PriorityQueue<Integer> smallest = new PriorityQueue<>(byFrequency);
+		for (int slot = 0; slot < table.capacity() && n > 0; slot++)
+		{
+			if (table.count(slot) == 0)
+			{
+				continue;
+			}
+			if (smallest.size() < n)
+			{
+				smallest.add(slot);
+			}
+			else if (byFrequency.compare(slot, smallest.peek()) > 0)
+			{
+				smallest.poll();
+				smallest.add(slot);
+			}
+		}
+		List<Map.Entry<String, Long>> top = new ArrayList<>(smallest.size());
+		while (!smallest.isEmpty())
+		{
+			int slot = smallest.poll();
+			top.add(new AbstractMap.SimpleImmutableEntry<>(table.word(slot), table.count(slot)));
+		}
+		Collections.reverse(top);
+		return top;
+	}
+
+	/**
+	 * The same map as groupingBy(word -> word, counting()) over the words
+	 */
+	public Map<String, Long> toMap()
+	{
+		Map<String, Long> map = new HashMap<>(table.size * 4 / 3 + 1);
+		for (int slot = 0; slot < table.capacity(); slot++)
+		{
+			if (table.count(slot) != 0)
+			{
+				map.put(table.word(slot), table.count(slot));
+			}
+		}
+		return map;
+	}
+
+	@Override
+	public String toString()
+	{
+		return toMap().toString();
+	}
+
+	// ---------------------------------------------------------------- implementation
+
+	/**
+	 * FNV-1a over the bytes followed by the MurmurHash3 32-bit finalizer
+	 */
+	private static int hash(ByteBuffer bytes, int from, int to)
+	{
+		int h = 0x811C9DC5;
+		for (int i = from; i < to; i++)
+		{
+			h = (h ^ (bytes.get(i) & 0xFF)) * 0x01000193;
+		}
+		return finish(h);
+	}
+
+	private static int finish(int h)
+	{
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	/**
+	 * Open-addressing table from word bytes to counts. A slot is 4 longs (half a
+	 * cache line): the hash and length of the word (compared as one long), its
+	 * first 8 bytes, its offset in the byte arena and its count, which is 0 for a
+	 * free slot. Words of up to 8 bytes are compared without reading the arena, so
+	 * most lookups cost one cache miss at most.
+	 */
+	static final class Table
+	{
+		private static final int INITIAL_CAPACITY = 1 << 12;
+
+		private static final int KEY = 0;
+		private static final int PREFIX = 1;
+		private static final int START = 2;
+		private static final int COUNT = 3;
+		private static final int STRIDE = 4;
+
+		/** Largest byte[] most VMs can allocate */
+		private static final int MAX_ARENA = Integer.MAX_VALUE - 8;
+
+		int size;
+		private long[] slots = new long[INITIAL_CAPACITY * STRIDE];
+		private int mask = INITIAL_CAPACITY - 1;
+
+		private byte[] arena = new byte[1 << 16];
+		private int arenaSize;
+
+		void countChunk(FileChannel channel, long from, long to)
+		{
+			if (to - from > Integer.MAX_VALUE)
+			{
+				throw new UncheckedIOException(new IOException(
+						"Chunk at " + from + " is " + (to - from) + " bytes: a word is longer than 1 GB"));
+			}
+			if (to == from)
+			{
+				return;
+			}
+			try
+			{
+				count(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from));
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * Counts every word in bytes[0, limit)
+		 */
+		void count(ByteBuffer bytes)
+		{
+			int limit = bytes.limit();
+			int i = 0;
+			while (i < limit)
+			{
+				while (i < limit && WHITESPACE[bytes.get(i) & 0xFF])
+				{
+					i++;
+				}
+				if (i == limit)
+				{
+					break;
+				}
+				int start = i;
+				int h = 0x811C9DC5;
+				long prefix = 0;
+				byte b;
+				while (i < limit && !WHITESPACE[(b = bytes.get(i)) & 0xFF])
+				{
+					h = (h ^ (b & 0xFF)) * 0x01000193;
+					if (i - start < 8)
+					{
+						prefix = prefix << 8 | (b & 0xFF);
+					}
+					i++;
+				}
+				add(bytes, start, i, finish(h), prefix, 1);
+			}
+		}
+
+		int capacity()
+		{
+			return mask + 1;
+		}
+
+		long count(int slot)
+		{
+			return slots[slot * STRIDE + COUNT];
+		}
+
+		private static long key(int hash, int length)
+		{
+			return (long) hash << 32 | length;
+		}
+
+		/**
+		 * The first 8 bytes of bytes[from, to) as a big-endian long
+		 */
+		static long prefix(ByteBuffer bytes, int from, int to)
+		{
+			long prefix = 0;
+			for (int i = from; i < Math.min(to, from + 8); i++)
+			{
+				prefix = prefix << 8 | (bytes.get(i) & 0xFF);
+			}
+			return prefix;
+		}
+
+		private void add(ByteBuffer bytes, int from, int to, int hash, long prefix, long count)
+		{
+			long key = key(hash, to - from);
+			int slot = hash & mask;
+			int at;
+			while (slots[(at = slot * STRIDE) + COUNT] != 0)
+			{
+				if (slots[at + KEY] == key && slots[at + PREFIX] == prefix
+						&& (to - from <= 8 || equalKey((int) slots[at + START] + 8, bytes, from + 8, to)))
+				{
+					slots[at + COUNT] += count;
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			int length = to - from;
+			long needed = (long) arenaSize + length;
+			if (needed > arena.length)
+			{
+				if (needed > MAX_ARENA)
+				{
+					throw new OutOfMemoryError("Distinct words of one table need " + needed + " bytes, more than a byte[] can hold");
+				}
+				arena = Arrays.copyOf(arena, (int) Math.min(MAX_ARENA, Math.max((long) arena.length * 2, needed)));
+			}
+			for (int i = 0; i < length; i++)
+			{
+				arena[arenaSize + i] = bytes.get(from + i);
+			}
+			slots[at + KEY] = key;
+			slots[at + PREFIX] = prefix;
+			slots[at + START] = arenaSize;
+			slots[at + COUNT] = count;
+			arenaSize += length;
+			if (++size > capacity() - capacity() / 4)
+			{
+				grow();
+			}
+		}
+
+		int find(ByteBuffer bytes, int from, int to, int hash)
+		{
+			long key = key(hash, to - from);
+			long prefix = prefix(bytes, from, to);
+			int slot = hash & mask;
+			int at;
+			while (slots[(at = slot * STRIDE) + COUNT] != 0)
+			{
+				if (slots[at + KEY] == key && slots[at + PREFIX] == prefix
+						&& (to - from <= 8 || equalKey((int) slots[at + START] + 8, bytes, from + 8, to)))
+				{
+					return slot;
+				}
+				slot = (slot + 1) & mask;
+			}
+			return -1;
+		}
+
+		private boolean equalKey(int start, ByteBuffer bytes, int from, int to)
+		{
+			for (int i = from; i < to; i++)
+			{
+				if (arena[start++] != bytes.get(i))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Doubles the slots; the arena is kept, entries move by their stored hash
+		 */
+		private void grow()
+		{
+			long[] old = slots;
+			int capacity = capacity() * 2;
+			slots = new long[capacity * STRIDE];
+			mask = capacity - 1;
+			for (int at = 0; at < old.length; at += STRIDE)
+			{
+				if (old[at + COUNT] != 0)
+				{
+					int slot = (int) (old[at + KEY] >>> 32) & mask;
+					while (slots[slot * STRIDE + COUNT] != 0)
+					{
+						slot = (slot + 1) & mask;
+					}
+					System.arraycopy(old, at, slots, slot * STRIDE, STRIDE);
+				}
+			}
+		}
+
+		/**
+		 * Adds the counts of other; keys new to this table are copied into its arena
+		 */
+		void merge(Table other)
+		{
+			ByteBuffer otherArena = ByteBuffer.wrap(other.arena);
+			long[] entries = other.slots;
+			for (int at = 0; at < entries.length; at += STRIDE)
+			{
+				if (entries[at + COUNT] != 0)
+				{
+					int start = (int) entries[at + START];
+					add(otherArena, start, start + length(entries[at + KEY]), (int) (entries[at + KEY] >>> 32),
+							entries[at + PREFIX], entries[at + COUNT]);
+				}
+			}
+		}
+
+		private static int length(long key)
+		{
+			return (int) key;
+		}
+
+		String word(int slot)
+		{
+			int at = slot * STRIDE;
+			return new String(arena, (int) slots[at + START], length(slots[at + KEY]), StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Unsigned byte order of two keys, which is code point order for UTF-8
+		 */
+		int compareKeys(int a, int b)
+		{
+			int startA = (int) slots[a * STRIDE + START];
+			int startB = (int) slots[b * STRIDE + START];
+			int lengthA = length(slots[a * STRIDE + KEY]);
+			int lengthB = length(slots[b * STRIDE + KEY]);
+			for (int i = 0; i < Math.min(lengthA, lengthB); i++)
+			{
+				int difference = (arena[startA + i] & 0xFF) - (arena[startB + i] & 0xFF);
+				if (difference != 0)
+				{
+					return difference;
+				}
+			}
+			return lengthA - lengthB;
+		}
+	}
+}
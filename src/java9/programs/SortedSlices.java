@@ -0,0 +1,194 @@
+package java9.programs;
+
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorted-aware takeWhile() and dropWhile()
+ *
+ * On sorted data, takeWhile(t -> t <= 30) and dropWhile(t -> t <= 30) test every
+ * element up to the cut, and on a parallel stream takeWhile() cannot split
+ * cheaply because it must keep encounter order. When the source is a sorted
+ * array or random-access list and the predicate is a monotone threshold (true
+ * for a prefix, false from the cut on, as t <= 30 is on ascending data), the cut
+ * can be found by searching instead:
+ *
+ * 1. Gallop: test indexes 0, 1, 3, 7, ... until the predicate fails, so a cut
+ *    at position k costs O(log k), not O(log n)
+ * 2. Binary search between the last passing and the first failing probe
+ * 3. Return the prefix or the remainder as a SIZED, SUBSIZED slice of the
+ *    source, which splits for parallel() like Arrays.stream(array, from, to)
+ *
+ * The predicate is called O(log n) times. Wrapping an array or list declares
+ * that it is sorted and stays unmodified while its streams run; like
+ * Arrays.binarySearch(), this is not checked, and an unsorted source or a
+ * non-monotone predicate gives unspecified results. A stream reporting SORTED
+ * lets the JDK skip a following sorted(), which is only correct for natural
+ * ascending order, so only slices of ascending arrays (first element not greater
+ * than the last) report it; slices of descending arrays and of lists do not.
+ *
+ * Usage:
+ *   SortedSlices.OfInt temperatures = SortedSlices.of(sortedReadings);
+ *   IntStream acceptable = temperatures.takeWhile(t -> t <= 30);
+ *   IntStream window = temperatures.range(1_000, 2_000).parallel();
+ */
+public final class SortedSlices {
+
+    /** Added to SIZED and SUBSIZED for array slices; SORTED only if the array is ascending */
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+
+    private SortedSlices() {
+    }
+
+    public static OfInt of(int[] sorted) {
+        return new OfInt(sorted);
+    }
+
+    public static OfLong of(long[] sorted) {
+        return new OfLong(sorted);
+    }
+
+    /**
+     * @param sorted a list with fast get(int), sorted in the order the predicates assume
+     */
+    public static <T> OfList<T> of(List<T> sorted) {
+        if (!(sorted instanceof RandomAccess)) {
+            throw new IllegalArgumentException("Binary search needs a RandomAccess list, got " + sorted.getClass().getName());
+        }
+        return new OfList<>(sorted);
+    }
+
+    /**
+     * First index in [from, to) at which passes fails, for an index predicate that
+     * holds on a prefix of the range
+     */
+    static int cut(int from, int to, IntPredicate passes) {
+        int low = from;
+        long probe = from;
+        // gallop: everything before low passes
+        while (probe < to && passes.test((int) probe)) {
+            low = (int) probe + 1;
+            probe = from + 2 * (probe - from) + 1;
+        }
+        int high = (int) Math.min(probe, to);
+        // binary search: low passes or is the cut, high fails or is the end
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (passes.test(mid)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static final class OfInt {
+        private final int[] values;
+        private final int characteristics;
+
+        OfInt(int[] values) {
+            this.values = values;
+            // a sorted array is ascending exactly when its ends are
+            boolean ascending = values.length == 0 || values[0] <= values[values.length - 1];
+            this.characteristics = ascending ? CHARACTERISTICS | Spliterator.SORTED : CHARACTERISTICS;
+        }
+
+        /**
+         * Number of leading elements that pass
+         */
+        public int cut(IntPredicate prefix) {
+            return SortedSlices.cut(0, values.length, i -> prefix.test(values[i]));
+        }
+
+        public IntStream takeWhile(IntPredicate prefix) {
+            return slice(0, cut(prefix));
+        }
+
+        public IntStream dropWhile(IntPredicate prefix) {
+            return slice(cut(prefix), values.length);
+        }
+
+        /**
+         * Values v with fromInclusive <= v < toExclusive; the array must be ascending
+         */
+        public IntStream range(int fromInclusive, int toExclusive) {
+            int start = cut(v -> v < fromInclusive);
+            int end = SortedSlices.cut(start, values.length, i -> values[i] < toExclusive);
+            return slice(start, end);
+        }
+
+        private IntStream slice(int from, int to) {
+            return StreamSupport.intStream(Spliterators.spliterator(values, from, to, characteristics), false);
+        }
+    }
+
+    public static final class OfLong {
+        private final long[] values;
+        private final int characteristics;
+
+        OfLong(long[] values) {
+            this.values = values;
+            boolean ascending = values.length == 0 || values[0] <= values[values.length - 1];
+            this.characteristics = ascending ? CHARACTERISTICS | Spliterator.SORTED : CHARACTERISTICS;
+        }
+
+        public int cut(LongPredicate prefix) {
+            return SortedSlices.cut(0, values.length, i -> prefix.test(values[i]));
+        }
+
+        public LongStream takeWhile(LongPredicate prefix) {
+            return slice(0, cut(prefix));
+        }
+
+        public LongStream dropWhile(LongPredicate prefix) {
+            return slice(cut(prefix), values.length);
+        }
+
+        /**
+         * Values v with fromInclusive <= v < toExclusive, e.g. timestamps in a time
+         * window; the array must be ascending
+         */
+        public LongStream range(long fromInclusive, long toExclusive) {
+            int start = cut(v -> v < fromInclusive);
+            int end = SortedSlices.cut(start, values.length, i -> values[i] < toExclusive);
+            return slice(start, end);
+        }
+
+        private LongStream slice(int from, int to) {
+            return StreamSupport.longStream(Spliterators.spliterator(values, from, to, characteristics), false);
+        }
+    }
+
+    /**
+     * Slices are subList() views, so they split as the list's own spliterator does
+     */
+    public static final class OfList<T> {
+        private final List<T> values;
+
+        OfList(List<T> values) {
+            this.values = values;
+        }
+
+        public int cut(Predicate<? super T> prefix) {
+            return SortedSlices.cut(0, values.size(), i -> prefix.test(values.get(i)));
+        }
+
+        public Stream<T> takeWhile(Predicate<? super T> prefix) {
+            return values.subList(0, cut(prefix)).stream();
+        }
+
+        public Stream<T> dropWhile(Predicate<? super T> prefix) {
+            return values.subList(cut(prefix), values.size()).stream();
+        }
+    }
+}
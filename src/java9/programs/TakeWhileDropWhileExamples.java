@@ -3,10 +3,12 @@ package java9.programs;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 /**
  * Practical examples using takeWhile() and dropWhile()
  * Demonstrates real-world use cases for these Java 9 stream methods
+ * On sorted data, SortedSlices finds the cut by binary search instead of testing every element
  */
 public class TakeWhileDropWhileExamples {
     public static void main(String[] args) {
@@ -68,6 +70,24 @@ public class TakeWhileDropWhileExamples {
             .collect(Collectors.toList());
         
         System.out.println("Data: " + actualData);
+        
+        // Example 5: Sorted sources - find the cut by galloping/binary search
+        System.out.println("\n=== Example 5: Sorted sources ===");
+        int[] sortedTemps = {10, 15, 20, 25, 30, 35, 40, 45};
+        SortedSlices.OfInt temps = SortedSlices.of(sortedTemps);
+        
+        System.out.println("Acceptable temperatures (<= 30): " + Arrays.toString(temps.takeWhile(t -> t <= 30).toArray()));
+        System.out.println("High temperatures (> 30): " + Arrays.toString(temps.dropWhile(t -> t <= 30).toArray()));
+        System.out.println("Same on the List: " + SortedSlices.of(temperatures).takeWhile(t -> t <= 30).collect(Collectors.toList()));
+        
+        // A sorted time series: one reading per second for a day, sliced to one hour in O(log n)
+        long[] timestamps = LongStream.range(0, 86_400).map(s -> 1_700_000_000_000L + s * 1_000).toArray();
+        long hourStart = 1_700_000_000_000L + 12 * 3_600_000L;
+        long readingsInHour = SortedSlices.of(timestamps)
+            .range(hourStart, hourStart + 3_600_000L)
+            .parallel()
+            .count();
+        System.out.println("Readings between 12:00 and 13:00: " + readingsInHour);
     }
 }
 
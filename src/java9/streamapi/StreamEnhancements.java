@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import java8.streams.basics.Sequences;
+
 /**
  * Java 9 Stream API Enhancements
  * Demonstrates new methods: takeWhile(), dropWhile(), ofNullable(), and iterate() with predicate
@@ -49,6 +51,15 @@ public class StreamEnhancements {
         
         System.out.println("iterate(0, n < 10, n + 2): " + iterated); // [0, 2, 4, 6, 8]
         
+        // iterate() computes each element from the previous one, so it cannot split for
+        // parallel(); with a closed-form bound the length is known up front and it splits in O(1)
+        List<Integer> splittable = Sequences.iterate(0, Sequences.lessThan(10), 2)
+            .boxed()
+            .collect(Collectors.toList());
+        System.out.println("Sequences.iterate(0, lessThan(10), 2): " + splittable); // [0, 2, 4, 6, 8]
+        System.out.println("Parallel sum below 1M: "
+            + Sequences.iterate(0, Sequences.lessThan(1_000_000), 2).parallel().asLongStream().sum());
+        
         // Practical example: Processing until condition
         System.out.println("\n=== Practical Example ===");
         List<String> words = Arrays.asList("apple", "banana", "cherry", "date", "elderberry");